@@ -8,6 +8,7 @@ plugins {
     application
     id("org.openjfx.javafxplugin")     version "0.0.14"
     id("com.github.johnrengelman.shadow") version "8.1.1"
+    id("me.champeau.jmh")              version "0.7.2"
 
 }
 
@@ -52,10 +53,48 @@ dependencies {
     implementation("com.fasterxml.jackson.core:jackson-databind:2.13.4.2")
 
     // Otras dependencias…
+
+    // Tests (src/test): JUnit 5
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+// 4b) CLI sin JavaFX: ./gradlew runCli --args="install 1.20.1"
+tasks.register<JavaExec>("runCli") {
+    group = "application"
+    description = "Ejecuta la CLI headless (cli.YaguaCli)"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("cli.YaguaCli")
+}
+
+// 4c) Benchmarks JMH (src/jmh, fixtures en src/jmh/resources/fixtures):
+//     ./gradlew jmh                      todos
+//     ./gradlew jmh -PjmhIncludes=Sha1   solo los que coinciden (regex)
+//     resultados en build/results/jmh/results.json
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
+
+// 4d) Instalación completa contra un Mojang local (MockMojang, en src/jmh):
+//     ./gradlew installBench --args="--versions 1.20.1,1.8.9 --latency-ms 30 --bandwidth-kbps 4096"
+tasks.register<JavaExec>("installBench") {
+    group = "benchmark"
+    description = "Instala versiones contra MockMojang y reporta archivos/s, MB/s y p99 por archivo"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("core.InstallBenchmark")
 }
 
-// 5) Fat-jar con ShadowJar
-tasks.withType<ShadowJar> {
+// 5) Fat-jar con ShadowJar (solo el del launcher; jmhJar es otro)
+tasks.named<ShadowJar>("shadowJar") {
     archiveBaseName.set("YaguaLauncher")
     archiveClassifier.set("")   // quita el sufijo “-all”
     archiveVersion.set("")      // quita la versión en el nombre
@@ -0,0 +1,71 @@
+package core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Los JSON de src/jmh/resources/fixtures: un 1.20.1 con sus librerías, nativos y argumentos
+ * 1.13+, una cadena inheritsFrom de cinco niveles encima (Forge, OptiFine y dos perfiles de
+ * evento), un 1.8.9 con minecraftArguments, el manifiesto v2 y un índice de assets de ~3900
+ * objetos. Los hashes son inventados pero el manifiesto lleva el SHA-1 real de cada JSON.
+ */
+final class Fixtures {
+    static final String VANILLA = "1.20.1";
+    static final String LEGACY = "1.8.9";
+    /** Punta de 1.20.1 &lt;- forge &lt;- OptiFine &lt;- yagua-evento-base &lt;- yagua-evento-2025. */
+    static final String DEEP = "yagua-evento-2025";
+    static final List<String> VERSIONS = List.of(VANILLA, "1.20.1-forge-47.2.0",
+            "1.20.1-forge-47.2.0-OptiFine_HD_U_I6", "yagua-evento-base", DEEP, LEGACY);
+    static final String ASSET_INDEX = "5";
+
+    private Fixtures() {
+    }
+
+    static byte[] bytes(String name) throws IOException {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IOException("Falta el fixture " + name);
+            return in.readAllBytes();
+        }
+    }
+
+    static String read(String name) throws IOException {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+
+    static String versionPath(String id) {
+        return "versions/" + id + "/" + id + ".json";
+    }
+
+    /**
+     * Una .minecraft temporal con el manifiesto ya en cache/ (así {@link VersionManager} no
+     * sale a la red), los JSON en versions/ y el índice en assets/indexes/.
+     */
+    static Path minecraftDir() throws IOException {
+        Path dir = Files.createTempDirectory("yagua-bench-");
+        write(dir.resolve("cache").resolve("version_manifest_v2.json"), bytes("version_manifest_v2.json"));
+        for (String id : VERSIONS) write(dir.resolve(versionPath(id)), bytes(versionPath(id)));
+        write(dir.resolve("assets").resolve("indexes").resolve(ASSET_INDEX + ".json"), bytes(ASSET_INDEX + ".json"));
+        return dir;
+    }
+
+    private static void write(Path file, byte[] data) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, data);
+    }
+
+    static void deleteTree(Path root) {
+        if (root == null || !Files.exists(root)) return;
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
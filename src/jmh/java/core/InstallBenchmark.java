@@ -0,0 +1,133 @@
+package core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Instalación completa contra {@link MockMojang}, de punta a punta (manifiesto, JSON,
+ * librerías, nativos, cliente, índice y assets), con las mismas clases que usan la UI y la
+ * CLI. No es un benchmark JMH: lo que interesa es el throughput y la cola de latencias de
+ * cientos de descargas concurrentes, no nanosegundos de un método.
+ * <pre>
+ *   ./gradlew installBench --args="--versions 1.20.1,1.8.9 --latency-ms 30 --bandwidth-kbps 4096 --runs 3"
+ * </pre>
+ * Opciones: {@code --versions} (las que se instalan a la vez por la {@link InstallQueue}),
+ * {@code --latency-ms}, {@code --bandwidth-kbps} (por conexión, 0 = sin límite),
+ * {@code --error-rate} (0..1), {@code --scale} (tamaños respecto de los reales),
+ * {@code --runs} y {@code --reuse} (las corridas siguientes usan la misma carpeta: mide el
+ * camino de "ya está, solo verificar").
+ * <p>
+ * Emite una línea JSON por corrida: archivos/s y MB/s sobre el tiempo total (medido en el
+ * cliente), y p50/p99/max de la latencia por archivo medida en el servidor (desde que llega el
+ * pedido hasta el último byte, incluida la latencia inyectada). Por eso esas claves llevan el
+ * prefijo {@code server}: no incluyen la espera por una conexión libre ni el SHA-1 del
+ * cliente, ni las esperas entre reintentos.
+ */
+public final class InstallBenchmark {
+
+    private InstallBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> a = Arrays.asList(args);
+        List<String> versions = List.of(option(a, "--versions", Fixtures.VANILLA).split(","));
+        int runs = Integer.parseInt(option(a, "--runs", "3"));
+        boolean reuse = a.contains("--reuse");
+        MockMojang.Config config = new MockMojang.Config(
+                Long.parseLong(option(a, "--latency-ms", "0")),
+                Long.parseLong(option(a, "--bandwidth-kbps", "0")) * 1024,
+                Double.parseDouble(option(a, "--error-rate", "0")),
+                Double.parseDouble(option(a, "--scale", "0.05")));
+
+        try (MockMojang mock = new MockMojang(config)) {
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("files", mock.fileCount());
+            info.put("bytes", mock.totalBytes());
+            info.put("config", config.toString());
+            emit("server", info);
+
+            Path mcDir = null;
+            for (int run = 1; run <= runs; run++) {
+                if (mcDir == null || !reuse) {
+                    Fixtures.deleteTree(mcDir);
+                    mcDir = Files.createTempDirectory("yagua-install-bench-");
+                }
+                emit("run", runOnce(mock, mcDir, versions, run));
+            }
+            Fixtures.deleteTree(mcDir);
+        }
+        System.exit(0);
+    }
+
+    private static Map<String, Object> runOnce(MockMojang mock, Path mcDir, List<String> versions, int run)
+            throws InterruptedException {
+        VersionInstaller installer = new VersionInstaller(mcDir,
+                new VersionManager(mcDir, mock.manifestUrl()),
+                new AssetDownloader(),
+                new AssetsManager(mcDir.resolve("assets"), mock.resourcesUrl()),
+                new NativesManager(mcDir));
+        CountDownLatch finished = new CountDownLatch(versions.size());
+        InstallQueue queue = new InstallQueue(installer, versions.size(), job -> {
+            if (job.isFinished()) finished.countDown();
+        });
+
+        mock.drain();
+        long t0 = System.nanoTime();
+        for (String v : versions) queue.submit(v);
+        finished.await();
+        long wallNanos = System.nanoTime() - t0;
+        List<MockMojang.Served> served = mock.drain();
+
+        long[] latencies = served.stream().filter(MockMojang.Served::ok).mapToLong(MockMojang.Served::nanos).sorted().toArray();
+        long bytes = served.stream().filter(MockMojang.Served::ok).mapToLong(MockMojang.Served::bytes).sum();
+        double seconds = wallNanos / 1e9;
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("run", run);
+        m.put("versions", versions);
+        m.put("wallMs", wallNanos / 1_000_000);
+        m.put("files", latencies.length);
+        m.put("bytes", bytes);
+        m.put("filesPerSec", round(latencies.length / seconds));
+        m.put("mbPerSec", round(bytes / seconds / (1024 * 1024)));
+        m.put("serverP50Ms", round(percentile(latencies, 0.50) / 1e6));
+        m.put("serverP99Ms", round(percentile(latencies, 0.99) / 1e6));
+        m.put("serverMaxMs", round((latencies.length > 0 ? latencies[latencies.length - 1] : 0) / 1e6));
+        m.put("requests", served.size());
+        m.put("injectedErrors", served.stream().filter(MockMojang.Served::injectedError).count());
+        Map<String, String> failed = new LinkedHashMap<>();
+        for (InstallQueue.Job j : queue.jobs()) {
+            if (j.getStatus() == InstallQueue.Status.FAILED) failed.put(j.getVersion(), String.valueOf(j.getError()));
+        }
+        if (!failed.isEmpty()) m.put("failed", failed);
+        return m;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100) / 100.0;
+    }
+
+    private static String option(List<String> args, String name, String def) {
+        int i = args.indexOf(name);
+        return (i >= 0 && i + 1 < args.size()) ? args.get(i + 1) : def;
+    }
+
+    private static void emit(String event, Map<String, ?> fields) throws JsonProcessingException {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("event", event);
+        m.putAll(fields);
+        System.out.println(JsonStore.MAPPER.writeValueAsString(m));
+    }
+}
@@ -0,0 +1,127 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lo que hace {@link LaunchExecutor} antes de arrancar el proceso, sobre la versión de la
+ * punta de la cadena de fixtures (~120 librerías): armar el classpath con todas las
+ * librerías ya en disco, calcular rutas Maven desde coordenadas, y compilar y expandir los
+ * argumentos (lo que antes hacía splitArgsAndSubstitute en cada lanzamiento).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LaunchBenchmark {
+    private Path mcDir;
+    private File librariesRoot;
+    private VersionDetails deep;
+    private VersionDetails legacy;
+    private List<String> coords;
+    private Map<String, String> vars;
+    private ArgumentTemplate.Environment env;
+
+    @Setup
+    public void setup() throws Exception {
+        mcDir = Fixtures.minecraftDir();
+        librariesRoot = mcDir.resolve("libraries").toFile();
+        VersionManager vm = new VersionManager(mcDir);
+        vm.loadCachedManifest();
+        deep = vm.resolveVersionDetails(Fixtures.DEEP, mcDir);
+        legacy = vm.resolveVersionDetails(Fixtures.LEGACY, mcDir);
+
+        // todas las librerías presentes (vacías): se mide armar el classpath, no bajar
+        coords = new ArrayList<>();
+        for (VersionDetails.Library lib : deep.getLibraries()) {
+            var dls = lib.getDownloads();
+            String rel;
+            if (dls != null && dls.getArtifact() != null && dls.getArtifact().getUrl() != null) {
+                rel = URI.create(dls.getArtifact().getUrl()).getPath().substring(1);
+            } else {
+                rel = LaunchExecutor.mavenPathFromCoord(lib.getName());
+            }
+            if (lib.getName() != null) coords.add(lib.getName());
+            Path jar = librariesRoot.toPath().resolve(rel);
+            Files.createDirectories(jar.getParent());
+            if (!Files.exists(jar)) Files.createFile(jar);
+        }
+
+        vars = new HashMap<>();
+        vars.put("auth_player_name", "Steve");
+        vars.put("version_name", Fixtures.DEEP);
+        vars.put("version_type", "release");
+        vars.put("game_directory", mcDir.toString());
+        vars.put("assets_root", mcDir.resolve("assets").toString());
+        vars.put("game_assets", mcDir.resolve("assets").toString());
+        vars.put("assets_index_name", Fixtures.ASSET_INDEX);
+        vars.put("auth_uuid", "8667ba71b85a4004af54457a9734eed7");
+        vars.put("auth_access_token", "8667ba71b85a4004af54457a9734eed7");
+        vars.put("auth_session", "8667ba71b85a4004af54457a9734eed7");
+        vars.put("auth_xuid", "0");
+        vars.put("clientid", "0");
+        vars.put("user_type", "legacy");
+        vars.put("user_properties", "{}");
+        vars.put("natives_directory", mcDir.resolve("versions").resolve(Fixtures.DEEP).resolve(Fixtures.DEEP + "-natives").toString());
+        vars.put("library_directory", librariesRoot.getAbsolutePath());
+        vars.put("classpath", String.join(File.pathSeparator, LaunchExecutor.libraryClasspath(deep, librariesRoot)));
+        vars.put("classpath_separator", File.pathSeparator);
+        vars.put("resolution_width", "854");
+        vars.put("resolution_height", "480");
+        vars.put("launcher_name", "YaguaLauncher");
+        vars.put("launcher_version", "1.0");
+        env = ArgumentTemplate.Environment.current(Set.of("has_custom_resolution"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.deleteTree(mcDir);
+    }
+
+    @Benchmark
+    public String classpath() throws IOException {
+        return String.join(File.pathSeparator, LaunchExecutor.libraryClasspath(deep, librariesRoot));
+    }
+
+    @Benchmark
+    public void mavenPaths(Blackhole bh) {
+        for (String coord : coords) bh.consume(LaunchExecutor.mavenPathFromCoord(coord));
+    }
+
+    /** Primer lanzamiento de una versión: compilar las plantillas y expandirlas. */
+    @Benchmark
+    public void compileAndExpandArguments(Blackhole bh) {
+        bh.consume(ArgumentTemplate.compile(deep.getArguments().getJvm()).expand(env, vars));
+        bh.consume(ArgumentTemplate.compile(deep.getArguments().getGame()).expand(env, vars));
+    }
+
+    /** Lanzamientos siguientes: las plantillas ya están compiladas en {@link VersionDetails}. */
+    @Benchmark
+    public void expandArguments(Blackhole bh) {
+        bh.consume(deep.getJvmTemplate().expand(env, vars));
+        bh.consume(deep.getGameTemplate().expand(env, vars));
+    }
+
+    @Benchmark
+    public List<String> expandLegacyArguments() {
+        return ArgumentTemplate.compileLegacy(legacy.getMinecraftArguments()).expand(env, vars);
+    }
+}
@@ -0,0 +1,273 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Un Mojang de mentira en 127.0.0.1 para medir instalaciones sin salir a la red: manifiesto
+ * v2, JSON de versión (1.20.1 y 1.8.9 de los fixtures), librerías, jars de nativos (zips de
+ * verdad, para que se puedan extraer), cliente, índice de assets y los ~3900 objetos.
+ * <p>
+ * Los nombres, rutas y tamaños salen de los fixtures; el contenido es aleatorio pero fijo
+ * por ruta, y los SHA-1 de los JSON servidos son los de ese contenido, así que una
+ * instalación verifica todo igual que contra el CDN real. Los tamaños se escalan con
+ * {@link Config#sizeScale()} para que entre en memoria.
+ */
+public final class MockMojang implements AutoCloseable {
+
+    /**
+     * @param latencyMs   Espera antes de responder cada pedido
+     * @param bytesPerSec Ancho de banda por conexión (0 = sin límite)
+     * @param errorRate   Probabilidad de que un pedido falle: la mitad de las veces un 503,
+     *                    la otra mitad la conexión se corta a mitad del cuerpo
+     * @param sizeScale   Factor sobre los tamaños reales (1 = un 1.20.1 completo, ~700 MB)
+     */
+    public record Config(long latencyMs, long bytesPerSec, double errorRate, double sizeScale) {
+        public static Config defaults() {
+            return new Config(0, 0, 0, 0.05);
+        }
+    }
+
+    /** Un pedido atendido: desde que llegó hasta el último byte escrito (o el corte). */
+    public record Served(String path, int status, long bytes, long nanos, boolean injectedError) {
+        public boolean ok() {
+            return status == 200 && !injectedError;
+        }
+    }
+
+    private static final int CHUNK = 16 * 1024;
+
+    private final Config config;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, byte[]> files = new HashMap<>();
+    private final Queue<Served> served = new ConcurrentLinkedQueue<>();
+    private final String base;
+
+    public MockMojang(Config config) throws IOException {
+        this.config = config;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        build(new ObjectMapper());
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String manifestUrl() {
+        return base + "mc/game/version_manifest_v2.json";
+    }
+
+    /** Para {@link AssetsManager#AssetsManager(java.nio.file.Path, String)}. */
+    public String resourcesUrl() {
+        return base + "resources/";
+    }
+
+    /** Archivos que sirve (sin contar el manifiesto y los JSON) y su tamaño total. */
+    public int fileCount() {
+        return files.size();
+    }
+
+    public long totalBytes() {
+        long sum = 0;
+        for (byte[] b : files.values()) sum += b.length;
+        return sum;
+    }
+
+    /** Lo atendido desde la última llamada. */
+    public List<Served> drain() {
+        List<Served> out = new ArrayList<>();
+        Served s;
+        while ((s = served.poll()) != null) out.add(s);
+        return out;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ===== contenido =====
+
+    private void build(ObjectMapper m) throws IOException {
+        // índice: mismos nombres y tamaños que el fixture; los que comparten objeto lo siguen compartiendo
+        JsonNode fixtureIndex = m.readTree(Fixtures.bytes(Fixtures.ASSET_INDEX + ".json"));
+        ObjectNode objects = m.createObjectNode();
+        Map<String, ObjectNode> byFixtureHash = new HashMap<>();
+        var it = fixtureIndex.get("objects").fields();
+        while (it.hasNext()) {
+            var e = it.next();
+            String fixtureHash = e.getValue().get("hash").asText();
+            ObjectNode o = byFixtureHash.computeIfAbsent(fixtureHash, h -> {
+                byte[] data = random(h, scaled(e.getValue().get("size").asLong()));
+                String sha = sha1(data);
+                files.put("resources/" + sha.substring(0, 2) + "/" + sha, data);
+                return m.createObjectNode().put("hash", sha).put("size", data.length);
+            });
+            objects.set(e.getKey(), o);
+        }
+        byte[] index = m.writeValueAsBytes(m.createObjectNode().set("objects", objects));
+        String indexSha = sha1(index);
+
+        ArrayNode versions = m.createArrayNode();
+        for (String id : List.of(Fixtures.VANILLA, Fixtures.LEGACY)) {
+            ObjectNode v = (ObjectNode) m.readTree(Fixtures.bytes(Fixtures.versionPath(id)));
+            for (JsonNode lib : v.path("libraries")) {
+                JsonNode dls = lib.path("downloads");
+                if (dls.has("artifact")) {
+                    serveArtifact((ObjectNode) dls.get("artifact"), lib.path("name").asText().contains(":natives-"));
+                }
+                for (JsonNode c : dls.path("classifiers")) serveArtifact((ObjectNode) c, true);
+            }
+
+            ObjectNode client = (ObjectNode) v.path("downloads").path("client");
+            byte[] jar = random("client-" + id, scaled(client.get("size").asLong()));
+            String clientSha = sha1(jar);
+            files.put("v1/objects/" + clientSha + "/client.jar", jar);
+            client.put("url", base + "v1/objects/" + clientSha + "/client.jar")
+                    .put("sha1", clientSha).put("size", jar.length);
+
+            ObjectNode ai = (ObjectNode) v.get("assetIndex");
+            String aiPath = "v1/packages/" + indexSha + "/" + ai.get("id").asText() + ".json";
+            files.put(aiPath, index);
+            ai.put("url", base + aiPath).put("sha1", indexSha).put("size", index.length);
+
+            byte[] json = m.writerWithDefaultPrettyPrinter().writeValueAsBytes(v);
+            String jsonSha = sha1(json);
+            String jsonPath = "v1/packages/" + jsonSha + "/" + id + ".json";
+            files.put(jsonPath, json);
+            versions.addObject()
+                    .put("id", id).put("type", v.path("type").asText("release"))
+                    .put("url", base + jsonPath)
+                    .put("time", v.path("time").asText()).put("releaseTime", v.path("releaseTime").asText())
+                    .put("sha1", jsonSha).put("complianceLevel", 1);
+        }
+
+        ObjectNode manifest = m.createObjectNode();
+        manifest.putObject("latest").put("release", Fixtures.VANILLA).put("snapshot", Fixtures.VANILLA);
+        manifest.set("versions", versions);
+        files.put("mc/game/version_manifest_v2.json", m.writeValueAsBytes(manifest));
+    }
+
+    private void serveArtifact(ObjectNode art, boolean natives) throws IOException {
+        String path = art.hasNonNull("path") ? art.get("path").asText()
+                : URI.create(art.get("url").asText()).getPath().substring(1);
+        int size = scaled(art.path("size").asLong(64 * 1024));
+        byte[] data = natives ? nativesJar(path, size) : random(path, size);
+        String sha = sha1(data);
+        files.put("libraries/" + path, data);
+        art.put("url", base + "libraries/" + path).put("sha1", sha).put("size", data.length);
+    }
+
+    private int scaled(long size) {
+        return (int) Math.max(1, Math.round(size * config.sizeScale()));
+    }
+
+    /** Bytes aleatorios pero siempre los mismos para la misma semilla. */
+    private static byte[] random(String seed, int size) {
+        byte[] data = new byte[size];
+        SplittableRandom r = new SplittableRandom(seed.hashCode());
+        for (int i = 0; i < size; i += 8) {
+            long v = r.nextLong();
+            for (int k = 0; k < 8 && i + k < size; k++, v >>>= 8) data[i + k] = (byte) v;
+        }
+        return data;
+    }
+
+    /** Un jar de nativos que se puede extraer: un manifiesto (excluido) y dos bibliotecas. */
+    private static byte[] nativesJar(String path, int size) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(size + 1024);
+        try (ZipOutputStream zip = new ZipOutputStream(bos)) {
+            zip.setLevel(0);
+            zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            zip.write("Manifest-Version: 1.0\n".getBytes());
+            for (int i = 0; i < 2; i++) {
+                zip.putNextEntry(new ZipEntry("native" + i + ".so"));
+                zip.write(random(path + i, Math.max(1, size / 2)));
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static String sha1(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(data));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // ===== HTTP =====
+
+    private void handle(HttpExchange ex) {
+        long t0 = System.nanoTime();
+        String path = ex.getRequestURI().getPath().substring(1);
+        int status = 200;
+        long sent = 0;
+        boolean inject = false;
+        try (ex) {
+            byte[] body = files.get(path);
+            if (body == null || !"GET".equals(ex.getRequestMethod())) {
+                status = 404;
+                ex.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (config.latencyMs() > 0) Thread.sleep(config.latencyMs());
+            inject = config.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < config.errorRate();
+            if (inject && ThreadLocalRandom.current().nextBoolean()) {
+                status = 503;
+                ex.sendResponseHeaders(503, -1);
+                return;
+            }
+            ex.sendResponseHeaders(200, body.length);
+            // corte: se anuncia el largo completo y se cierra a mitad
+            int limit = inject ? body.length / 2 : body.length;
+            OutputStream out = ex.getResponseBody();
+            long start = System.nanoTime();
+            while (sent < limit) {
+                int n = (int) Math.min(CHUNK, limit - sent);
+                out.write(body, (int) sent, n);
+                sent += n;
+                if (config.bytesPerSec() > 0) {
+                    long due = start + sent * 1_000_000_000L / config.bytesPerSec();
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+            }
+            out.flush();
+        } catch (IOException ignored) {
+            // el cliente cortó, o el corte inyectado: igual se registra
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            served.add(new Served(path, status, sent, System.nanoTime() - t0, inject));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AssetsManager#verifySha1} sobre archivos del tamaño de lo que se verifica en una
+ * instalación: un asset chico, una librería típica, un jar de nativos y el cliente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Sha1Benchmark {
+    @Param({"4096", "262144", "4194304", "25165824"})
+    int size;
+
+    private AssetsManager assets;
+    private Path dir;
+    private Path file;
+    private String expected;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("yagua-sha1-");
+        assets = new AssetsManager(dir);
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        file = dir.resolve("blob.bin");
+        Files.write(file, data);
+        expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(data));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.deleteTree(dir);
+    }
+
+    @Benchmark
+    public boolean verifySha1() throws IOException {
+        return assets.verifySha1(file, expected);
+    }
+}
@@ -0,0 +1,60 @@
+package core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura de JSON en el camino de instalar y lanzar: el índice de assets (lo que hace
+ * {@link AssetsManager#fetchAssetIndex} después de bajarlo) y la resolución de una cadena
+ * inheritsFrom de cinco niveles, sin memoizar (primer lanzamiento o algún JSON cambió) y
+ * memoizada (lanzamientos siguientes: solo revisa fechas y tamaños).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VersionJsonBenchmark {
+    private Path mcDir;
+    private AssetsManager assets;
+    private String assetIndexJson;
+    private VersionManager versions;
+
+    @Setup
+    public void setup() throws IOException {
+        mcDir = Fixtures.minecraftDir();
+        assets = new AssetsManager(mcDir.resolve("assets"));
+        assetIndexJson = Fixtures.read(Fixtures.ASSET_INDEX + ".json");
+        versions = new VersionManager(mcDir);
+        if (!versions.loadCachedManifest()) throw new IllegalStateException("No se pudo leer el manifiesto del fixture");
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.deleteTree(mcDir);
+    }
+
+    @Benchmark
+    public AssetsManager.AssetIndex parseAssetIndex() throws IOException {
+        return assets.parseIndex(assetIndexJson);
+    }
+
+    @Benchmark
+    public VersionDetails resolveDeepChainCold() throws IOException {
+        versions.invalidate(Fixtures.VANILLA);   // descarta toda la cadena
+        return versions.resolveVersionDetails(Fixtures.DEEP, mcDir);
+    }
+
+    @Benchmark
+    public VersionDetails resolveDeepChainMemoized() throws IOException {
+        return versions.resolveVersionDetails(Fixtures.DEEP, mcDir);
+    }
+}
@@ -0,0 +1,406 @@
+package cli;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import core.AssetDownloader;
+import core.AssetsManager;
+import core.AuthManager;
+import core.BinaryDelta;
+import core.GameInstance;
+import core.InstallQueue;
+import core.LaunchExecutor;
+import core.NativesManager;
+import core.ProfileManager;
+import core.SavedServers;
+import core.SelfUpdater;
+import core.ServerMonitor;
+import core.ServerPinger;
+import core.VersionCatalog;
+import core.VersionInstaller;
+import core.VersionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interfaz de línea de comandos sin JavaFX, para aprovisionar máquinas por script.
+ * Cada línea de salida es un objeto JSON con un campo "event".
+ *
+ * <pre>
+ *   java -cp YaguaLauncher.jar cli.YaguaCli [--dir &lt;.minecraft&gt;] &lt;comando&gt; ...
+ *
+ *   list    [--snapshots] [--installed]
+ *   install &lt;versión&gt;... [--parallel N]   (N versiones a la vez, 3 por defecto)
+ *   verify  &lt;versión&gt;...
+ *   launch  &lt;versión|perfil&gt; --user &lt;nombre&gt; [--ram MB] [--server host[:puerto]] [--java JAVA_HOME]
+ *   gc      [--keep-days N]
+ *   ping    [host[:puerto]...] [--timeout MS]   (sin direcciones: los de servers.dat)
+ *   delta   &lt;jar base&gt; &lt;jar nuevo&gt; &lt;carpeta&gt;   (parche de actualización para publicar en la release)
+ * </pre>
+ * Código de salida: 0 ok, 1 error, 2 uso incorrecto, 130 install cancelado con Ctrl+C
+ * (en launch, el código del juego).
+ */
+public class YaguaCli {
+    private static final long PROGRESS_INTERVAL_MS = 250;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final Path mcBaseDir;
+    private final VersionManager versionManager;
+    private final AssetsManager assetsManager;
+    private final VersionInstaller installer;
+
+    private YaguaCli(Path mcBaseDir) {
+        this.mcBaseDir = mcBaseDir;
+        this.versionManager = new VersionManager(mcBaseDir);
+        this.assetsManager = new AssetsManager(mcBaseDir.resolve("assets"));
+        this.installer = new VersionInstaller(mcBaseDir, versionManager, new AssetDownloader(),
+                assetsManager, new NativesManager(mcBaseDir));
+    }
+
+    public static void main(String[] args) {
+        List<String> rest = new ArrayList<>(List.of(args));
+        Path dir = defaultMcBaseDir();
+        int d = rest.indexOf("--dir");
+        if (d >= 0 && d + 1 < rest.size()) {
+            dir = Paths.get(rest.get(d + 1));
+            rest.remove(d + 1);
+            rest.remove(d);
+        }
+        if (rest.isEmpty()) {
+            usage();
+            System.exit(2);
+        }
+        String cmd = rest.remove(0);
+        YaguaCli cli = new YaguaCli(dir);
+        int code;
+        try {
+            code = switch (cmd) {
+                case "list" -> cli.list(rest);
+                case "install" -> cli.install(rest);
+                case "verify" -> cli.verify(rest);
+                case "launch" -> cli.launch(rest);
+                case "gc" -> cli.gc(rest);
+                case "ping" -> cli.ping(rest);
+                case "delta" -> cli.delta(rest);
+                default -> {
+                    usage();
+                    yield 2;
+                }
+            };
+        } catch (Exception ex) {
+            cli.emit("error", Map.of("message", String.valueOf(ex.getMessage())));
+            code = 1;
+        }
+        System.exit(code);
+    }
+
+    private int list(List<String> args) throws Exception {
+        boolean snapshots = args.contains("--snapshots");
+        Set<String> installed = installer.scanInstalled();
+        if (args.contains("--installed")) {
+            for (String id : installed) emit("version", Map.of("id", id, "installed", true));
+            return 0;
+        }
+        versionManager.fetchManifest();
+        VersionCatalog catalog = versionManager.getCatalog();
+        for (VersionManager.Version v : snapshots ? catalog.newestFirst() : catalog.ofType(VersionCatalog.RELEASE)) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", v.getId());
+            m.put("type", v.getType());
+            m.put("releaseTime", v.getReleaseTime());
+            m.put("installed", installed.contains(v.getId()));
+            emit("version", m);
+        }
+        return 0;
+    }
+
+    private int install(List<String> args) throws InterruptedException {
+        int parallel = Integer.parseInt(option(args, "--parallel", String.valueOf(InstallQueue.DEFAULT_CONCURRENCY)));
+        int p = args.indexOf("--parallel");
+        if (p >= 0) args.subList(p, Math.min(p + 2, args.size())).clear();
+        List<String> versions = args.stream().distinct().toList();
+        if (versions.isEmpty()) return usageError("install necesita al menos una versión");
+
+        CountDownLatch finished = new CountDownLatch(versions.size());
+        Map<String, VersionInstaller.ProgressListener> progress = new ConcurrentHashMap<>();
+        Map<String, InstallQueue.Status> seen = new ConcurrentHashMap<>();
+        AtomicInteger failures = new AtomicInteger(), cancelled = new AtomicInteger();
+        InstallQueue queue = new InstallQueue(installer, parallel, job -> {
+            String ver = job.getVersion();
+            InstallQueue.Status st = job.getStatus();
+            if (seen.put(ver, st) == st) {
+                if (st == InstallQueue.Status.RUNNING) {
+                    progress.computeIfAbsent(ver, this::throttled)
+                            .onProgress(job.getMessage(), job.getDone(), job.getTotal());
+                }
+                return;
+            }
+            switch (st) {
+                case QUEUED -> emit("install-queued", Map.of("version", ver));
+                case RUNNING -> emit("install-start", Map.of("version", ver));
+                case DONE -> emit("install-done", Map.of("version", ver, "elapsedMs", job.elapsedMs()));
+                case CANCELLED -> {
+                    cancelled.incrementAndGet();
+                    emit("install-cancelled", Map.of("version", ver));
+                }
+                case FAILED -> {
+                    failures.incrementAndGet();
+                    emit("install-failed", Map.of("version", ver, "message", String.valueOf(job.getError().getMessage())));
+                }
+            }
+            if (job.isFinished()) finished.countDown();
+        });
+
+        // Ctrl+C cancela limpio (sin archivos a medias) y el próximo install sigue desde ahí
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            queue.cancelAll();
+            try {
+                finished.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        }, "cli-cancel"));
+
+        for (String ver : versions) queue.submit(ver);
+        while (!finished.await(PROGRESS_INTERVAL_MS * 4, TimeUnit.MILLISECONDS)) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("progress", Math.round(queue.progress() * 1000) / 1000.0);
+            queue.counts().forEach((st, n) -> m.put(st.name().toLowerCase(), n));
+            emit("progress-total", m);
+        }
+        if (cancelled.get() > 0) return 130;
+        return failures.get() == 0 ? 0 : 1;
+    }
+
+    private int verify(List<String> versions) {
+        if (versions.isEmpty()) return usageError("verify necesita al menos una versión");
+        int failures = 0;
+        for (String ver : versions) {
+            try {
+                VersionInstaller.VerifyReport r = installer.verify(ver, throttled(ver));
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("version", ver);
+                m.put("ok", r.ok());
+                m.put("checked", r.checked());
+                m.put("missing", r.missing());
+                m.put("corrupt", r.corrupt());
+                emit("verify-result", m);
+                if (!r.ok()) failures++;
+            } catch (Exception ex) {
+                failures++;
+                emit("verify-failed", Map.of("version", ver, "message", String.valueOf(ex.getMessage())));
+            }
+        }
+        return failures == 0 ? 0 : 1;
+    }
+
+    private int launch(List<String> args) throws Exception {
+        if (args.isEmpty()) return usageError("launch necesita una versión o perfil");
+        String target = args.get(0);
+        String user = option(args, "--user", null);
+        if (user == null || user.isBlank()) return usageError("launch necesita --user");
+
+        // si coincide con un perfil guardado, se usan su versión y RAM
+        ProfileManager.Profile profile = new ProfileManager(mcBaseDir).getProfiles().get(target);
+        String ver = (profile != null && profile.getVersionId() != null) ? profile.getVersionId() : target;
+        int ram = Integer.parseInt(option(args, "--ram",
+                String.valueOf(profile != null && profile.getRamMb() > 0 ? profile.getRamMb() : 2048)));
+
+        String server = option(args, "--server", null);
+        String host = null;
+        int port = 25565;
+        if (server != null) {
+            int colon = server.lastIndexOf(':');
+            host = (colon > 0) ? server.substring(0, colon) : server;
+            if (colon > 0) port = Integer.parseInt(server.substring(colon + 1));
+        }
+
+        String javaHome = option(args, "--java", System.getenv("JAVA_HOME"));
+        if (javaHome == null) javaHome = System.getProperty("java.home");
+
+        AuthManager auth = new AuthManager();
+        AuthManager.Session session = auth.loginOffline(user);
+        LaunchExecutor executor = new LaunchExecutor(javaHome, versionManager);
+        // el listener va desde el arranque (no se pierde ninguna línea), pero "launched" sale primero
+        CountDownLatch launched = new CountDownLatch(1);
+        GameInstance gi = executor.start(session, ver, mcBaseDir.toFile(), ram, host, port, ev -> {
+            try {
+                launched.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("time", ev.time());
+            m.put("level", ev.level().name());
+            m.put("thread", ev.thread());
+            m.put("logger", ev.logger());
+            m.put("message", ev.message());
+            emit("log", m);
+        });
+
+        Map<String, Object> started = new LinkedHashMap<>();
+        started.put("version", ver);
+        started.put("pid", gi.pid());
+        started.put("session", gi.getSessionDir().toString());
+        emit("launched", started);
+        launched.countDown();
+
+        int exit = gi.onExit().get();
+        emit("exited", Map.of("version", ver, "exitCode", exit));
+        emit("timings", Map.of("version", ver, "phasesMs", gi.getTimings().getPhases()));
+        return exit;
+    }
+
+    private int gc(List<String> args) throws Exception {
+        int days = Integer.parseInt(option(args, "--keep-days", "30"));
+        VersionInstaller.GcReport r = installer.gc(Duration.ofDays(days));
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("nativesRemoved", r.nativesRemoved());
+        m.put("assetObjectsRemoved", r.assetObjectsRemoved());
+        m.put("tempFilesRemoved", r.tempFilesRemoved());
+        m.put("sessionsRemoved", r.sessionsRemoved());
+        m.put("bytesFreed", r.bytesFreed());
+        emit("gc-result", m);
+        return 0;
+    }
+
+    private int ping(List<String> args) throws Exception {
+        long timeout = Long.parseLong(option(args, "--timeout", "3000"));
+        int t = args.indexOf("--timeout");
+        if (t >= 0) args.subList(t, Math.min(t + 2, args.size())).clear();
+
+        List<ServerMonitor.Server> servers = new ArrayList<>();
+        for (String a : args) {
+            try {
+                servers.add(new ServerMonitor.Server(a, ServerPinger.Address.parse(a)));
+            } catch (RuntimeException ex) {
+                return usageError("dirección inválida: " + a);
+            }
+        }
+        if (servers.isEmpty()) servers = SavedServers.read(mcBaseDir);
+        if (servers.isEmpty()) return usageError("ping necesita una dirección (no hay servidores guardados)");
+
+        int offline = 0;
+        try (ServerPinger pinger = new ServerPinger(timeout)) {
+            List<CompletableFuture<ServerPinger.Status>> results = new ArrayList<>();
+            for (ServerMonitor.Server s : servers) results.add(pinger.ping(s.address()));
+            for (int i = 0; i < servers.size(); i++) {
+                ServerPinger.Status st = results.get(i).get();
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("name", servers.get(i).name());
+                m.put("address", st.address().toString());
+                m.put("resolved", st.resolved().toString());
+                m.put("online", st.online());
+                if (st.online()) {
+                    m.put("latencyMs", st.latencyMs());
+                    m.put("version", st.version());
+                    m.put("protocol", st.protocol());
+                    m.put("players", st.playersOnline());
+                    m.put("maxPlayers", st.playersMax());
+                    m.put("motd", st.motd());
+                } else {
+                    offline++;
+                    m.put("error", st.error());
+                }
+                emit("server", m);
+            }
+        }
+        return offline == 0 ? 0 : 1;
+    }
+
+    /**
+     * Arma el parche del launcher entre dos jars con el nombre que busca
+     * {@link SelfUpdater}: {@code YaguaLauncher-from-<sha256 base, 16 hex>.ydelta}.
+     */
+    private int delta(List<String> args) throws Exception {
+        if (args.size() != 3) return usageError("delta necesita <jar base> <jar nuevo> <carpeta>");
+        Path base = Paths.get(args.get(0));
+        Path target = Paths.get(args.get(1));
+        Path outDir = Paths.get(args.get(2));
+        Files.createDirectories(outDir);
+        Path out = outDir.resolve("YaguaLauncher-from-" + BinaryDelta.sha256Hex(base).substring(0, 16)
+                + SelfUpdater.DELTA_SUFFIX);
+        long t0 = System.nanoTime();
+        BinaryDelta.create(base, target, out);
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("file", out.toString());
+        m.put("bytes", Files.size(out));
+        m.put("targetBytes", Files.size(target));
+        m.put("elapsedMs", (System.nanoTime() - t0) / 1_000_000);
+        emit("delta", m);
+        return 0;
+    }
+
+    // ===== helpers =====
+
+    /** Emite progreso como mucho cada PROGRESS_INTERVAL_MS, y siempre el último. Llega desde varios hilos. */
+    private VersionInstaller.ProgressListener throttled(String ver) {
+        AtomicLong last = new AtomicLong();
+        return (msg, done, total) -> {
+            long now = System.currentTimeMillis();
+            long prev = last.get();
+            if (done < total && (now - prev < PROGRESS_INTERVAL_MS || !last.compareAndSet(prev, now))) return;
+            last.set(now);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("version", ver);
+            m.put("done", done);
+            m.put("total", total);
+            if (msg != null) m.put("message", msg);
+            emit("progress", m);
+        };
+    }
+
+    private synchronized void emit(String event, Map<String, ?> fields) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("event", event);
+        m.putAll(fields);
+        try {
+            System.out.println(json.writeValueAsString(m));
+        } catch (JsonProcessingException ex) {
+            System.out.println("{\"event\":\"error\",\"message\":\"json\"}");
+        }
+    }
+
+    private int usageError(String message) {
+        emit("error", Map.of("message", message));
+        return 2;
+    }
+
+    private static String option(List<String> args, String name, String def) {
+        int i = args.indexOf(name);
+        return (i >= 0 && i + 1 < args.size()) ? args.get(i + 1) : def;
+    }
+
+    private static void usage() {
+        System.err.println("""
+                Uso: java -cp YaguaLauncher.jar cli.YaguaCli [--dir <.minecraft>] <comando> ...
+                  list    [--snapshots] [--installed]
+                  install <versión>... [--parallel N]
+                  verify  <versión>...
+                  launch  <versión|perfil> --user <nombre> [--ram MB] [--server host[:puerto]] [--java JAVA_HOME]
+                  gc      [--keep-days N]
+                  ping    [host[:puerto]...] [--timeout MS]
+                  delta   <jar base> <jar nuevo> <carpeta>""");
+    }
+
+    private static Path defaultMcBaseDir() {
+        String os = System.getProperty("os.name").toLowerCase();
+        if (os.contains("win")) {
+            String appdata = System.getenv("APPDATA");
+            return Paths.get(appdata != null ? appdata : System.getProperty("user.home"), ".minecraft");
+        }
+        return Paths.get(System.getProperty("user.home"), ".minecraft");
+    }
+}
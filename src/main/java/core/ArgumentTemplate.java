@@ -0,0 +1,173 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Argumentos de lanzamiento de una versión ya "compilados": cada token se parte una sola vez
+ * en texto fijo y huecos de variables (${auth_player_name}, ${classpath}...), y las reglas
+ * (os/arch/features, ver {@link Rules}) del formato 1.13+ quedan preparadas para evaluarse sin
+ * volver a leer el JSON.
+ * <p>
+ * Expandir cuesta una pasada sobre los tokens: sin regex ni replace repetidos.
+ * Las variables desconocidas quedan tal cual, como hace el launcher oficial.
+ */
+public final class ArgumentTemplate {
+
+    /** Dónde se va a ejecutar: decide qué reglas aplican. */
+    public record Environment(String os, String arch, String osVersion, Set<String> features) {
+        /** El sistema actual con las features indicadas activas (p.ej. "has_custom_resolution"). */
+        public static Environment current(Set<String> features) {
+            return new Environment(NativesManager.osName(), NativesManager.archName(),
+                    System.getProperty("os.version"), features);
+        }
+    }
+
+    /**
+     * Un token: text[0] + var[slots[0]] + text[1] + ... + text[n].
+     * Si no tiene huecos, slots está vacío y text[0] es el token entero.
+     */
+    private record Token(String[] text, int[] slots) {
+    }
+
+    /** Una entrada del JSON: uno o más tokens, condicionados por reglas. */
+    private record Arg(Rules.Rule[] rules, Token[] values) {
+        boolean allowed(Environment env) {
+            return Rules.allowed(rules, env);
+        }
+    }
+
+    private final Arg[] args;
+    private final String[] varNames;
+
+    private ArgumentTemplate(Arg[] args, String[] varNames) {
+        this.args = args;
+        this.varNames = varNames;
+    }
+
+    /**
+     * Compila la lista "arguments.game" o "arguments.jvm" del JSON de versión (1.13+):
+     * strings sueltos u objetos {"rules": [...], "value": string | [strings]}.
+     */
+    @SuppressWarnings("unchecked")
+    public static ArgumentTemplate compile(List<Object> raw) {
+        Compiler c = new Compiler();
+        if (raw != null) {
+            for (Object o : raw) {
+                if (o instanceof String s) {
+                    c.add(Rules.NONE, List.of(s));
+                } else if (o instanceof Map<?, ?> m) {
+                    Object value = m.get("value");
+                    List<String> values = (value instanceof List<?> l) ? (List<String>) l
+                            : (value != null) ? List.of(value.toString()) : List.of();
+                    c.add(Rules.parse((List<Object>) m.get("rules")), values);
+                }
+            }
+        }
+        return c.build();
+    }
+
+    /** Compila el "minecraftArguments" de versiones viejas (un string separado por espacios). */
+    public static ArgumentTemplate compileLegacy(String minecraftArguments) {
+        Compiler c = new Compiler();
+        if (minecraftArguments != null) {
+            List<String> tokens = new ArrayList<>();
+            int i = 0, n = minecraftArguments.length();
+            while (i < n) {
+                while (i < n && Character.isWhitespace(minecraftArguments.charAt(i))) i++;
+                int start = i;
+                while (i < n && !Character.isWhitespace(minecraftArguments.charAt(i))) i++;
+                if (i > start) tokens.add(minecraftArguments.substring(start, i));
+            }
+            c.add(Rules.NONE, tokens);
+        }
+        return c.build();
+    }
+
+    /** true si algún token usa ${name}. */
+    public boolean uses(String name) {
+        for (String v : varNames) if (v.equals(name)) return true;
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return args.length == 0;
+    }
+
+    /**
+     * Genera los argumentos para el entorno dado.
+     *
+     * @param vars nombre de variable (sin ${}) → valor
+     */
+    public List<String> expand(Environment env, Map<String, String> vars) {
+        String[] values = new String[varNames.length];
+        for (int i = 0; i < varNames.length; i++) {
+            String v = vars.get(varNames[i]);
+            values[i] = (v != null) ? v : "${" + varNames[i] + "}";
+        }
+        List<String> out = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (Arg a : args) {
+            if (!a.allowed(env)) continue;
+            for (Token t : a.values()) {
+                if (t.slots().length == 0) {
+                    out.add(t.text()[0]);
+                    continue;
+                }
+                sb.setLength(0);
+                for (int i = 0; i < t.slots().length; i++) {
+                    sb.append(t.text()[i]).append(values[t.slots()[i]]);
+                }
+                sb.append(t.text()[t.slots().length]);
+                out.add(sb.toString());
+            }
+        }
+        return out;
+    }
+
+    // ===== compilación =====
+
+    private static final class Compiler {
+        private final List<Arg> args = new ArrayList<>();
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        void add(Rules.Rule[] rules, List<String> values) {
+            Token[] tokens = new Token[values.size()];
+            for (int i = 0; i < tokens.length; i++) tokens[i] = token(values.get(i));
+            args.add(new Arg(rules, tokens));
+        }
+
+        private Token token(String s) {
+            List<String> text = new ArrayList<>();
+            List<Integer> idx = new ArrayList<>();
+            int from = 0;
+            while (true) {
+                int open = s.indexOf("${", from);
+                int close = (open < 0) ? -1 : s.indexOf('}', open + 2);
+                if (close < 0) break;
+                text.add(s.substring(from, open));
+                idx.add(slot(s.substring(open + 2, close)));
+                from = close + 1;
+            }
+            text.add(s.substring(from));
+            int[] slotArr = new int[idx.size()];
+            for (int i = 0; i < slotArr.length; i++) slotArr[i] = idx.get(i);
+            return new Token(text.toArray(new String[0]), slotArr);
+        }
+
+        private int slot(String name) {
+            return slots.computeIfAbsent(name, k -> {
+                names.add(k);
+                return names.size() - 1;
+            });
+        }
+
+        ArgumentTemplate build() {
+            return new ArgumentTemplate(args.toArray(new Arg[0]), names.toArray(new String[0]));
+        }
+    }
+}
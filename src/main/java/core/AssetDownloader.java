@@ -2,12 +2,14 @@ package core;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -15,6 +17,18 @@ import java.security.NoSuchAlgorithmException;
  * Descarga archivos (librerías, assets, clientes) y verifica su integridad mediante SHA-1.
  */
 public class AssetDownloader {
+    /** Intentos por archivo antes de dar la descarga por fallida. */
+    static final int DOWNLOAD_ATTEMPTS = 4;
+
+    /** Un 4xx (salvo 408 y 429): el archivo no va a aparecer reintentando. */
+    private static final class PermanentFailure extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        PermanentFailure(String message) {
+            super(message);
+        }
+    }
+
     // Cliente HTTP
     private final HttpClient httpClient;
 
@@ -28,11 +42,16 @@ public class AssetDownloader {
     /**
      * Descarga un archivo desde la URL dada y lo guarda en la ruta destino.
      * Luego verifica que su SHA-1 coincida con el hash esperado.
+     * Se baja a un {@code .part} al lado y solo se mueve al destino ya verificado: si se corta
+     * o se interrumpe el hilo, el destino queda como estaba y el {@code .part} se borra.
+     * Un 5xx, un 408/429, un corte o un SHA-1 que no coincide se reintentan hasta
+     * {@link #DOWNLOAD_ATTEMPTS} veces, esperando 1, 2, 4... segundos entre intentos; el resto
+     * de los 4xx (p.ej. un 404) falla enseguida.
      *
      * @param url         URL de descarga del archivo
      * @param destino     Ruta local donde guardar el archivo
      * @param expectedSha1 Hash SHA-1 esperado en formato hexadecimal
-     * @throws IOException              si hay errores de E/S
+     * @throws IOException              si hay errores de E/S en el último intento
      * @throws InterruptedException     si la descarga es interrumpida
      * @throws NoSuchAlgorithmException si SHA-1 no está disponible
      */
@@ -47,18 +66,67 @@ public class AssetDownloader {
                 .GET()
                 .build();
 
-        //  Ejecutar la petición y guardar directamente en archivo
-        HttpResponse<Path> response = httpClient.send(request,
-                HttpResponse.BodyHandlers.ofFile(destino));
-
-        if (response.statusCode() != 200) {
-            throw new IOException("Error al descargar archivo: " + response.statusCode());
+        Path part = destino.resolveSibling(destino.getFileName() + ".part");
+        LauncherEvents.Download ev = new LauncherEvents.Download();
+        ev.begin();
+        try {
+            IOException last = null;
+            for (int attempt = 0; attempt < DOWNLOAD_ATTEMPTS; attempt++) {
+                if (attempt > 0) Thread.sleep(1000L << (attempt - 1));
+                ev.retries = attempt;
+                try {
+                    ev.bytes = fetch(request, part, ev);
+                    if (!verifySha1(part, expectedSha1)) {
+                        throw new IOException("Integridad fallida (SHA-1) para " + destino);
+                    }
+                    last = null;
+                    break;
+                } catch (PermanentFailure ex) {
+                    throw ex;
+                } catch (IOException ex) {
+                    last = ex;
+                }
+            }
+            if (last != null) throw last;
+            Files.move(part, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(part);
+            if (ev.shouldCommit()) {
+                ev.host = LauncherEvents.host(url);
+                ev.file = destino.getFileName().toString();
+                ev.commit();
+            }
         }
+    }
 
+    /** Un intento: baja el cuerpo entero al {@code .part} (pisando lo anterior) y devuelve los bytes. */
+    private long fetch(HttpRequest request, Path part, LauncherEvents.Download ev)
+            throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = httpClient.send(request,
+                HttpResponse.BodyHandlers.ofInputStream());
+        ev.status = response.statusCode();
 
-        if (!verifySha1(destino, expectedSha1)) {
-            throw new IOException("Integridad fallida (SHA-1) para " + destino);
+        long bytes = 0;
+        try (InputStream in = response.body()) {
+            int code = response.statusCode();
+            if (code >= 400 && code < 500 && code != 408 && code != 429) {
+                throw new PermanentFailure("Error al descargar archivo: " + code);
+            }
+            if (code != 200) {
+                throw new IOException("Error al descargar archivo: " + code);
+            }
+            try (OutputStream out = Files.newOutputStream(part)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    // una instalación cancelada corta acá, entre bloques
+                    if (Thread.interrupted()) throw new InterruptedException();
+                    out.write(buffer, 0, read);
+                    bytes += read;
+                }
+            }
         }
+        return bytes;
     }
 
     /**
@@ -68,19 +136,36 @@ public class AssetDownloader {
      * @param expectedSha1 Hash esperado en hexadecimal
      * @return true si coincide, false en caso contrario
      * @throws IOException              si hay errores de lectura
+     * @throws InterruptedException     si se interrumpe mientras espera el hash
      * @throws NoSuchAlgorithmException si SHA-1 no está disponible
      */
     private boolean verifySha1(Path file, String expectedSha1)
+            throws IOException, InterruptedException, NoSuchAlgorithmException {
+        // el hash quema CPU: va al pool de CPU, no al hilo virtual de la descarga
+        try {
+            return Tasks.onCpu(() -> sha1Matches(file, expectedSha1));
+        } catch (IOException | InterruptedException | NoSuchAlgorithmException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException("Error verificando SHA-1", ex);
+        }
+    }
+
+    private boolean sha1Matches(Path file, String expectedSha1)
             throws IOException, NoSuchAlgorithmException {
+        LauncherEvents.HashVerify ev = new LauncherEvents.HashVerify();
+        ev.begin();
         // Inicializa el MessageDigest para SHA-1
         MessageDigest md = MessageDigest.getInstance("SHA-1");
 
         // Leer el archivo en bloques y actualizar digest
+        long bytes = 0;
         try (InputStream is = Files.newInputStream(file)) {
             byte[] buffer = new byte[8192];
             int read;
             while ((read = is.read(buffer)) != -1) {
                 md.update(buffer, 0, read);
+                bytes += read;
             }
         }
 
@@ -92,6 +177,13 @@ public class AssetDownloader {
         }
         String calculated = sb.toString();
 
-        return calculated.equalsIgnoreCase(expectedSha1);
+        boolean matched = calculated.equalsIgnoreCase(expectedSha1);
+        if (ev.shouldCommit()) {
+            ev.file = file.getFileName().toString();
+            ev.bytes = bytes;
+            ev.matched = matched;
+            ev.commit();
+        }
+        return matched;
     }
 }
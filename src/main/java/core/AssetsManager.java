@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpClient.Version;
@@ -26,11 +27,20 @@ public class AssetsManager {
     private final ObjectMapper mapper;
     private final HttpClient   http;
     private final Path         assetsRoot;
+    private final String       baseUrl;
 
     /**
      * @param assetsRoot Carpeta .minecraft/assets donde hay subcarpetas objects/ e indexes/
      */
     public AssetsManager(Path assetsRoot) {
+        this(assetsRoot, BASE_URL);
+    }
+
+    /**
+     * @param baseUrl Raíz de los objetos (terminada en /); cada uno se pide como ab/hash
+     */
+    public AssetsManager(Path assetsRoot, String baseUrl) {
+        this.baseUrl = baseUrl;
         this.mapper = new ObjectMapper();
         this.http = HttpClient.newBuilder()
                 .version(Version.HTTP_1_1)
@@ -77,9 +87,32 @@ public class AssetsManager {
         Files.writeString(idxFile, json, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 
         // Parsear y devolver
+        return parseIndex(json);
+    }
+
+    AssetIndex parseIndex(String json) throws IOException {
         return mapper.readValue(json, AssetIndex.class);
     }
 
+    /**
+     * Lee el índice ya guardado en assets/indexes/{indexId}.json, o null si no existe.
+     */
+    public AssetIndex loadLocalIndex(String indexId) throws IOException {
+        Path idxFile = indexPath(indexId);
+        if (!Files.isRegularFile(idxFile)) return null;
+        return mapper.readValue(idxFile.toFile(), AssetIndex.class);
+    }
+
+    /** Ruta del índice de assets en disco. */
+    public Path indexPath(String indexId) {
+        return assetsRoot.resolve("indexes").resolve(indexId + ".json");
+    }
+
+    /** Ruta del objeto en la caché assets/objects/ab/hash. */
+    public Path objectPath(String hash) {
+        return assetsRoot.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
     /**
      * Descarga un único asset, verifica el SHA‑1, y lo copia a assets/{objectKey}.
      *
@@ -87,20 +120,37 @@ public class AssetsManager {
      * @param hash      El hash SHA‑1 del asset, usado como nombre de fichero en objects/
      */
     public void downloadSingleAsset(String objectKey, String hash) throws Exception {
-        // 1) Descargar a cache: assets/objects/ab/hash
-        Path objectPath = assetsRoot.resolve("objects")
-                .resolve(hash.substring(0, 2))
-                .resolve(hash);
+        downloadObject(hash, objectKey);
+        placeAsset(objectKey, hash);
+    }
+
+    /**
+     * Deja el objeto en la caché assets/objects/ab/hash con el SHA‑1 correcto, bajándolo
+     * solo si falta o no coincide.
+     *
+     * @param objectKey Solo para el mensaje de error
+     */
+    public Path downloadObject(String hash, String objectKey) throws Exception {
+        Path objectPath = objectPath(hash);
         Files.createDirectories(objectPath.getParent());
+        String url = baseUrl + hash.substring(0, 2) + "/" + hash;
+        LauncherEvents.Download ev = new LauncherEvents.Download();
+        ev.begin();
+        if (Files.exists(objectPath) && verifySha1(objectPath, hash)) {
+            ev.cacheHit = true;
+            commit(ev, url, objectKey, objectPath);
+            return objectPath;
+        }
 
-        if (!(Files.exists(objectPath) && verifySha1(objectPath, hash))) {
-            IOException lastEx = null;
+        IOException lastEx = null;
+        Path tmp = objectPath.resolveSibling(hash + ".tmp");
+        try {
             for (int attempt = 1; attempt <= 3; attempt++) {
+                ev.retries = attempt - 1;
                 try {
-                    String url = BASE_URL + hash.substring(0, 2) + "/" + hash;
                     HttpRequest r = HttpRequest.newBuilder(URI.create(url)).GET().build();
-                    Path tmp = objectPath.resolveSibling(hash + ".tmp");
                     HttpResponse<Path> rp = http.send(r, HttpResponse.BodyHandlers.ofFile(tmp));
+                    ev.status = rp.statusCode();
                     if (rp.statusCode() != 200) throw new IOException("HTTP " + rp.statusCode());
                     if (!verifySha1(tmp, hash)) throw new IOException("Hash mismatch para " + objectKey);
                     Files.move(tmp, objectPath, StandardCopyOption.REPLACE_EXISTING);
@@ -110,33 +160,88 @@ public class AssetsManager {
 
                 }
             }
-            if (!Files.exists(objectPath) || lastEx != null && !verifySha1(objectPath, hash)) {
-                throw new IOException("No se pudo descargar asset " + objectKey, lastEx);
-            }
+        } finally {
+            // si se canceló a mitad, no queda el temporal
+            Files.deleteIfExists(tmp);
+            commit(ev, url, objectKey, objectPath);
+        }
+        if (!Files.exists(objectPath) || lastEx != null && !verifySha1(objectPath, hash)) {
+            throw new IOException("No se pudo descargar asset " + objectKey, lastEx);
+        }
+        return objectPath;
+    }
+
+    private static void commit(LauncherEvents.Download ev, String url, String objectKey, Path objectPath) {
+        if (!ev.shouldCommit()) return;
+        ev.host = LauncherEvents.host(url);
+        ev.file = objectKey;
+        try {
+            ev.bytes = Files.exists(objectPath) ? Files.size(objectPath) : 0;
+        } catch (IOException ignored) {
         }
+        ev.commit();
+    }
 
-        // 2) Copiar a assets/{objectKey} para que Minecraft lo cargue
+    /**
+     * Copia el objeto ya descargado a assets/{objectKey} para que Minecraft lo cargue. Pasa
+     * por un temporal y un rename, así dos instalaciones que escriben el mismo nombre a la
+     * vez no se pisan a mitad de archivo.
+     */
+    public void placeAsset(String objectKey, String hash) throws IOException {
         Path dest = assetsRoot.resolve(objectKey);
         Files.createDirectories(dest.getParent());
-        Files.copy(objectPath, dest, StandardCopyOption.REPLACE_EXISTING);
+        Path tmp = Files.createTempFile(dest.getParent(), dest.getFileName().toString(), ".tmp");
+        try {
+            Files.copy(objectPath(hash), tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
     }
 
-    /** Verifica SHA‑1 de un archivo contra el hash esperado. */
-    private boolean verifySha1(Path file, String expected) throws IOException {
+    /**
+     * Verifica SHA‑1 de un archivo contra el hash esperado. El hash se calcula en el pool de
+     * CPU ({@link Tasks#onCpu}) aunque lo pida un hilo de descarga.
+     */
+    boolean verifySha1(Path file, String expected) throws IOException {
+        try {
+            return Tasks.onCpu(() -> sha1Matches(file, expected));
+        } catch (IOException | RuntimeException ex) {
+            throw ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Verificación interrumpida: " + file.getFileName());
+        } catch (Exception ex) {
+            throw new IOException("Error verificando SHA-1", ex);
+        }
+    }
+
+    private boolean sha1Matches(Path file, String expected) throws IOException {
+        LauncherEvents.HashVerify ev = new LauncherEvents.HashVerify();
+        ev.begin();
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-1");
+            long bytes = 0;
             try (InputStream is = Files.newInputStream(file)) {
                 byte[] buffer = new byte[8192];
                 int read;
                 while ((read = is.read(buffer)) != -1) {
                     md.update(buffer, 0, read);
+                    bytes += read;
                 }
             }
             StringBuilder sb = new StringBuilder();
             for (byte b : md.digest()) {
                 sb.append(String.format("%02x", b));
             }
-            return sb.toString().equalsIgnoreCase(expected);
+            boolean matched = sb.toString().equalsIgnoreCase(expected);
+            if (ev.shouldCommit()) {
+                ev.file = file.getFileName().toString();
+                ev.bytes = bytes;
+                ev.matched = matched;
+                ev.commit();
+            }
+            return matched;
         } catch (Exception e) {
             throw new IOException("Error verificando SHA-1", e);
         }
@@ -0,0 +1,215 @@
+package core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Parche binario entre dos archivos (pensado para el jar del launcher entre dos releases).
+ * <p>
+ * Formato (todo dentro de un gzip): {@code "YDLT" 1}, tamaño y SHA-256 del archivo base,
+ * tamaño y SHA-256 del resultado, y después operaciones {@code COPY(offset, largo)} desde la
+ * base o {@code ADD(largo, bytes)} nuevos, hasta {@code END}. Las entradas de un jar que no
+ * cambiaron quedan byte a byte iguales, así que casi todo el parche son COPY.
+ * <p>
+ * {@link #apply} verifica el hash de la base antes de empezar y el del resultado al terminar.
+ */
+public final class BinaryDelta {
+    private static final byte[] MAGIC = {'Y', 'D', 'L', 'T', 1};
+    private static final byte OP_END = 0, OP_COPY = 1, OP_ADD = 2;
+    private static final int BLOCK = 32;
+    private static final int MULT = 0x01000193;
+
+    private BinaryDelta() {
+    }
+
+    /**
+     * Arma el parche que convierte {@code base} en {@code target}. Carga ambos archivos en
+     * memoria: es para el que publica la release, no para el launcher.
+     */
+    public static void create(Path base, Path target, Path out) throws IOException {
+        byte[] a = Files.readAllBytes(base);
+        byte[] b = Files.readAllBytes(target);
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(out), 64 * 1024)))) {
+            dos.write(MAGIC);
+            dos.writeLong(a.length);
+            dos.write(sha256(a));
+            dos.writeLong(b.length);
+            dos.write(sha256(b));
+
+            // índice: hash de cada bloque alineado de la base -> posición del bloque (+1; 0 = vacío)
+            int blocks = a.length / BLOCK;
+            int cap = Integer.highestOneBit(Math.max(16, blocks * 2 - 1)) << 1;
+            int[] table = new int[cap];
+            for (int k = 0; k < blocks; k++) {
+                int slot = hash(a, k * BLOCK) & (cap - 1);
+                while (table[slot] != 0) slot = (slot + 1) & (cap - 1);
+                table[slot] = k + 1;
+            }
+
+            int pow = 1;
+            for (int k = 0; k < BLOCK - 1; k++) pow *= MULT;
+            int literal = 0;   // inicio de los bytes nuevos todavía sin emitir
+            int i = 0;
+            int h = b.length >= BLOCK ? hash(b, 0) : 0;
+            while (i + BLOCK <= b.length) {
+                int from = -1;
+                for (int slot = h & (cap - 1); table[slot] != 0; slot = (slot + 1) & (cap - 1)) {
+                    int cand = (table[slot] - 1) * BLOCK;
+                    if (Arrays.equals(a, cand, cand + BLOCK, b, i, i + BLOCK)) {
+                        from = cand;
+                        break;
+                    }
+                }
+                if (from < 0) {
+                    if (i + BLOCK < b.length) h = (h - (b[i] & 0xff) * pow) * MULT + (b[i + BLOCK] & 0xff);
+                    i++;
+                    continue;
+                }
+                // estirar la coincidencia hacia atrás (sobre lo pendiente) y hacia adelante
+                int start = i;
+                while (start > literal && from > 0 && a[from - 1] == b[start - 1]) {
+                    start--;
+                    from--;
+                }
+                int end = i + BLOCK;
+                int fromEnd = from + (end - start);
+                while (end < b.length && fromEnd < a.length && a[fromEnd] == b[end]) {
+                    end++;
+                    fromEnd++;
+                }
+                writeAdd(dos, b, literal, start);
+                dos.writeByte(OP_COPY);
+                dos.writeLong(from);
+                dos.writeInt(end - start);
+                literal = i = end;
+                if (i + BLOCK <= b.length) h = hash(b, i);
+            }
+            writeAdd(dos, b, literal, b.length);
+            dos.writeByte(OP_END);
+        }
+    }
+
+    /**
+     * Aplica el parche sobre {@code base} y deja el resultado en {@code out}.
+     *
+     * @throws IOException si la base no es la esperada, el parche está dañado o el resultado
+     *                     no coincide con el hash del encabezado ({@code out} se borra)
+     */
+    public static void apply(Path base, Path delta, Path out) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(delta), 64 * 1024)));
+             FileChannel src = FileChannel.open(base, StandardOpenOption.READ)) {
+            byte[] magic = in.readNBytes(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException("No es un parche YDLT: " + delta);
+            long baseSize = in.readLong();
+            byte[] baseSha = in.readNBytes(32);
+            long targetSize = in.readLong();
+            byte[] targetSha = in.readNBytes(32);
+            if (src.size() != baseSize || !Arrays.equals(sha256(base), baseSha)) {
+                throw new IOException("El parche no corresponde a " + base);
+            }
+
+            MessageDigest md = sha256();
+            long written = 0;
+            try (OutputStream os = new DigestOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(out), 64 * 1024), md)) {
+                ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+                byte op;
+                while ((op = in.readByte()) != OP_END) {
+                    if (op == OP_COPY) {
+                        long pos = in.readLong();
+                        int len = in.readInt();
+                        if (pos < 0 || len < 0 || pos + len > baseSize || written + len > targetSize) {
+                            throw new IOException("COPY fuera de rango");
+                        }
+                        while (len > 0) {
+                            buf.clear().limit(Math.min(len, buf.capacity()));
+                            int r = src.read(buf, pos);
+                            if (r < 0) throw new IOException("Base truncada");
+                            os.write(buf.array(), 0, r);
+                            pos += r;
+                            len -= r;
+                            written += r;
+                        }
+                    } else if (op == OP_ADD) {
+                        int len = in.readInt();
+                        if (len < 0 || written + len > targetSize) throw new IOException("ADD fuera del resultado");
+                        written += len;
+                        while (len > 0) {
+                            int n = in.read(buf.array(), 0, Math.min(len, buf.capacity()));
+                            if (n < 0) throw new IOException("Parche truncado");
+                            os.write(buf.array(), 0, n);
+                            len -= n;
+                        }
+                    } else {
+                        throw new IOException("Operación desconocida en el parche: " + op);
+                    }
+                }
+            }
+            if (written != targetSize || !Arrays.equals(md.digest(), targetSha)) {
+                Files.deleteIfExists(out);
+                throw new IOException("El resultado del parche no coincide con el SHA-256 esperado");
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(out);
+            throw ex;
+        }
+    }
+
+    /** SHA-256 del archivo en hexadecimal. */
+    public static String sha256Hex(Path file) throws IOException {
+        return HexFormat.of().formatHex(sha256(file));
+    }
+
+    static byte[] sha256(Path file) throws IOException {
+        MessageDigest md = sha256();
+        try (var in = Files.newInputStream(file)) {
+            byte[] buf = new byte[64 * 1024];
+            int r;
+            while ((r = in.read(buf)) > 0) md.update(buf, 0, r);
+        }
+        return md.digest();
+    }
+
+    private static byte[] sha256(byte[] data) {
+        return sha256().digest(data);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int hash(byte[] d, int off) {
+        int h = 0;
+        for (int k = 0; k < BLOCK; k++) h = h * MULT + (d[off + k] & 0xff);
+        return h;
+    }
+
+    private static void writeAdd(DataOutputStream dos, byte[] b, int from, int to) throws IOException {
+        if (to <= from) return;
+        dos.writeByte(OP_ADD);
+        dos.writeInt(to - from);
+        dos.write(b, from, to - from);
+    }
+}
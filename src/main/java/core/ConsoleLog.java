@@ -0,0 +1,216 @@
+package core;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Líneas de la consola del launcher con memoria acotada: las últimas {@code memoryLines}
+ * viven en un buffer circular y las anteriores se vuelcan a un archivo, del que solo se leen
+ * si alguien las pide (al scrollear hacia arriba o al filtrar).
+ * <p>
+ * Cada línea tiene un índice fijo (0, 1, 2...) que no cambia al volcarse a disco, así que una
+ * vista filtrada es solo una lista de índices. El nivel de cada línea queda en una columna de
+ * bytes para filtrar por nivel sin tocar el texto.
+ */
+public class ConsoleLog implements AutoCloseable {
+    private static final LogEvent.Level[] LEVELS = LogEvent.Level.values();
+
+    private final String[] ring;
+    private final Path spillFile;
+
+    private byte[] levels = new byte[4096];
+    private long[] offsets = new long[1024];   // posición en spillFile de cada línea volcada
+    private int size;                          // líneas totales
+    private int spilled;                       // las primeras 'spilled' están en disco
+
+    private FileChannel channel;
+    private final ByteBuffer writeBuf = ByteBuffer.allocate(64 * 1024);
+    private long writePos;
+
+    /**
+     * @param memoryLines Cantidad de líneas que se guardan en memoria
+     * @param spillFile   Archivo para las líneas más viejas (se crea al primer volcado y se
+     *                    borra en {@link #close()})
+     */
+    public ConsoleLog(int memoryLines, Path spillFile) {
+        this.ring = new String[Math.max(1, memoryLines)];
+        this.spillFile = spillFile;
+    }
+
+    /** Agrega una línea y devuelve su índice. */
+    public synchronized int append(LogEvent.Level level, String text) {
+        if (size >= ring.length) spill(size - ring.length);
+        if (size == levels.length) levels = Arrays.copyOf(levels, size * 2);
+        levels[size] = (byte) level.ordinal();
+        ring[size % ring.length] = text;
+        return size++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized LogEvent.Level level(int i) {
+        return LEVELS[levels[i]];
+    }
+
+    /** Texto de la línea i; si ya se volcó, se lee del archivo. */
+    public synchronized String text(int i) {
+        if (i >= spilled) return ring[i % ring.length];
+        if (channel == null) return "";
+        try {
+            flushSpill();
+            ByteBuffer len = ByteBuffer.allocate(4);
+            readFully(len, offsets[i]);
+            ByteBuffer data = ByteBuffer.allocate(len.getInt(0));
+            readFully(data, offsets[i] + 4);
+            return new String(data.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return "";
+        }
+    }
+
+    /** true si la línea i tiene nivel ≥ minLevel y contiene needle (sin distinguir mayúsculas). */
+    public boolean matches(int i, LogEvent.Level minLevel, String needle) {
+        if (level(i).compareTo(minLevel) < 0) return false;
+        return needle == null || needle.isEmpty() || containsIgnoreCase(text(i), needle);
+    }
+
+    /**
+     * Índices en [from, to) que cumplen {@link #matches}. La parte en disco se recorre de corrido
+     * y sin el lock tomado (lo ya volcado no cambia), así que las escrituras y lecturas de la UI
+     * no esperan a la búsqueda. Las líneas que no pasan el filtro de nivel ni se leen.
+     */
+    public int[] find(LogEvent.Level minLevel, String needle, int from, int to) {
+        boolean byText = needle != null && !needle.isEmpty();
+        int onDisk;
+        byte[] lv;
+        long[] offs;
+        synchronized (this) {
+            to = Math.min(to, size);
+            onDisk = Math.min(spilled, to);
+            lv = levels;
+            offs = offsets;
+            if (byText && from < onDisk) {
+                try {
+                    flushSpill();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    onDisk = from;   // sin archivo: solo lo que está en memoria
+                }
+            }
+        }
+
+        int[] out = new int[64];
+        int n = 0;
+        int min = minLevel.ordinal();
+        int i = from;
+        if (byText && i < onDisk) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(spillFile), 64 * 1024))) {
+                in.skipNBytes(offs[i]);
+                for (; i < onDisk; i++) {
+                    int len = in.readInt();
+                    if (lv[i] < min) {
+                        in.skipNBytes(len);
+                        continue;
+                    }
+                    byte[] b = new byte[len];
+                    in.readFully(b);
+                    if (!containsIgnoreCase(new String(b, StandardCharsets.UTF_8), needle)) continue;
+                    if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                    out[n++] = i;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                i = onDisk;
+            }
+        }
+        for (; i < to; i++) {
+            if (lv[i] < min) continue;
+            // una por vez con el lock: la UI puede seguir agregando entre medio
+            if (byText && !containsIgnoreCase(text(i), needle)) continue;
+            if (n == out.length) out = Arrays.copyOf(out, n * 2);
+            out[n++] = i;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Cierra y borra el archivo de volcado. */
+    @Override
+    public synchronized void close() {
+        if (channel == null) return;
+        try {
+            channel.close();
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+
+    /** contains() sin distinguir mayúsculas y sin armar copias en minúscula. */
+    public static boolean containsIgnoreCase(String text, String needle) {
+        int max = text.length() - needle.length();
+        for (int k = 0; k <= max; k++) {
+            if (text.regionMatches(true, k, needle, 0, needle.length())) return true;
+        }
+        return false;
+    }
+
+    // ===== volcado =====
+
+    private void spill(int i) {
+        String text = ring[i % ring.length];
+        ring[i % ring.length] = null;
+        if (spilled == offsets.length) offsets = Arrays.copyOf(offsets, spilled * 2);
+        offsets[spilled++] = writePos;
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            if (channel == null) {
+                Files.createDirectories(spillFile.toAbsolutePath().getParent());
+                channel = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                spillFile.toFile().deleteOnExit();
+            }
+            if (writeBuf.remaining() < 4 + data.length) flushSpill();
+            if (writeBuf.remaining() < 4 + data.length) {
+                // línea más larga que el buffer: directo al archivo
+                ByteBuffer big = ByteBuffer.allocate(4 + data.length).putInt(data.length).put(data);
+                big.flip();
+                long pos = writePos;
+                while (big.hasRemaining()) pos += channel.write(big, pos);
+            } else {
+                writeBuf.putInt(data.length).put(data);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        writePos += 4 + data.length;
+    }
+
+    private void flushSpill() throws IOException {
+        if (channel == null || writeBuf.position() == 0) return;
+        writeBuf.flip();
+        long pos = writePos - writeBuf.remaining();
+        while (writeBuf.hasRemaining()) pos += channel.write(writeBuf, pos);
+        writeBuf.clear();
+    }
+
+    private void readFully(ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int r = channel.read(buf, pos);
+            if (r < 0) throw new IOException("Fin de archivo inesperado en " + spillFile);
+            pos += r;
+        }
+    }
+}
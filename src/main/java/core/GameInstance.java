@@ -0,0 +1,187 @@
+package core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Handle de una instancia del juego en ejecución, devuelto por {@link LaunchExecutor#start}.
+ * <p>
+ * La salida del proceso va a archivos dentro de la carpeta de la sesión y la lee
+ * {@link LogPump} (un único hilo para todas las instancias), así que no hay hilos
+ * bloqueados por instancia: se pueden correr varias a la vez.
+ */
+public class GameInstance {
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    private final int number;
+    private final String versionId;
+    private final Process process;
+    private final SessionLogStore store;
+    private final LogBuffer logBuffer;
+    private final ResourceSeries resources;
+    private final LaunchTimings timings;
+    private final List<Consumer<LogEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Integer> exit = new CompletableFuture<>();
+
+    GameInstance(String versionId, Process process, SessionLogStore store, LogBuffer logBuffer,
+                 ResourceSeries resources, LaunchTimings timings) {
+        this.number = SEQ.incrementAndGet();
+        this.versionId = versionId;
+        this.process = process;
+        this.store = store;
+        this.logBuffer = logBuffer;
+        this.resources = resources;
+        this.timings = timings;
+    }
+
+    /** Nombre corto para la UI, p.ej. "1.20.1#2". */
+    public String getName() {
+        return versionId + "#" + number;
+    }
+
+    public String getVersionId() {
+        return versionId;
+    }
+
+    public long pid() {
+        return process.pid();
+    }
+
+    public ProcessHandle toHandle() {
+        return process.toHandle();
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * Se completa con el código de salida cuando el proceso terminó y su salida
+     * ya fue leída y guardada en la sesión.
+     */
+    public CompletableFuture<Integer> onExit() {
+        return exit;
+    }
+
+    /** Eventos de log de esta instancia, para consumir por lotes desde la UI. */
+    public LogBuffer getLogBuffer() {
+        return logBuffer;
+    }
+
+    /** Carpeta de la sesión (ver {@link SessionLogStore}). */
+    public Path getSessionDir() {
+        return store.getDir();
+    }
+
+    /** Muestras de CPU/RSS/hilos/E/S recientes (ver {@link ProcessSampler}). */
+    public ResourceSeries getResources() {
+        return resources;
+    }
+
+    /** Tiempos de arranque de esta instancia (fases medidas hasta ahora). */
+    public LaunchTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Exporta todas las muestras de la sesión como CSV (no solo las que entran en la serie).
+     */
+    public void exportResourcesCsv(Path target) throws IOException {
+        Path src = getSessionDir().resolve(ProcessSampler.CSV_FILE);
+        if (Files.exists(src)) {
+            Files.copy(src, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        try (BufferedWriter w = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            w.write(ProcessSampler.CSV_HEADER);
+            w.newLine();
+            for (ResourceSeries.Sample s : resources.snapshot()) {
+                w.write(ProcessSampler.toCsv(s));
+                w.newLine();
+            }
+        }
+    }
+
+    /**
+     * Recibe cada evento de log; se invoca desde el hilo de {@link LogPump}, así que
+     * el listener no debe bloquear.
+     */
+    public void addLogListener(Consumer<LogEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeLogListener(Consumer<LogEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /** Mata el proceso inmediatamente. */
+    public CompletableFuture<Integer> kill() {
+        process.destroyForcibly();
+        return exit;
+    }
+
+    /**
+     * Pide al juego que cierre (SIGTERM en Linux/macOS) y lo mata si sigue vivo tras el plazo.
+     */
+    public CompletableFuture<Integer> stop(Duration grace) {
+        if (!process.supportsNormalTermination()) return kill();
+        process.destroy();
+        LogPump.get().scheduler().schedule(() -> {
+            if (process.isAlive()) process.destroyForcibly();
+        }, grace.toMillis(), TimeUnit.MILLISECONDS);
+        return exit;
+    }
+
+    // ===== usado por LogPump =====
+
+    Process process() {
+        return process;
+    }
+
+    void publish(LogEvent ev) {
+        try {
+            store.append(ev);
+        } catch (Exception ignored) {
+        }
+        try {
+            timings.onEvent(ev);
+        } catch (RuntimeException ex) {
+            ex.printStackTrace();
+        }
+        logBuffer.offer(ev);
+        // un listener que falla no corta a los demás ni al hilo del LogPump
+        for (Consumer<LogEvent> l : listeners) {
+            try {
+                l.accept(ev);
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    void finish(int exitCode) {
+        try {
+            store.close();
+        } catch (Exception ignored) {
+        }
+        try {
+            logBuffer.close();
+            timings.save(exitCode);
+        } catch (RuntimeException ex) {
+            ex.printStackTrace();
+        } finally {
+            exit.complete(exitCode);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package core;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * La configuración log4j2 que el launcher le pasa al juego ({@code -Dlog4j.configurationFile}).
+ * <p>
+ * Si la versión declara {@code logging.client}, se parte del archivo de Mojang, que trae la
+ * mitigación de Log4Shell y sus filtros. De ese archivo solo se cambia el layout de la
+ * consola por el estructurado que parsea {@link GameLogParser}. Si la versión no lo declara,
+ * o no se pudo conseguir, se usa {@code log/log4j2-game.xml}. En los dos casos todo
+ * {@code %msg} sale como {@code %msg{nolookups}}, y el lanzamiento agrega además
+ * {@link #NO_LOOKUPS_FLAG}: un mensaje del chat nunca dispara un lookup JNDI.
+ */
+final class GameLogConfig {
+    /** Apaga los lookups en mensajes en todo log4j 2.10+, lo diga o no la configuración. */
+    static final String NO_LOOKUPS_FLAG = "-Dlog4j2.formatMsgNoLookups=true";
+
+    private static final String BUNDLED = "/log/log4j2-game.xml";
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(10);
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    // %msg, %message o %m sin opciones (no toca %msg{nolookups} ni %marker, %method, ...)
+    private static final Pattern MSG = Pattern.compile("%(msg|message|m)(?![a-zA-Z{])");
+
+    private GameLogConfig() {
+    }
+
+    /**
+     * Deja la configuración en cache/ y devuelve el archivo, o null si no se pudo (el juego
+     * sigue con la suya, y el flag de la JVM igual apaga los lookups).
+     */
+    static File write(VersionDetails det, File gameDir) {
+        try {
+            byte[] bundled = readBundled();
+            if (bundled == null) return null;
+            VersionDetails.LogFile mojang = clientLogFile(det);
+            if (mojang != null) {
+                try {
+                    Path original = fetch(mojang, new File(gameDir, "assets" + File.separator + "log_configs").toPath());
+                    byte[] cfg = patch(Files.readAllBytes(original), bundled);
+                    return store(new File(gameDir, "cache" + File.separator + "log4j2-yagua-" + mojang.getId()), cfg);
+                } catch (Exception ex) {
+                    // sin red la primera vez, o un XML que no entendemos: queda la nuestra
+                    System.err.println("log4j2 de Mojang no disponible (" + ex + "); se usa la incluida");
+                    if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+                }
+            }
+            return store(new File(gameDir, "cache" + File.separator + "log4j2-yagua.xml"), bundled);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static VersionDetails.LogFile clientLogFile(VersionDetails det) {
+        VersionDetails.Logging logging = det.getLogging();
+        if (logging == null || logging.getClient() == null) return null;
+        VersionDetails.LogFile f = logging.getClient().getFile();
+        if (f == null || f.getId() == null || f.getUrl() == null) return null;
+        // el id termina en el nombre del archivo: que no salga de log_configs/
+        if (f.getId().contains("/") || f.getId().contains("\\") || f.getId().contains("..")) return null;
+        return f;
+    }
+
+    private static byte[] readBundled() throws IOException {
+        try (InputStream in = GameLogConfig.class.getResourceAsStream(BUNDLED)) {
+            return (in != null) ? in.readAllBytes() : null;
+        }
+    }
+
+    /** El archivo de Mojang en assets/log_configs/, donde lo deja también el launcher oficial. */
+    private static Path fetch(VersionDetails.LogFile f, Path dir) throws Exception {
+        Path target = dir.resolve(f.getId());
+        if (Files.isRegularFile(target) && matches(Files.readAllBytes(target), f.getSha1())) return target;
+
+        // se baja al apretar "Jugar": con plazos, un servidor colgado no puede frenar el lanzamiento
+        HttpRequest req = HttpRequest.newBuilder(URI.create(f.getUrl())).timeout(READ_TIMEOUT).GET().build();
+        HttpResponse<byte[]> resp = HTTP.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        if (resp.statusCode() != 200) throw new IOException("HTTP " + resp.statusCode() + " en " + f.getUrl());
+        byte[] data = resp.body();
+        if (!matches(data, f.getSha1())) throw new IOException("Integridad fallida (SHA-1) para " + f.getId());
+        writeAtomically(target, data);
+        return target;
+    }
+
+    /** .tmp al lado y rename atómico: otra instancia de la misma versión puede estar leyéndolo. */
+    private static void writeAtomically(Path target, byte[] data) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, data);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static boolean matches(byte[] data, String sha1) throws Exception {
+        if (sha1 == null) return true;
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(data)).equalsIgnoreCase(sha1);
+    }
+
+    /**
+     * La configuración de Mojang con el layout de consola de la nuestra, y todo {@code %msg}
+     * sin lookups. El resto (appenders de archivo, filtros, loggers) queda como vino.
+     */
+    static byte[] patch(byte[] mojang, byte[] bundled) throws Exception {
+        DocumentBuilder db = builder();
+        Document doc = db.parse(new ByteArrayInputStream(mojang));
+        Element ourConsole = firstConsole(db.parse(new ByteArrayInputStream(bundled)));
+        if (ourConsole == null) throw new IOException("log4j2-game.xml sin appender Console");
+
+        NodeList consoles = doc.getElementsByTagName("Console");
+        for (int i = 0; i < consoles.getLength(); i++) {
+            Element console = (Element) consoles.item(i);
+            while (console.getFirstChild() != null) console.removeChild(console.getFirstChild());
+            NodeList layout = ourConsole.getChildNodes();
+            for (int k = 0; k < layout.getLength(); k++) {
+                console.appendChild(doc.importNode(layout.item(k), true));
+            }
+        }
+        noLookups(doc.getDocumentElement());
+
+        Transformer t = TransformerFactory.newInstance().newTransformer();
+        t.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        t.transform(new DOMSource(doc), new StreamResult(out));
+        return out.toByteArray();
+    }
+
+    private static Element firstConsole(Document doc) {
+        NodeList l = doc.getElementsByTagName("Console");
+        return (l.getLength() > 0) ? (Element) l.item(0) : null;
+    }
+
+    /** Reescribe cada atributo "pattern" (PatternLayout y afines) con %msg{nolookups}. */
+    private static void noLookups(Element e) {
+        NamedNodeMap attrs = e.getAttributes();
+        for (int i = 0; i < attrs.getLength(); i++) {
+            Node a = attrs.item(i);
+            if ("pattern".equalsIgnoreCase(a.getNodeName())) {
+                a.setNodeValue(MSG.matcher(a.getNodeValue()).replaceAll(Matcher.quoteReplacement("%msg{nolookups}")));
+            }
+        }
+        NodeList children = e.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element c) noLookups(c);
+        }
+    }
+
+    private static DocumentBuilder builder() throws Exception {
+        DocumentBuilderFactory f = DocumentBuilderFactory.newInstance();
+        // un XML bajado de la red: nada de DOCTYPE ni entidades externas
+        f.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        f.setExpandEntityReferences(false);
+        return f.newDocumentBuilder();
+    }
+
+    /** Escribe solo si cambió, así el archivo no se toca en cada lanzamiento. */
+    private static File store(File target, byte[] cfg) throws IOException {
+        if (target.isFile() && Arrays.equals(cfg, Files.readAllBytes(target.toPath()))) return target;
+        writeAtomically(target.toPath(), cfg);
+        return target;
+    }
+}
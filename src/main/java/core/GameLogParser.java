@@ -0,0 +1,61 @@
+package core;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parser incremental de la salida del juego. Reconoce el layout estructurado de
+ * log/log4j2-game.xml ({@code @@Y|fecha|nivel|hilo|logger|mensaje}); las demás líneas
+ * (System.out, stack traces, versiones sin log4j) se convierten en eventos no estructurados
+ * que heredan nivel, hilo y logger del último evento estructurado del mismo stream.
+ * <p>
+ * No es thread-safe: se usa una instancia por stream (stdout y stderr).
+ */
+public class GameLogParser {
+    /** Prefijo que emite el PatternLayout de la configuración del launcher. */
+    public static final String MARKER = "@@Y|";
+
+    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final boolean stderr;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private LogEvent last;
+
+    public GameLogParser(boolean stderr) {
+        this.stderr = stderr;
+    }
+
+    /** Convierte una línea cruda en evento. Nunca devuelve null. */
+    public LogEvent parse(String line) {
+        if (line.startsWith(MARKER)) {
+            LogEvent ev = parseStructured(line);
+            if (ev != null) {
+                last = ev;
+                return ev;
+            }
+        }
+        long now = System.currentTimeMillis();
+        if (last != null) {
+            // continuación (p.ej. stack trace del último evento)
+            return new LogEvent(Math.max(now, last.time()), last.level(), last.thread(), last.logger(),
+                    line, stderr, false);
+        }
+        return new LogEvent(now, stderr ? LogEvent.Level.ERROR : LogEvent.Level.INFO, "", "",
+                line, stderr, false);
+    }
+
+    private LogEvent parseStructured(String line) {
+        // fecha|nivel|hilo|logger|mensaje (el mensaje puede contener '|')
+        String[] f = line.substring(MARKER.length()).split("\\|", 5);
+        if (f.length < 5) return null;
+        long time;
+        try {
+            time = LocalDateTime.parse(f[0], TS).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        return new LogEvent(time, LogEvent.Level.parse(f[1]), f[2], f[3], f[4], stderr, true);
+    }
+}
@@ -0,0 +1,240 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Cola de instalaciones: acepta varias versiones y corre hasta {@code maxConcurrent} a la vez
+ * sobre el mismo {@link VersionInstaller}, que comparte conexiones y no repite descargas
+ * comunes entre versiones. Las demás esperan su turno en el orden en que se pidieron.
+ * <p>
+ * Cada versión tiene su {@link Job} con avance propio; {@link #progress()} da el total.
+ */
+public class InstallQueue {
+    public static final int DEFAULT_CONCURRENCY = 3;
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+    /** Una versión de la cola. Lo escriben los hilos de descarga; leerlo es seguro desde cualquier hilo. */
+    public static final class Job {
+        private final String version;
+        private final VersionInstaller.Control control = new VersionInstaller.Control();
+        private volatile Status status = Status.QUEUED;
+        private volatile String message;
+        private volatile long done, total;
+        private volatile Throwable error;
+        private volatile long startedAt, finishedAt;
+
+        Job(String version) {
+            this.version = version;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public VersionInstaller.Control getControl() {
+            return control;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /** Último mensaje del instalador (o null). */
+        public String getMessage() {
+            return message;
+        }
+
+        /** Archivos listos de la instalación (librerías, cliente y assets, sobre {@link #getTotal()}). */
+        public long getDone() {
+            return done;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        /** Entre 0 y 1. */
+        public double getProgress() {
+            if (status == Status.DONE) return 1;
+            long t = total;
+            return (t > 0) ? Math.min(1, (double) done / t) : 0;
+        }
+
+        /** Motivo de la falla, si {@link #getStatus()} es FAILED. */
+        public Throwable getError() {
+            return error;
+        }
+
+        public long elapsedMs() {
+            if (startedAt == 0) return 0;
+            return (((finishedAt != 0) ? finishedAt : System.nanoTime()) - startedAt) / 1_000_000;
+        }
+
+        public boolean isFinished() {
+            Status s = status;
+            return s == Status.DONE || s == Status.FAILED || s == Status.CANCELLED;
+        }
+    }
+
+    private final VersionInstaller installer;
+    private final Semaphore slots;
+    private final Consumer<Job> listener;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    /**
+     * @param listener Recibe cada cambio de un job (estado o avance), desde los hilos de
+     *                 descarga y muchas veces por segundo: quien pinte debe agrupar
+     */
+    public InstallQueue(VersionInstaller installer, int maxConcurrent, Consumer<Job> listener) {
+        this.installer = installer;
+        this.slots = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.listener = listener;
+    }
+
+    /**
+     * Encola una versión. Si ya está en cola o instalándose devuelve ese mismo job; si
+     * terminó (bien o mal) arranca uno nuevo.
+     */
+    public Job submit(String ver) {
+        Job job;
+        synchronized (jobs) {
+            Job old = jobs.get(ver);
+            if (old != null && !old.isFinished()) return old;
+            job = new Job(ver);
+            jobs.remove(ver);
+            jobs.put(ver, job);
+        }
+        listener.accept(job);
+        Tasks.background("Install-" + ver, () -> run(job));
+        return job;
+    }
+
+    private void run(Job job) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException ex) {
+            cancelQueued(job);
+            return;
+        }
+        try {
+            // cancelado mientras esperaba turno: ya figura CANCELLED y ni se empieza
+            // (no deja la marca de a medias)
+            synchronized (job) {
+                if (job.status != Status.QUEUED) return;
+                if (job.control.getState() == VersionInstaller.Control.State.CANCELLED) {
+                    job.status = Status.CANCELLED;
+                    job.finishedAt = System.nanoTime();
+                } else {
+                    job.startedAt = System.nanoTime();
+                    job.status = Status.RUNNING;
+                }
+            }
+            listener.accept(job);
+            if (job.status == Status.CANCELLED) return;
+            installer.install(job.version, (msg, done, total) -> {
+                if (msg != null) job.message = msg;
+                synchronized (job) {
+                    // los hilos de descarga avisan en cualquier orden: el avance solo sube
+                    if (total != job.total || done > job.done) {
+                        job.total = total;
+                        job.done = done;
+                    }
+                }
+                listener.accept(job);
+            }, job.control);
+            finish(job, Status.DONE, null);
+        } catch (CancellationException ex) {
+            finish(job, Status.CANCELLED, null);
+        } catch (Exception ex) {
+            finish(job, Status.FAILED, ex);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void finish(Job job, Status status, Throwable error) {
+        job.error = error;
+        job.finishedAt = System.nanoTime();
+        job.status = status;
+        listener.accept(job);
+    }
+
+    /** Jobs en el orden en que se pidieron, incluidos los terminados hasta {@link #clearFinished()}. */
+    public List<Job> jobs() {
+        synchronized (jobs) {
+            return new ArrayList<>(jobs.values());
+        }
+    }
+
+    /** true si queda algo en cola o instalándose. */
+    public boolean isBusy() {
+        return jobs().stream().anyMatch(j -> !j.isFinished());
+    }
+
+    /**
+     * Avance total entre 0 y 1: promedio de los jobs, donde cada versión pesa lo mismo (el
+     * total de archivos de una versión recién se conoce al bajar su índice de assets).
+     */
+    public double progress() {
+        List<Job> all = jobs();
+        if (all.isEmpty()) return 0;
+        double sum = 0;
+        for (Job j : all) sum += j.isFinished() ? 1 : j.getProgress();
+        return sum / all.size();
+    }
+
+    /** Cantidad de jobs en cada estado. */
+    public Map<Status, Integer> counts() {
+        Map<Status, Integer> out = new LinkedHashMap<>();
+        for (Status s : Status.values()) out.put(s, 0);
+        for (Job j : jobs()) out.merge(j.status, 1, Integer::sum);
+        return out;
+    }
+
+    public void pauseAll() {
+        for (Job j : jobs()) j.control.pause();
+    }
+
+    public void resumeAll() {
+        for (Job j : jobs()) j.control.resume();
+    }
+
+    /**
+     * Cancela un job. Si todavía estaba en cola queda CANCELLED en el acto (no espera turno
+     * para enterarse); si se está instalando, termina como CANCELLED al cortar la descarga.
+     */
+    public void cancel(Job job) {
+        job.control.cancel();
+        cancelQueued(job);
+    }
+
+    /** Cancela lo que está en cola y lo que se está instalando. */
+    public void cancelAll() {
+        for (Job j : jobs()) {
+            if (!j.isFinished()) cancel(j);
+        }
+    }
+
+    private void cancelQueued(Job job) {
+        synchronized (job) {
+            if (job.status != Status.QUEUED) return;
+            job.status = Status.CANCELLED;
+            job.finishedAt = System.nanoTime();
+        }
+        listener.accept(job);
+    }
+
+    /** Saca de la lista los jobs terminados. */
+    public void clearFinished() {
+        synchronized (jobs) {
+            jobs.values().removeIf(Job::isFinished);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Un archivo JSON con escritura diferida (write-behind): {@link #save} solo anota la
+ * última versión y la escribe un hilo de fondo pasado {@code delayMs}, así que una ráfaga
+ * de cambios termina en una sola escritura y quien llama (normalmente el hilo FX) no toca
+ * el disco.
+ * <p>
+ * Cada escritura va a un .tmp, se hace fsync y se renombra de forma atómica: si el
+ * proceso muere a mitad, queda el archivo anterior completo. Lo pendiente se vuelca
+ * en {@link #flush()}, en {@link #close()} y, por las dudas, al cerrar la JVM mientras
+ * el store siga abierto.
+ */
+public final class JsonStore implements AutoCloseable {
+    /** Mapper compartido (es thread-safe una vez configurado). */
+    static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter WRITER = MAPPER.writerWithDefaultPrettyPrinter();
+
+    private static final ScheduledExecutorService IO = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "json-store");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Set<JsonStore> OPEN = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> OPEN.forEach(JsonStore::flush), "json-store-flush"));
+    }
+
+    private final Path file;
+    private final long delayMs;
+    private final AtomicReference<Object> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    public JsonStore(Path file, long delayMs) {
+        this.file = file;
+        this.delayMs = delayMs;
+        OPEN.add(this);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /** Lee el archivo; null si no existe o no se pudo parsear. */
+    public <T> T read(Class<T> type) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            return MAPPER.readValue(file.toFile(), type);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public <T> T read(TypeReference<T> type) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            return MAPPER.readValue(file.toFile(), type);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Programa la escritura de value. Tiene que ser una copia que nadie más modifique:
+     * se serializa más tarde, en otro hilo. Si llega otra antes de escribir, gana la última.
+     */
+    public void save(Object value) {
+        pending.set(value);
+        if (scheduled.compareAndSet(false, true)) {
+            IO.schedule(() -> {
+                scheduled.set(false);
+                flush();
+            }, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Escribe lo pendiente y deja de vigilarlo al cerrar la JVM. Un {@link #save} posterior
+     * se sigue escribiendo, pero ya sin esa red de seguridad.
+     */
+    @Override
+    public void close() {
+        OPEN.remove(this);
+        flush();
+    }
+
+    /** Escribe ya lo pendiente (si hay), en el hilo que llama. */
+    public void flush() {
+        synchronized (writeLock) {
+            Object value = pending.getAndSet(null);
+            if (value == null) return;
+            try {
+                writeAtomically(WRITER.writeValueAsBytes(value));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeAtomically(byte[] data) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = dir.resolve(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.wrap(data);
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // el rename queda durable con fsync del directorio (no se puede en Windows)
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+    }
+}
@@ -2,11 +2,16 @@ package core;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
 public class LaunchExecutor {
     private static final String DEFAULT_LIB_REPO = "https://libraries.minecraft.net/";
+    private static final int LOG_BUFFER_LINES = 16384;
+    private static final int RESOURCE_SAMPLES = 600;   // 10 min a 1 muestra/s
     private final String javaBin;
     private final VersionManager injectedVm;
 
@@ -15,8 +20,58 @@ public class LaunchExecutor {
         this.injectedVm = injectedVm;
     }
 
+    /**
+     * Prepara y lanza el juego, devolviendo el handle apenas el proceso arranca.
+     * La preparación (resolver versión, bajar librerías faltantes) corre en el hilo llamador.
+     */
+    public GameInstance start(AuthManager.Session session,
+                              String versionId,
+                              File gameDir,
+                              int ramMb,
+                              String serverAddress,
+                              int serverPort) throws IOException {
+        return start(session, versionId, gameDir, ramMb, serverAddress, serverPort, null);
+    }
+
+    /**
+     * Como {@link #start}, con un listener de log que se engancha antes de que el proceso
+     * escriba nada: recibe desde la primera línea.
+     */
+    public GameInstance start(AuthManager.Session session,
+                              String versionId,
+                              File gameDir,
+                              int ramMb,
+                              String serverAddress,
+                              int serverPort,
+                              Consumer<LogEvent> listener) throws IOException {
+        LaunchTimings timings = newTimings(versionId, gameDir);
+        List<String> cmd = buildCommand(session, versionId, gameDir, ramMb, serverAddress, serverPort, timings);
+        return spawn(cmd, versionId, gameDir, timings, listener);
+    }
 
+    /**
+     * Versión asíncrona de {@link #start}: la preparación corre en un hilo de fondo y el
+     * futuro se completa con el handle en cuanto el proceso arrancó.
+     */
+    public CompletableFuture<GameInstance> startAsync(AuthManager.Session session,
+                                                      String versionId,
+                                                      File gameDir,
+                                                      int ramMb,
+                                                      String serverAddress,
+                                                      int serverPort) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return start(session, versionId, gameDir, ramMb, serverAddress, serverPort);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, Tasks.io());
+    }
 
+    /**
+     * Lanza y espera a que el juego cierre, entregando cada línea ya formateada a los listeners.
+     * Pensado para llamadores sin UI; la UI usa {@link #startAsync}.
+     */
     public void launch(AuthManager.Session session,
                        String versionId,
                        File gameDir,
@@ -25,6 +80,61 @@ public class LaunchExecutor {
                        int serverPort,
                        Consumer<String> stdoutListener,
                        Consumer<String> stderrListener) throws IOException, InterruptedException {
+        LaunchTimings timings = newTimings(versionId, gameDir);
+        List<String> cmd = buildCommand(session, versionId, gameDir, ramMb, serverAddress, serverPort, timings);
+        GameInstance gi = spawn(cmd, versionId, gameDir, timings,
+                ev -> (ev.stderr() ? stderrListener : stdoutListener).accept(ev.format()));
+        try {
+            gi.onExit().get();
+        } catch (ExecutionException ex) {
+            throw new IOException(ex.getCause());
+        }
+    }
+
+    /** Historial de tiempos de arranque de una carpeta de juego (ver {@link LaunchTimings}). */
+    public static Path timingsHistory(File gameDir) {
+        return new File(gameDir, "logs" + File.separator + LaunchTimings.HISTORY_FILE).toPath();
+    }
+
+    private static LaunchTimings newTimings(String versionId, File gameDir) {
+        return new LaunchTimings(versionId, timingsHistory(gameDir));
+    }
+
+    private GameInstance spawn(List<String> cmd, String versionId, File gameDir, LaunchTimings timings,
+                               Consumer<LogEvent> listener) throws IOException {
+        SessionLogStore store = SessionLogStore.create(new File(gameDir, "logs" + File.separator + "sessions").toPath());
+        Path stdoutFile = store.getDir().resolve("stdout.log");
+        Path stderrFile = store.getDir().resolve("stderr.log");
+
+        // salida a archivos: el juego nunca se bloquea por un pipe lleno y no hay hilos lectores por instancia
+        ProcessBuilder pb = new ProcessBuilder(cmd);
+        pb.directory(gameDir);
+        pb.redirectOutput(stdoutFile.toFile());
+        pb.redirectError(stderrFile.toFile());
+
+        Process p;
+        try {
+            p = pb.start();
+        } catch (IOException ex) {
+            store.close();
+            throw ex;
+        }
+        timings.mark(LaunchTimings.SPAWN);
+        ResourceSeries resources = new ResourceSeries(RESOURCE_SAMPLES);
+        GameInstance gi = new GameInstance(versionId, p, store, new LogBuffer(LOG_BUFFER_LINES), resources, timings);
+        if (listener != null) gi.addLogListener(listener);
+        LogPump.get().attach(gi, stdoutFile, stderrFile);
+        ProcessSampler.watch(p.toHandle(), resources, store.getDir().resolve(ProcessSampler.CSV_FILE));
+        return gi;
+    }
+
+    private List<String> buildCommand(AuthManager.Session session,
+                                      String versionId,
+                                      File gameDir,
+                                      int ramMb,
+                                      String serverAddress,
+                                      int serverPort,
+                                      LaunchTimings timings) throws IOException {
 
         //Cargar detalles
         VersionDetails det;
@@ -34,6 +144,7 @@ public class LaunchExecutor {
         } catch (Throwable ignore) {
             det = vm.fetchVersionDetails(versionId);
         }
+        timings.mark(LaunchTimings.RESOLVE);
 
         //Rutas base
         String assetsDir     = new File(gameDir, "assets").getAbsolutePath();
@@ -55,52 +166,8 @@ public class LaunchExecutor {
         }
 
         // Classpath: librerías + client.jar
-        List<String> cp = new ArrayList<>();
-
-        for (VersionDetails.Library lib : det.getLibraries()) {
-            VersionDetails.Library.Downloads dls = lib.getDownloads();
-
-
-            if (dls != null && dls.getArtifact() != null && dls.getArtifact().getUrl() != null) {
-                String url = dls.getArtifact().getUrl();
-                File libFile = new File(librariesRoot, pathFromUrlSafe(url));
-                if (!libFile.isFile()) {
-                    ensureParent(libFile);
-                    try (var in = new java.net.URL(url).openStream();
-                         var out = new FileOutputStream(libFile)) {
-                        in.transferTo(out);
-                    } catch (IOException ex) {
-
-                    }
-                }
-                if (libFile.isFile()) cp.add(libFile.getAbsolutePath());
-                continue;
-            }
-
-
-            if (lib.getName() != null && !lib.getName().isBlank()) {
-                File libFile = fileFromMavenCoord(librariesRoot, lib.getName());
-                if (!libFile.isFile()) {
-                    String base = (lib.getRepositoryUrl() != null && !lib.getRepositoryUrl().isBlank())
-                            ? lib.getRepositoryUrl()
-                            : DEFAULT_LIB_REPO;
-                    if (!base.endsWith("/")) base += "/";
-                    String relPath = mavenPathFromCoord(lib.getName());
-                    String fullUrl = base + relPath;
-
-                    try {
-                        ensureParent(libFile);
-                        try (var in = new java.net.URL(fullUrl).openStream();
-                             var out = new FileOutputStream(libFile)) {
-                            in.transferTo(out);
-                        }
-                    } catch (IOException ignore2) {
-
-                    }
-                }
-                if (libFile.isFile()) cp.add(libFile.getAbsolutePath());
-            }
-        }
+        List<String> cp = libraryClasspath(det, librariesRoot);
+        timings.mark(LaunchTimings.LIBRARIES);
 
         // client jar al final
         File clientJar = new File(versionDir, versionId + ".jar");
@@ -121,15 +188,22 @@ public class LaunchExecutor {
         File nativesDir = new File(versionDir, versionId + "-natives");
         if (!nativesDir.exists()) nativesDir.mkdirs();
 
+        String type = (det.getType() != null && !det.getType().isBlank()) ? det.getType()
+                : (versionId.matches("\\d{2}w\\d{2}[a-z]") ? "snapshot" : "release");
+
+        // Plantillas de argumentos (compiladas una vez por versión, ver ArgumentTemplate)
+        Map<String, String> vars = buildVarsMap(session, versionId, gameDir, assetsDir, assetIndexId,
+                nativesDir, librariesRoot, classpath, type);
+        ArgumentTemplate.Environment env = ArgumentTemplate.Environment.current(Set.of("has_custom_resolution"));
+        ArgumentTemplate jvmTemplate = det.getJvmTemplate();
+        boolean modernArgs = det.getArguments() != null && det.getArguments().getGame() != null;
+
         // TWEAKS
         List<String> extra = new ArrayList<>();
         boolean hasTweaks = false;
 
-        if (det.getMinecraftArguments() != null && !det.getMinecraftArguments().isBlank()) {
-            extra.addAll(splitArgsAndSubstitute(
-                    det.getMinecraftArguments(),
-                    buildVarsMap(session, versionId, gameDir, assetsDir, assetIndexId, nativesDir)
-            ));
+        if (!modernArgs && det.getMinecraftArguments() != null && !det.getMinecraftArguments().isBlank()) {
+            extra.addAll(det.getGameTemplate().expand(env, vars));
         }
 
         // ¿hay --tweakClass ... ?
@@ -187,60 +261,54 @@ public class LaunchExecutor {
         List<String> cmd = new ArrayList<>();
         cmd.add(javaBin);
         cmd.add("-Xmx" + ramMb + "M");
-        cmd.add("-Djava.library.path=" + nativesDir.getAbsolutePath());
+        if (jvmTemplate != null && !jvmTemplate.isEmpty()) {
+            // 1.13+: el JSON trae library path, flags por SO y normalmente -cp ${classpath}
+            cmd.addAll(jvmTemplate.expand(env, vars));
+        } else {
+            cmd.add("-Djava.library.path=" + nativesDir.getAbsolutePath());
+        }
         cmd.add("-Dorg.lwjgl.librarypath=" + nativesDir.getAbsolutePath());
-        cmd.add("-cp");
-        cmd.add(classpath);
+        // Log4Shell: siempre, aunque la configuración ya use %msg{nolookups}
+        cmd.add(GameLogConfig.NO_LOOKUPS_FLAG);
+        File logConfig = GameLogConfig.write(det, gameDir);
+        if (logConfig != null) cmd.add("-Dlog4j.configurationFile=" + logConfig.getAbsolutePath());
+        if (jvmTemplate == null || !jvmTemplate.uses("classpath")) {
+            cmd.add("-cp");
+            cmd.add(classpath);
+        }
         cmd.add(effectiveMainClass);
 
-        // Args básicos de Minecraft
-        cmd.add("--version");      cmd.add(versionId);
-        String type = (det.getType() != null && !det.getType().isBlank()) ? det.getType()
-                : (versionId.matches("\\d{2}w\\d{2}[a-z]") ? "snapshot" : "release");
-        cmd.add("--versionType");  cmd.add(type);
-        cmd.add("--gameDir");      cmd.add(gameDir.getAbsolutePath());
-        cmd.add("--assetsDir");    cmd.add(assetsDir);
-        cmd.add("--assetIndex");   cmd.add(assetIndexId);
-        cmd.add("--uuid");         cmd.add(session.getUuid());
-        cmd.add("--accessToken");  cmd.add(session.getUuid());
-        cmd.add("--userProperties"); cmd.add("{}");
-        cmd.add("--userType");     cmd.add("legacy");
-        cmd.add("--username");     cmd.add(session.getUsername());
+        if (modernArgs) {
+            cmd.addAll(det.getGameTemplate().expand(env, vars));
+        } else {
+            // Args básicos de Minecraft
+            cmd.add("--version");      cmd.add(versionId);
+            cmd.add("--versionType");  cmd.add(type);
+            cmd.add("--gameDir");      cmd.add(gameDir.getAbsolutePath());
+            cmd.add("--assetsDir");    cmd.add(assetsDir);
+            cmd.add("--assetIndex");   cmd.add(assetIndexId);
+            cmd.add("--uuid");         cmd.add(session.getUuid());
+            cmd.add("--accessToken");  cmd.add(session.getUuid());
+            cmd.add("--userProperties"); cmd.add("{}");
+            cmd.add("--userType");     cmd.add("legacy");
+            cmd.add("--username");     cmd.add(session.getUsername());
+        }
 
         if (serverAddress != null && !serverAddress.isBlank()) {
             cmd.add("--server"); cmd.add(serverAddress);
             cmd.add("--port");   cmd.add(String.valueOf(serverPort));
         }
 
-        cmd.add("--width");  cmd.add("854");
-        cmd.add("--height"); cmd.add("480");
+        if (!modernArgs) {
+            cmd.add("--width");  cmd.add("854");
+            cmd.add("--height"); cmd.add("480");
+        }
 
 
         if (!extra.isEmpty()) cmd.addAll(extra);
 
-        // Ejecutar
-        ProcessBuilder pb = new ProcessBuilder(cmd);
-        pb.directory(gameDir);
-
-        Process p = pb.start();
-
-        // stdout
-        new Thread(() -> {
-            try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
-                String line;
-                while ((line = r.readLine()) != null) stdoutListener.accept(line);
-            } catch (IOException ignored) {}
-        }, "mc-stdout").start();
-
-        // stderr
-        new Thread(() -> {
-            try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getErrorStream()))) {
-                String line;
-                while ((line = r.readLine()) != null) stderrListener.accept(line);
-            } catch (IOException ignored) {}
-        }, "mc-stderr").start();
-
-        p.waitFor();
+        timings.mark(LaunchTimings.CLASSPATH);
+        return cmd;
     }
 
     // helpers
@@ -252,6 +320,62 @@ public class LaunchExecutor {
         }
     }
 
+    /**
+     * Jars de las librerías de la versión, en orden, para el classpath. Las que faltan en
+     * libraries/ se intentan bajar en el momento; las que no se consiguen se omiten.
+     */
+    static List<String> libraryClasspath(VersionDetails det, File librariesRoot) throws IOException {
+        List<String> cp = new ArrayList<>();
+
+        for (VersionDetails.Library lib : det.getLibraries()) {
+            // una librería de otro SO en el classpath pisa a la buena (lwjgl 2.9.2 vs 2.9.4)
+            if (!Rules.applies(lib)) continue;
+            VersionDetails.Library.Downloads dls = lib.getDownloads();
+
+
+            if (dls != null && dls.getArtifact() != null && dls.getArtifact().getUrl() != null) {
+                String url = dls.getArtifact().getUrl();
+                File libFile = new File(librariesRoot, pathFromUrlSafe(url));
+                if (!libFile.isFile()) {
+                    ensureParent(libFile);
+                    try (var in = new java.net.URL(url).openStream();
+                         var out = new FileOutputStream(libFile)) {
+                        in.transferTo(out);
+                    } catch (IOException ex) {
+
+                    }
+                }
+                if (libFile.isFile()) cp.add(libFile.getAbsolutePath());
+                continue;
+            }
+
+
+            if (lib.getName() != null && !lib.getName().isBlank()) {
+                File libFile = fileFromMavenCoord(librariesRoot, lib.getName());
+                if (!libFile.isFile()) {
+                    String base = (lib.getRepositoryUrl() != null && !lib.getRepositoryUrl().isBlank())
+                            ? lib.getRepositoryUrl()
+                            : DEFAULT_LIB_REPO;
+                    if (!base.endsWith("/")) base += "/";
+                    String relPath = mavenPathFromCoord(lib.getName());
+                    String fullUrl = base + relPath;
+
+                    try {
+                        ensureParent(libFile);
+                        try (var in = new java.net.URL(fullUrl).openStream();
+                             var out = new FileOutputStream(libFile)) {
+                            in.transferTo(out);
+                        }
+                    } catch (IOException ignore2) {
+
+                    }
+                }
+                if (libFile.isFile()) cp.add(libFile.getAbsolutePath());
+            }
+        }
+        return cp;
+    }
+
     private static String pathFromUrlSafe(String url) {
         if (url == null || url.isBlank()) return "";
         try {
@@ -275,7 +399,8 @@ public class LaunchExecutor {
         return new File(librariesRoot, rel);
     }
 
-    private static String mavenPathFromCoord(String coord) {
+    /** Ruta relativa en un repositorio Maven de "grupo:artefacto:versión". */
+    static String mavenPathFromCoord(String coord) {
         String[] parts = coord.split(":");
         if (parts.length < 3) return coord;
         String g = parts[0].replace('.', '/');
@@ -289,33 +414,36 @@ public class LaunchExecutor {
                                                     File gameDir,
                                                     String assetsDir,
                                                     String assetsIndex,
-                                                    File nativesDir) {
+                                                    File nativesDir,
+                                                    File librariesRoot,
+                                                    String classpath,
+                                                    String versionType) {
         Map<String, String> m = new HashMap<>();
-        m.put("${auth_player_name}", session.getUsername());
-        m.put("${version_name}", versionId);
-        m.put("${game_directory}", gameDir.getAbsolutePath());
-        m.put("${assets_root}", assetsDir);
-        m.put("${assets_index_name}", assetsIndex != null ? assetsIndex : "legacy");
-        m.put("${auth_uuid}", session.getUuid());
-        m.put("${auth_access_token}", session.getUuid());
-        m.put("${user_type}", "legacy");
-        m.put("${user_properties}", "{}");
-        m.put("${natives_directory}", nativesDir.getAbsolutePath());
-        m.put("${launcher_name}", "YaguaLauncher");
-        m.put("${launcher_version}", "1.0");
+        m.put("auth_player_name", session.getUsername());
+        m.put("version_name", versionId);
+        m.put("version_type", versionType);
+        m.put("game_directory", gameDir.getAbsolutePath());
+        m.put("assets_root", assetsDir);
+        m.put("game_assets", assetsDir);
+        m.put("assets_index_name", assetsIndex != null ? assetsIndex : "legacy");
+        m.put("auth_uuid", session.getUuid());
+        m.put("auth_access_token", session.getUuid());
+        m.put("auth_session", session.getUuid());
+        m.put("auth_xuid", "0");
+        m.put("clientid", "0");
+        m.put("user_type", "legacy");
+        m.put("user_properties", "{}");
+        m.put("natives_directory", nativesDir.getAbsolutePath());
+        m.put("library_directory", librariesRoot.getAbsolutePath());
+        m.put("classpath", classpath);
+        m.put("classpath_separator", File.pathSeparator);
+        m.put("resolution_width", "854");
+        m.put("resolution_height", "480");
+        m.put("launcher_name", "YaguaLauncher");
+        m.put("launcher_version", "1.0");
         return m;
     }
 
-    private static List<String> splitArgsAndSubstitute(String args, Map<String, String> vars) {
-        List<String> out = new ArrayList<>();
-        for (String tok : args.trim().split("\\s+")) {
-            String v = tok;
-            for (var e : vars.entrySet()) v = v.replace(e.getKey(), e.getValue());
-            out.add(v);
-        }
-        return out;
-    }
-
     /** existe el jar de OptiFine launchwrapper-of en libraries */
     private static boolean containsLaunchwrapperOf(File librariesRoot) {
         File dir = new File(librariesRoot, "optifine/launchwrapper-of");
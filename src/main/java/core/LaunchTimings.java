@@ -0,0 +1,199 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tiempos de un lanzamiento, medidos desde que se pidió lanzar (reloj monotónico):
+ * resolver la versión, revisar/bajar librerías, armar el classpath, arrancar el proceso,
+ * primera línea de salida e hitos conocidos del log del juego (LWJGL, OpenGL, sonido).
+ * <p>
+ * Al llegar el último hito (o al cerrarse el juego, lo que pase antes) se agrega una
+ * línea a {@value #HISTORY_FILE}, que guarda los últimos {@value #HISTORY_MAX} lanzamientos.
+ */
+public class LaunchTimings {
+    public static final String HISTORY_FILE = "launch-timings.jsonl";
+    static final int HISTORY_MAX = 500;
+
+    public static final String RESOLVE = "resolve";
+    public static final String LIBRARIES = "libraries";
+    public static final String CLASSPATH = "classpath";
+    public static final String SPAWN = "spawn";
+    public static final String FIRST_OUTPUT = "first-output";
+    public static final String LWJGL = "lwjgl";
+    public static final String OPENGL = "opengl";
+    public static final String SOUND = "sound";
+
+    /** Fases en orden de aparición, para mostrarlas. */
+    public static final List<String> PHASES =
+            List.of(RESOLVE, LIBRARIES, CLASSPATH, SPAWN, FIRST_OUTPUT, LWJGL, OPENGL, SOUND);
+
+    /** Hito del log: fase y fragmentos que lo identifican (varían entre versiones del juego). */
+    private record Milestone(String phase, String... needles) {
+    }
+
+    private static final List<Milestone> MILESTONES = List.of(
+            new Milestone(LWJGL, "LWJGL Version", "Backend library: LWJGL"),
+            new Milestone(OPENGL, "OpenGL", "GL Caps", "GL info"),
+            new Milestone(SOUND, "Sound engine started", "OpenAL initialized"));
+
+    /**
+     * Una línea del historial: milisegundos desde el inicio del lanzamiento hasta cada fase.
+     * exitCode vale -1 si se guardó con el juego todavía abierto.
+     */
+    public record Entry(String versionId, long startedAt, int exitCode, Map<String, Long> phases) {
+    }
+
+    /** p50/p95 en ms de una fase para una versión. */
+    public record PhaseStats(String phase, int count, long p50Ms, long p95Ms) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String versionId;
+    private final Path historyFile;
+    private final long startedAt = System.currentTimeMillis();
+    private final long t0 = System.nanoTime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private boolean saved;
+    // evento JFR de la fase en curso: empieza donde terminó la anterior
+    private LauncherEvents.LaunchPhase phaseEvent = beginPhase();
+
+    public LaunchTimings(String versionId, Path historyFile) {
+        this.versionId = versionId;
+        this.historyFile = historyFile;
+    }
+
+    /**
+     * Marca el fin de una fase de preparación (acumulada desde el inicio). La misma fase,
+     * sola, sale como evento {@link LauncherEvents.LaunchPhase}.
+     */
+    synchronized void mark(String phase) {
+        long now = System.nanoTime();
+        if (phases.putIfAbsent(phase, (now - t0) / 1_000_000) != null) return;
+        if (phaseEvent.shouldCommit()) {
+            phaseEvent.version = versionId;
+            phaseEvent.phase = phase;
+            phaseEvent.commit();
+        }
+        phaseEvent = beginPhase();
+    }
+
+    private static LauncherEvents.LaunchPhase beginPhase() {
+        LauncherEvents.LaunchPhase ev = new LauncherEvents.LaunchPhase();
+        ev.begin();
+        return ev;
+    }
+
+    /**
+     * Revisa cada evento del juego. Todas las fases usan el mismo reloj monotónico: el momento
+     * en que {@link LogPump} ve la línea (a lo sumo un tick después de escrita), no la hora de
+     * pared que trae el log4j del juego, que depende del formato y de ajustes del reloj.
+     */
+    synchronized void onEvent(LogEvent ev) {
+        if (saved) return;
+        long at = (System.nanoTime() - t0) / 1_000_000;
+        phases.putIfAbsent(FIRST_OUTPUT, at);
+        String msg = ev.message();
+        for (Milestone m : MILESTONES) {
+            if (phases.containsKey(m.phase())) continue;
+            for (String n : m.needles()) {
+                if (msg.contains(n)) {
+                    phases.put(m.phase(), at);
+                    break;
+                }
+            }
+        }
+        if (phases.keySet().containsAll(PHASES)) save(-1);
+    }
+
+    /** Guarda en el historial lo medido hasta ahora; solo la primera llamada escribe. */
+    synchronized void save(int exitCode) {
+        if (saved) return;
+        saved = true;
+        try {
+            append(historyFile, new Entry(versionId, startedAt, exitCode, new LinkedHashMap<>(phases)));
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /** Copia de las fases medidas (ms desde el inicio). */
+    public synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    public String getVersionId() {
+        return versionId;
+    }
+
+    // ===== historial =====
+
+    private static synchronized void append(Path file, Entry e) throws IOException {
+        List<String> lines = Files.exists(file)
+                ? new ArrayList<>(Files.readAllLines(file, StandardCharsets.UTF_8))
+                : new ArrayList<>();
+        lines.add(MAPPER.writeValueAsString(e));
+        if (lines.size() > HISTORY_MAX) lines = lines.subList(lines.size() - HISTORY_MAX, lines.size());
+
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Lee el historial; las líneas dañadas se saltean. */
+    public static List<Entry> loadHistory(Path file) {
+        List<Entry> out = new ArrayList<>();
+        if (!Files.exists(file)) return out;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                try {
+                    out.add(MAPPER.readValue(line, Entry.class));
+                } catch (IOException ignored) {
+                }
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        return out;
+    }
+
+    /** p50/p95 por fase para cada versión del historial, con las fases en el orden de {@link #PHASES}. */
+    public static Map<String, List<PhaseStats>> summarize(List<Entry> history) {
+        Map<String, Map<String, List<Long>>> byVersion = new TreeMap<>();
+        for (Entry e : history) {
+            if (e.phases() == null) continue;
+            Map<String, List<Long>> m = byVersion.computeIfAbsent(e.versionId(), k -> new LinkedHashMap<>());
+            e.phases().forEach((phase, ms) -> m.computeIfAbsent(phase, k -> new ArrayList<>()).add(ms));
+        }
+        Map<String, List<PhaseStats>> out = new TreeMap<>();
+        byVersion.forEach((ver, m) -> {
+            List<PhaseStats> stats = new ArrayList<>();
+            for (String phase : PHASES) {
+                List<Long> v = m.get(phase);
+                if (v == null || v.isEmpty()) continue;
+                v.sort(null);
+                stats.add(new PhaseStats(phase, v.size(), percentile(v, 50), percentile(v, 95)));
+            }
+            out.put(ver, stats);
+        });
+        return out;
+    }
+
+    /** Percentil por rango más cercano sobre una lista ordenada. */
+    private static long percentile(List<Long> sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+}
@@ -0,0 +1,111 @@
+package core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.net.URI;
+
+/**
+ * Eventos JFR propios del launcher, para que una grabación de una instalación lenta muestre
+ * en JMC qué archivo, de qué host y en qué fase se fue el tiempo (no solo hilos y sockets).
+ * <pre>
+ *   java -XX:StartFlightRecording=filename=yagua.jfr,settings=profile -jar YaguaLauncher.jar
+ * </pre>
+ * Con la grabación apagada (o el evento deshabilitado) {@code begin()} y {@code commit()}
+ * no hacen nada; lo que cuesta armar un campo se calcula solo si {@code shouldCommit()}.
+ * Todos aparecen en JMC bajo "Yagua".
+ */
+public final class LauncherEvents {
+
+    private LauncherEvents() {
+    }
+
+    /** Un archivo de la instalación: bajado (con sus reintentos) o ya presente y válido en disco. */
+    @Name("yagua.Download")
+    @Label("Descarga")
+    @Category({"Yagua", "Instalación"})
+    @Description("Descarga de un archivo: host, bytes, reintentos y si ya estaba en disco")
+    @StackTrace(false)
+    public static final class Download extends Event {
+        @Label("Host")
+        public String host;
+
+        @Label("Archivo")
+        public String file;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Reintentos")
+        public int retries;
+
+        @Label("Ya estaba")
+        @Description("El archivo ya estaba en disco con el SHA-1 correcto: no se pidió nada")
+        public boolean cacheHit;
+
+        @Label("HTTP")
+        public int status;
+    }
+
+    /** Un cálculo de SHA-1 de un archivo en disco (después de bajarlo o para ver si hace falta). */
+    @Name("yagua.HashVerify")
+    @Label("Verificación SHA-1")
+    @Category({"Yagua", "Instalación"})
+    @StackTrace(false)
+    public static final class HashVerify extends Event {
+        @Label("Archivo")
+        public String file;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Coincide")
+        public boolean matched;
+    }
+
+    /** Una fase de la preparación de un lanzamiento; su duración va desde el fin de la anterior. */
+    @Name("yagua.LaunchPhase")
+    @Label("Fase de lanzamiento")
+    @Category({"Yagua", "Lanzamiento"})
+    @StackTrace(false)
+    public static final class LaunchPhase extends Event {
+        @Label("Versión")
+        public String version;
+
+        @Label("Fase")
+        public String phase;
+    }
+
+    /** Un repintado del avance en la UI, con cuántas actualizaciones de los hilos de descarga juntó. */
+    @Name("yagua.ProgressFlush")
+    @Label("Repintado de avance")
+    @Category({"Yagua", "UI"})
+    @StackTrace(false)
+    public static final class ProgressFlush extends Event {
+        @Label("Filas")
+        public int rows;
+
+        @Label("Actualizaciones agrupadas")
+        public int updates;
+
+        @Label("Avance")
+        public double progress;
+    }
+
+    /** Host de una URL para {@link Download#host}, o la URL tal cual si no se puede leer. */
+    static String host(String url) {
+        try {
+            String h = URI.create(url).getHost();
+            return (h != null) ? h : url;
+        } catch (IllegalArgumentException ex) {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circular acotado y sin locks para la salida del juego.
+ * Los hilos lectores (stdout/stderr) hacen offer() y nunca se bloquean: si el buffer
+ * está lleno la línea se cuenta como descartada (y opcionalmente se vuelca a disco).
+ * La UI consume por lotes con drainTo(), una vez por pulso.
+ */
+public class LogBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<LogEvent> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();   // siguiente posición a escribir
+    private final AtomicLong tail = new AtomicLong();   // siguiente posición a leer (un solo consumidor)
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Path spillFile;
+    private BufferedWriter spill;
+
+    /**
+     * @param capacity  Cantidad de líneas (se redondea a potencia de 2)
+     * @param spillFile Archivo donde volcar las líneas que no entran, o null para solo contarlas
+     */
+    public LogBuffer(int capacity, Path spillFile) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = cap - 1;
+        this.slots = new AtomicReferenceArray<>(cap);
+        this.sequences = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) sequences.set(i, i);
+        this.spillFile = spillFile;
+    }
+
+    public LogBuffer(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Encola un evento. Nunca bloquea: si no hay lugar devuelve false y el evento
+     * cuenta como descartado.
+     */
+    public boolean offer(LogEvent line) {
+        while (true) {
+            long pos = head.get();
+            int idx = (int) (pos & mask);
+            long seq = sequences.get(idx);
+            long diff = seq - pos;
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    slots.set(idx, line);
+                    sequences.set(idx, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // lleno
+                dropped.incrementAndGet();
+                spill(line);
+                return false;
+            }
+            // otro productor ganó la posición: reintentar
+        }
+    }
+
+    /**
+     * Consume hasta max líneas en orden. Solo debe llamarse desde un único hilo (la UI).
+     *
+     * @return cantidad de líneas entregadas
+     */
+    public int drainTo(Consumer<LogEvent> sink, int max) {
+        int n = 0;
+        while (n < max) {
+            long pos = tail.get();
+            int idx = (int) (pos & mask);
+            if (sequences.get(idx) != pos + 1) break;   // vacío o el productor aún no publicó
+            LogEvent line = slots.getAndSet(idx, null);
+            sequences.set(idx, pos + mask + 1);
+            tail.set(pos + 1);
+            sink.accept(line);
+            n++;
+        }
+        return n;
+    }
+
+    /** Devuelve y resetea el contador de líneas descartadas desde la última llamada. */
+    public long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+
+    public boolean isEmpty() {
+        return sequences.get((int) (tail.get() & mask)) != tail.get() + 1;
+    }
+
+    public Path getSpillFile() {
+        return spillFile;
+    }
+
+    private void spill(LogEvent line) {
+        if (spillFile == null) return;
+        // solo compiten los hilos lectores; la UI nunca toma este lock
+        synchronized (this) {
+            try {
+                if (spill == null) {
+                    Files.createDirectories(spillFile.getParent());
+                    spill = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                spill.write(line.format());
+                spill.newLine();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /** Cierra el archivo de volcado si se abrió. */
+    public synchronized void close() {
+        if (spill != null) {
+            try { spill.close(); } catch (IOException ignored) {}
+            spill = null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package core;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Un evento de log del juego, ya parseado.
+ *
+ * @param time       Epoch millis (del layout log4j si es estructurado, o de recepción)
+ * @param level      Nivel log4j
+ * @param thread     Hilo que lo emitió ("" si no se conoce)
+ * @param logger     Nombre del logger ("" si no se conoce)
+ * @param message    Texto del mensaje
+ * @param stderr     true si llegó por stderr
+ * @param structured true si vino del layout estructurado (y no es una línea suelta o de stack trace)
+ */
+public record LogEvent(long time,
+                       Level level,
+                       String thread,
+                       String logger,
+                       String message,
+                       boolean stderr,
+                       boolean structured) {
+
+    private static final DateTimeFormatter CLOCK =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, FATAL;
+
+        /** Parsea el nombre log4j; cualquier cosa desconocida se toma como INFO. */
+        public static Level parse(String s) {
+            if (s == null) return INFO;
+            switch (s.trim().toUpperCase(Locale.ROOT)) {
+                case "TRACE": return TRACE;
+                case "DEBUG": return DEBUG;
+                case "WARN": case "WARNING": return WARN;
+                case "ERROR": case "SEVERE": return ERROR;
+                case "FATAL": return FATAL;
+                default: return INFO;
+            }
+        }
+    }
+
+    /** Línea para la consola, con el mismo formato que usa logs/latest.log. */
+    public String format() {
+        if (!structured) return stderr ? "[ERR] " + message : message;
+        return "[" + CLOCK.format(Instant.ofEpochMilli(time)) + "] [" + thread + "/" + level + "]"
+                + (logger.isEmpty() ? "" : " [" + logger + "]") + ": " + message;
+    }
+}
@@ -0,0 +1,161 @@
+package core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lee la salida de todas las instancias del juego desde un único hilo.
+ * El juego escribe stdout/stderr a archivos (nunca se bloquea por un pipe lleno) y este
+ * hilo los sigue cada {@value #TICK_MS} ms, parsea las líneas nuevas y las publica.
+ */
+final class LogPump {
+    private static final long TICK_MS = 50;
+    private static final int MAX_BYTES_PER_TICK = 1 << 20;
+
+    private static final LogPump INSTANCE = new LogPump();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "mc-log-pump");
+        t.setDaemon(true);
+        return t;
+    });
+    private final List<Watched> watched = new CopyOnWriteArrayList<>();
+
+    private LogPump() {
+        scheduler.scheduleWithFixedDelay(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    static LogPump get() {
+        return INSTANCE;
+    }
+
+    ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /** Empieza a seguir la salida de la instancia; al terminar el proceso hace un último vaciado. */
+    void attach(GameInstance gi, Path stdoutFile, Path stderrFile) {
+        Watched w = new Watched(gi, new Tail(stdoutFile, false), new Tail(stderrFile, true));
+        watched.add(w);
+        gi.process().onExit().thenRun(() -> scheduler.execute(() -> {
+            try {
+                w.out.pump(gi, Integer.MAX_VALUE);
+                w.err.pump(gi, Integer.MAX_VALUE);
+                w.out.flushPartial(gi);
+                w.err.flushPartial(gi);
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            } finally {
+                // pase lo que pase con el último vaciado, onExit() tiene que completarse
+                w.out.close();
+                w.err.close();
+                watched.remove(w);
+                gi.finish(gi.process().exitValue());
+            }
+        }));
+    }
+
+    /**
+     * Un error con una instancia no puede escaparse: cancelaría el scheduleWithFixedDelay y
+     * dejaría sin salida a todas las demás.
+     */
+    private void tick() {
+        for (Watched w : watched) {
+            try {
+                w.out.pump(w.instance, MAX_BYTES_PER_TICK);
+                w.err.pump(w.instance, MAX_BYTES_PER_TICK);
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private record Watched(GameInstance instance, Tail out, Tail err) {
+    }
+
+    /** Sigue un archivo que crece, cortando en líneas. */
+    private static final class Tail {
+        private static final Charset CHARSET = nativeCharset();
+
+        private final Path file;
+        private final GameLogParser parser;
+        private final ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+        private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+        private FileChannel ch;
+        private long pos;
+
+        Tail(Path file, boolean stderr) {
+            this.file = file;
+            this.parser = new GameLogParser(stderr);
+        }
+
+        void pump(GameInstance gi, int maxBytes) {
+            try {
+                if (ch == null) {
+                    if (!Files.exists(file)) return;
+                    ch = FileChannel.open(file, StandardOpenOption.READ);
+                }
+                int total = 0;
+                while (total < maxBytes) {
+                    buf.clear();
+                    int r = ch.read(buf, pos);
+                    if (r <= 0) break;
+                    pos += r;
+                    total += r;
+                    byte[] a = buf.array();
+                    int start = 0;
+                    for (int i = 0; i < r; i++) {
+                        if (a[i] == '\n') {
+                            partial.write(a, start, i - start);
+                            emit(gi);
+                            start = i + 1;
+                        }
+                    }
+                    partial.write(a, start, r - start);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        void flushPartial(GameInstance gi) {
+            if (partial.size() > 0) emit(gi);
+        }
+
+        private void emit(GameInstance gi) {
+            String line = partial.toString(CHARSET);
+            partial.reset();
+            if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+            gi.publish(parser.parse(line));
+        }
+
+        void close() {
+            if (ch != null) {
+                try { ch.close(); } catch (IOException ignored) {}
+                ch = null;
+            }
+            // la sesión ya tiene todos los eventos; los archivos crudos sobran
+            try { Files.deleteIfExists(file); } catch (IOException ignored) {}
+        }
+
+        private static Charset nativeCharset() {
+            // con la salida redirigida a archivo, la JVM del juego escribe en la codificación nativa
+            String enc = System.getProperty("native.encoding");
+            try {
+                if (enc != null) return Charset.forName(enc);
+            } catch (Exception ignored) {
+            }
+            return Charset.defaultCharset();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Caché de nativos (LWJGL, jinput, etc.) direccionada por contenido.
+ * Cada jar de nativos se extrae una sola vez en cache/natives/{os}-{arch}/{sha1}-{excl}/
+ * ({excl}: hash de las exclusiones de "extract", que cambian lo extraído) y la carpeta
+ * <ver>-natives de cada versión se arma con enlaces a esa caché.
+ */
+public class NativesManager {
+    private static final List<String> DEFAULT_EXCLUDES = List.of("META-INF/");
+
+    private final Path cacheRoot;
+
+    /** Un jar de nativos aplicable al sistema actual. */
+    public record NativeArtifact(String classifier, String url, String sha1, List<String> excludes) {
+    }
+
+    /**
+     * @param mcBaseDir Carpeta .minecraft; la caché vive en cache/natives
+     */
+    public NativesManager(Path mcBaseDir) {
+        this.cacheRoot = mcBaseDir.resolve("cache").resolve("natives");
+    }
+
+    /** Nombre del SO como lo usa el JSON de versión: windows, linux u osx. */
+    public static String osName() {
+        String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        if (os.contains("win")) return "windows";
+        if (os.contains("mac") || os.contains("darwin")) return "osx";
+        return "linux";
+    }
+
+    /** Arquitectura normalizada: x64, x86 o arm64. */
+    public static String archName() {
+        String arch = System.getProperty("os.arch").toLowerCase(Locale.ROOT);
+        if (arch.equals("aarch64") || arch.equals("arm64")) return "arm64";
+        if (arch.contains("64")) return "x64";
+        return "x86";
+    }
+
+    /**
+     * Elige el classifier de nativos de la librería para este SO/arquitectura.
+     * Usa el mapa "natives" del JSON si existe; si no, busca natives-{os} entre los classifiers.
+     * Las librerías cuyas reglas excluyen este sistema no tienen nativos: si no, en 1.8.9 los
+     * de lwjgl 2.9.2 (solo macOS) y 2.9.4 se pisarían en la carpeta de nativos.
+     *
+     * @return el artefacto a descargar/extraer, o null si la librería no tiene nativos aplicables
+     */
+    public NativeArtifact selectNative(VersionDetails.Library lib) {
+        if (!Rules.applies(lib)) return null;
+        var dls = lib.getDownloads();
+        if (dls == null || dls.getClassifiers() == null || dls.getClassifiers().isEmpty()) return null;
+        Map<String, VersionDetails.Library.Downloads.Artifact> classifiers = dls.getClassifiers();
+
+        String classifier = null;
+        if (lib.getNatives() != null) {
+            String c = lib.getNatives().get(osName());
+            if (c != null) {
+                classifier = c.replace("${arch}", archName().equals("x86") ? "32" : "64");
+            }
+        } else {
+            String base = "natives-" + osName();
+            String withArch = base + "-" + archName();
+            if (classifiers.containsKey(withArch)) classifier = withArch;
+            else if (classifiers.containsKey(base)) classifier = base;
+        }
+        if (classifier == null) return null;
+
+        var art = classifiers.get(classifier);
+        if (art == null || art.getUrl() == null || art.getSha1() == null) return null;
+
+        List<String> excludes = (lib.getExtract() != null && lib.getExtract().getExclude() != null)
+                ? lib.getExtract().getExclude()
+                : DEFAULT_EXCLUDES;
+        return new NativeArtifact(classifier, art.getUrl(), art.getSha1().toLowerCase(Locale.ROOT), excludes);
+    }
+
+    /** Carpeta de caché del artefacto (puede no existir todavía). */
+    public Path cacheDirFor(NativeArtifact artifact) {
+        return cacheRoot.resolve(osName() + "-" + archName())
+                .resolve(artifact.sha1() + "-" + excludesKey(artifact.excludes()));
+    }
+
+    /** 8 hex del SHA-1 de las exclusiones (sin importar el orden). */
+    private static String excludesKey(List<String> excludes) {
+        List<String> sorted = new ArrayList<>(excludes);
+        Collections.sort(sorted);
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-1")
+                    .digest(String.join("\n", sorted).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(d, 0, 4);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Devuelve la carpeta de caché del jar, extrayéndolo si todavía no está.
+     * La extracción va a una carpeta temporal que se renombra al final, así una
+     * extracción interrumpida nunca queda como válida.
+     * <p>
+     * Los archivos quedan planos (solo el nombre, como los busca java.library.path). Si dos
+     * entradas de carpetas distintas tienen el mismo nombre, gana la primera en el orden del
+     * jar: se decide antes de repartir el trabajo, así el resultado no depende de los hilos.
+     */
+    public Path extract(Path nativeJar, NativeArtifact artifact) throws IOException {
+        Path target = cacheDirFor(artifact);
+        if (Files.isDirectory(target)) return target;
+
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempDirectory(target.getParent(), artifact.sha1() + ".tmp-");
+        try (ZipFile zip = new ZipFile(nativeJar.toFile());
+             Tasks.Scope scope = Tasks.Scope.cpu()) {
+            Map<String, ZipEntry> byName = new LinkedHashMap<>();
+            for (ZipEntry e : zip.stream().toList()) {
+                if (e.isDirectory() || isExcluded(e.getName(), artifact.excludes())) continue;
+                byName.putIfAbsent(Paths.get(e.getName()).getFileName().toString(), e);
+            }
+            // ZipFile admite lecturas concurrentes: cada entrada (descomprimir es CPU) va al pool acotado
+            for (Map.Entry<String, ZipEntry> e : byName.entrySet()) {
+                scope.fork(() -> {
+                    try (InputStream in = zip.getInputStream(e.getValue())) {
+                        Files.copy(in, tmp.resolve(e.getKey()));
+                    }
+                    return null;
+                });
+            }
+            scope.join();
+        } catch (Exception ex) {
+            deleteTree(tmp);
+            if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+            if (ex instanceof IOException io) throw io;
+            if (ex instanceof RuntimeException r) throw r;
+            throw new IOException("No se pudieron extraer los nativos de " + nativeJar.getFileName(), ex);
+        }
+
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException raced) {
+            // otra instalación lo extrajo primero
+            deleteTree(tmp);
+        } catch (IOException ex) {
+            if (!Files.isDirectory(target)) throw ex;
+            deleteTree(tmp);
+        }
+        return target;
+    }
+
+    /**
+     * Arma la carpeta de nativos de una versión enlazando los archivos de la caché.
+     * Intenta hard link, luego symlink y por último copia.
+     */
+    public void materialize(List<Path> cacheDirs, Path nativesDir) throws IOException {
+        deleteTree(nativesDir);
+        Files.createDirectories(nativesDir);
+
+        for (Path dir : cacheDirs) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path src : ds) {
+                    Path link = nativesDir.resolve(src.getFileName().toString());
+                    Files.deleteIfExists(link);
+                    linkOrCopy(src, link);
+                }
+            }
+        }
+    }
+
+    private static void linkOrCopy(Path src, Path link) throws IOException {
+        try {
+            Files.createLink(link, src);
+            return;
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+        try {
+            Files.createSymbolicLink(link, src.toAbsolutePath());
+            return;
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+        Files.copy(src, link, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static boolean isExcluded(String name, List<String> excludes) {
+        for (String ex : excludes) {
+            if (name.startsWith(ex)) return true;
+        }
+        return false;
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        List<Path> all = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(all::add);
+        }
+        for (Path p : all) {
+            try { Files.delete(p); } catch (IOException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Descarga en segundo plano, cuando el launcher está ocioso, lo imprescindible para lanzar
+ * las versiones que probablemente se van a instalar (la última release, la elegida en el
+ * combo, las de los perfiles): JSON de la versión, librerías, nativos y jar del cliente. Los
+ * assets no se bajan: los objetos son la mayor parte del volumen, y el índice lo vuelve a pedir
+ * la instalación de todos modos.
+ * <p>
+ * El JSON va a la caché de {@link VersionManager}; librerías, nativos y cliente a cache/prefetch/
+ * hasta que {@link VersionInstaller#install} los mueve a su lugar. Así todo lo bajado por
+ * adelantado está en una sola carpeta y el límite de disco lo cuenta entero.
+ * Respeta un límite de ancho de banda y de disco, y se retira en cuanto se llama a
+ * {@link #pause()} (instalación o lanzamiento reales).
+ */
+public class Prefetcher {
+    /** Espera tras arrancar o reanudar antes de usar la red. */
+    static final long IDLE_DELAY_MS = 10_000;
+    private static final int CHUNK = 64 * 1024;
+
+    private final Path mcBaseDir;
+    private final VersionManager versionManager;
+    private final NativesManager nativesManager;
+    private final long maxBytesPerSecond;
+    private final long maxDiskBytes;
+    private final HttpClient http = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Deque<String> queue = new ArrayDeque<>();
+    private final Set<String> done = new HashSet<>();
+    private int pauses;
+    private long resumedAt = System.currentTimeMillis();
+    private long usedBytes = -1;
+    private Thread worker;
+
+    /** Se lanza dentro de una descarga cuando alguien pidió {@link #pause()}. */
+    private static class Preempted extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        Preempted() {
+            super("prefetch interrumpido");
+        }
+    }
+
+    /**
+     * @param maxBytesPerSecond Límite de ancho de banda (0 = sin límite)
+     * @param maxDiskBytes      Máximo que puede ocupar lo descargado por adelantado
+     */
+    public Prefetcher(Path mcBaseDir, VersionManager versionManager, NativesManager nativesManager,
+                      long maxBytesPerSecond, long maxDiskBytes) {
+        this.mcBaseDir = mcBaseDir;
+        this.versionManager = versionManager;
+        this.nativesManager = nativesManager;
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.maxDiskBytes = maxDiskBytes;
+    }
+
+    /** Arranca el hilo de fondo (prioridad mínima, daemon). */
+    public synchronized void start() {
+        if (worker != null) return;
+        worker = new Thread(this::run, "mc-prefetch");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    /**
+     * Pide prefetch de una versión. Las más recientes se atienden primero;
+     * las que ya están instaladas o descargadas se ignoran.
+     */
+    public synchronized void request(String versionId) {
+        if (versionId == null || done.contains(versionId)) return;
+        if (Files.exists(mcBaseDir.resolve("versions").resolve(versionId).resolve(versionId + ".jar"))) return;
+        queue.remove(versionId);
+        queue.addFirst(versionId);
+        notifyAll();
+    }
+
+    /** Detiene el prefetch (la descarga en curso se corta). Admite llamadas anidadas. */
+    public synchronized void pause() {
+        pauses++;
+    }
+
+    /** Deshace un {@link #pause()}; se retoma tras {@link #IDLE_DELAY_MS} sin actividad. */
+    public synchronized void resume() {
+        if (pauses > 0) pauses--;
+        resumedAt = System.currentTimeMillis();
+        notifyAll();
+    }
+
+    private synchronized boolean paused() {
+        return pauses > 0;
+    }
+
+    /** Espera hasta que haya algo en la cola y el launcher esté ocioso. */
+    private synchronized String next() throws InterruptedException {
+        while (true) {
+            long idleFor = System.currentTimeMillis() - resumedAt;
+            if (pauses > 0 || queue.isEmpty()) {
+                wait();
+            } else if (idleFor < IDLE_DELAY_MS) {
+                wait(IDLE_DELAY_MS - idleFor);
+            } else {
+                return queue.peekFirst();
+            }
+        }
+    }
+
+    private synchronized void finished(String versionId) {
+        queue.remove(versionId);
+        done.add(versionId);
+    }
+
+    private void run() {
+        while (true) {
+            String ver;
+            try {
+                ver = next();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            try {
+                prefetch(ver);
+                finished(ver);
+            } catch (Preempted ex) {
+                // queda en la cola; se retoma al reanudar
+            } catch (Exception ex) {
+                // sin red, versión rara, límite de disco...: no se reintenta en esta sesión
+                ex.printStackTrace();
+                finished(ver);
+            }
+        }
+    }
+
+    private void prefetch(String ver) throws Exception {
+        if (!versionManager.hasManifest() && !versionManager.loadCachedManifest()) versionManager.fetchManifest();
+        if (paused()) throw new Preempted();
+        // el JSON es chico: lo baja (y cachea por SHA-1) el VersionManager
+        VersionDetails det = mapper.readValue(versionManager.versionJson(ver).toFile(), VersionDetails.class);
+
+        for (var lib : det.getLibraries()) {
+            if (!Rules.applies(lib)) continue;
+            var dls = lib.getDownloads();
+            if (dls != null && dls.getArtifact() != null
+                    && dls.getArtifact().getUrl() != null && dls.getArtifact().getSha1() != null) {
+                fetchLibrary(dls.getArtifact().getUrl(), dls.getArtifact().getSha1());
+            }
+            NativesManager.NativeArtifact nat = nativesManager.selectNative(lib);
+            if (nat != null && !Files.isDirectory(nativesManager.cacheDirFor(nat))) {
+                fetchLibrary(nat.url(), nat.sha1());
+            }
+        }
+
+        var cd = det.getClientDownload();
+        if (cd != null && cd.getSha1() != null) {
+            Path client = prefetchedClient(mcBaseDir, cd.getSha1());
+            if (!Files.exists(client)) fetch(cd.getUrl(), client, cd.getSha1());
+        }
+    }
+
+    /** Una librería que no está ni en libraries/ (la instaló otra versión) ni ya prefetcheada. */
+    private void fetchLibrary(String url, String sha1) throws Exception {
+        Path installed = libraryPath(url);
+        Path prefetched = prefetchedLibrary(mcBaseDir, installed);
+        if (!Files.exists(installed) && !Files.exists(prefetched)) fetch(url, prefetched, sha1);
+    }
+
+    /**
+     * Descarga a un .tmp al ritmo permitido, verifica el SHA-1 y mueve al destino.
+     * Corta con {@link Preempted} en cuanto se pausa.
+     */
+    private void fetch(String url, Path target, String sha1) throws Exception {
+        if (paused()) throw new Preempted();
+        if (diskUsed() >= maxDiskBytes) throw new IOException("límite de disco alcanzado");
+
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        HttpRequest req = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        HttpResponse<InputStream> resp = http.send(req, HttpResponse.BodyHandlers.ofInputStream());
+        MessageDigest md = MessageDigest.getInstance("SHA-1");
+        long bytes = 0;
+        long t0 = System.nanoTime();
+        try (InputStream in = resp.body(); OutputStream out = Files.newOutputStream(tmp)) {
+            if (resp.statusCode() != 200) throw new IOException("HTTP " + resp.statusCode() + " en " + url);
+            byte[] buf = new byte[CHUNK];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                if (paused()) throw new Preempted();
+                out.write(buf, 0, n);
+                md.update(buf, 0, n);
+                bytes += n;
+                throttle(bytes, t0);
+            }
+        } catch (Exception ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+
+        if (sha1 != null && !HexFormat.of().formatHex(md.digest()).equalsIgnoreCase(sha1)) {
+            Files.deleteIfExists(tmp);
+            throw new IOException("SHA-1 no coincide: " + url);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (this) {
+            usedBytes += bytes;
+        }
+    }
+
+    /** Duerme lo necesario para no pasar de maxBytesPerSecond en promedio. */
+    private void throttle(long bytes, long t0) throws InterruptedException {
+        if (maxBytesPerSecond <= 0) return;
+        long expectedNanos = bytes * 1_000_000_000L / maxBytesPerSecond;
+        long ahead = expectedNanos - (System.nanoTime() - t0);
+        if (ahead > 1_000_000) Thread.sleep(ahead / 1_000_000);
+    }
+
+    /**
+     * Bytes ocupados por lo descargado por adelantado: lo que hay en cache/prefetch al arrancar
+     * más lo que se bajó en esta sesión. Lo que una instalación ya se llevó de esta sesión
+     * sigue contando hasta el próximo arranque.
+     */
+    private synchronized long diskUsed() throws IOException {
+        if (usedBytes < 0) {
+            usedBytes = 0;
+            Path dir = prefetchDir(mcBaseDir);
+            if (Files.isDirectory(dir)) {
+                try (Stream<Path> walk = Files.walk(dir)) {
+                    for (Path p : (Iterable<Path>) walk.filter(Files::isRegularFile)::iterator) {
+                        usedBytes += Files.size(p);
+                    }
+                }
+            }
+        }
+        return usedBytes;
+    }
+
+    private Path libraryPath(String url) throws IOException {
+        try {
+            String p = new URI(url).getPath();
+            return mcBaseDir.resolve("libraries").resolve(Paths.get(p.startsWith("/") ? p.substring(1) : p));
+        } catch (URISyntaxException ex) {
+            throw new IOException("URL inválida: " + url, ex);
+        }
+    }
+
+    // ===== ubicaciones compartidas con VersionInstaller =====
+
+    static Path prefetchDir(Path mcBaseDir) {
+        return mcBaseDir.resolve("cache").resolve("prefetch");
+    }
+
+    static Path prefetchedClient(Path mcBaseDir, String sha1) {
+        return prefetchDir(mcBaseDir).resolve(sha1 + ".jar");
+    }
+
+    /**
+     * Dónde queda el prefetch de {@code library} (una ruta bajo libraries/), con la misma
+     * ruta relativa bajo cache/prefetch/libraries/; null si no está bajo libraries/.
+     */
+    static Path prefetchedLibrary(Path mcBaseDir, Path library) {
+        Path libs = mcBaseDir.resolve("libraries");
+        if (!library.startsWith(libs)) return null;
+        return prefetchDir(mcBaseDir).resolve("libraries").resolve(libs.relativize(library));
+    }
+}
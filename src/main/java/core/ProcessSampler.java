@@ -0,0 +1,138 @@
+package core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Muestrea CPU, RSS, hilos y E/S del proceso del juego a baja frecuencia.
+ * El tiempo de CPU sale de {@link ProcessHandle.Info}; el resto de /proc/{pid}
+ * (solo Linux; en otros SO esos valores quedan en -1).
+ * Cada muestra va a la {@link ResourceSeries} de la instancia y a resources.csv en la sesión.
+ */
+final class ProcessSampler {
+    static final long PERIOD_MS = 1000;
+    static final String CSV_FILE = "resources.csv";
+    static final String CSV_HEADER = "time,cpu_nanos,cpu_percent,rss_bytes,threads,read_bytes,write_bytes";
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "mc-sampler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ProcessHandle handle;
+    private final ResourceSeries series;
+    private final Path csvFile;
+    private final Path procDir;
+    private BufferedWriter csv;
+    private ScheduledFuture<?> task;
+    private Sample prev;
+
+    private record Sample(long time, long cpuNanos) {
+    }
+
+    private ProcessSampler(ProcessHandle handle, ResourceSeries series, Path csvFile) {
+        this.handle = handle;
+        this.series = series;
+        this.csvFile = csvFile;
+        Path proc = Path.of("/proc", String.valueOf(handle.pid()));
+        this.procDir = Files.isDirectory(proc) ? proc : null;
+    }
+
+    /** Empieza a muestrear; se detiene solo cuando el proceso termina. */
+    static void watch(ProcessHandle handle, ResourceSeries series, Path csvFile) {
+        ProcessSampler s = new ProcessSampler(handle, series, csvFile);
+        s.task = SCHEDULER.scheduleAtFixedRate(s::sample, 0, PERIOD_MS, TimeUnit.MILLISECONDS);
+        handle.onExit().thenRun(() -> SCHEDULER.execute(s::stop));
+    }
+
+    private void sample() {
+        if (!handle.isAlive()) return;
+        long now = System.currentTimeMillis();
+        long cpu = handle.info().totalCpuDuration().map(Duration::toNanos).orElse(-1L);
+
+        double pct = -1;
+        if (prev != null && cpu >= 0 && prev.cpuNanos() >= 0 && now > prev.time()) {
+            pct = (cpu - prev.cpuNanos()) / 1e6 * 100.0 / (now - prev.time());
+        }
+        prev = new Sample(now, cpu);
+
+        long rss = -1, readBytes = -1, writeBytes = -1;
+        int threads = -1;
+        if (procDir != null) {
+            try {
+                for (String line : Files.readAllLines(procDir.resolve("status"))) {
+                    if (line.startsWith("VmRSS:")) rss = firstNumber(line) * 1024;
+                    else if (line.startsWith("Threads:")) threads = (int) firstNumber(line);
+                }
+            } catch (IOException | RuntimeException ignored) {
+            }
+            try {
+                // read_bytes/write_bytes: lo que llegó al disco. rchar/wchar cuentan toda llamada
+                // read/write, pipes y sockets incluidos, y no sirven para ver E/S de disco
+                List<String> io = Files.readAllLines(procDir.resolve("io"));
+                for (String line : io) {
+                    if (line.startsWith("read_bytes:")) readBytes = firstNumber(line);
+                    else if (line.startsWith("write_bytes:")) writeBytes = firstNumber(line);
+                }
+            } catch (IOException | RuntimeException ignored) {
+                // sin permiso o sin contabilidad de E/S en el kernel: quedan en -1
+            }
+        }
+
+        ResourceSeries.Sample s = new ResourceSeries.Sample(now, cpu, pct, rss, threads, readBytes, writeBytes);
+        series.add(s);
+        writeCsv(s);
+    }
+
+    private void writeCsv(ResourceSeries.Sample s) {
+        try {
+            if (csv == null) {
+                boolean fresh = !Files.exists(csvFile);
+                csv = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if (fresh) {
+                    csv.write(CSV_HEADER);
+                    csv.newLine();
+                }
+            }
+            csv.write(toCsv(s));
+            csv.newLine();
+            csv.flush();
+        } catch (IOException ignored) {
+        }
+    }
+
+    static String toCsv(ResourceSeries.Sample s) {
+        return String.format(Locale.ROOT, "%d,%d,%.1f,%d,%d,%d,%d",
+                s.time(), s.cpuNanos(), s.cpuPercent(), s.rssBytes(), s.threads(), s.readBytes(), s.writeBytes());
+    }
+
+    private void stop() {
+        if (task != null) task.cancel(false);
+        if (csv != null) {
+            try { csv.close(); } catch (IOException ignored) {}
+            csv = null;
+        }
+    }
+
+    /** Toma el primer número de una línea "Clave:   123 kB". */
+    private static long firstNumber(String line) {
+        int i = line.indexOf(':') + 1;
+        while (i < line.length() && !Character.isDigit(line.charAt(i))) i++;
+        int j = i;
+        while (j < line.length() && Character.isDigit(line.charAt(j))) j++;
+        return Long.parseLong(line.substring(i, j));
+    }
+}
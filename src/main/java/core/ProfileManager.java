@@ -1,10 +1,9 @@
 package core;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
 
-import java.io.IOException;
-import java.nio.file.*;
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -34,51 +33,51 @@ public class ProfileManager {
         public void setRamMb(int ramMb) { this.ramMb = ramMb; }
     }
 
-    private final Path file;
-    private final ObjectMapper mapper = new ObjectMapper();
+    /** Ráfagas de cambios (p.ej. varios guardados seguidos) se escriben una sola vez. */
+    private static final long WRITE_DELAY_MS = 300;
+
+    private final JsonStore store;
     private Map<String, Profile> profiles = new LinkedHashMap<>();
 
     public ProfileManager(Path mcBaseDir) {
-        this.file = mcBaseDir.resolve(PROFILES_FILE);
+        this.store = new JsonStore(mcBaseDir.resolve(PROFILES_FILE), WRITE_DELAY_MS);
         load();
     }
 
     /** Carga perfiles desde disk, o deja vacío si no existe */
-    public void load() {
-        try {
-            if (Files.exists(file)) {
-                profiles = mapper.readValue(file.toFile(),
-                        mapper.getTypeFactory()
-                                .constructMapType(LinkedHashMap.class, String.class, Profile.class));
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            profiles = new LinkedHashMap<>();
-        }
+    public synchronized void load() {
+        Map<String, Profile> loaded = store.read(new TypeReference<LinkedHashMap<String, Profile>>() {});
+        profiles = (loaded != null) ? loaded : new LinkedHashMap<>();
     }
 
-    /** Guarda el map de perfiles en JSON */
-    public void save() {
-        try {
-            Files.createDirectories(file.getParent());
-            mapper.writerWithDefaultPrettyPrinter()
-                    .writeValue(file.toFile(), profiles);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    /** Programa el guardado del map de perfiles en JSON (ver {@link JsonStore}) */
+    public synchronized void save() {
+        Map<String, Profile> copy = new LinkedHashMap<>();
+        profiles.forEach((k, p) -> copy.put(k, new Profile(p.getName(), p.getVersionId(), p.getRamMb())));
+        store.save(copy);
+    }
+
+    /** Escribe ya los cambios pendientes (p.ej. al cerrar). */
+    public void flush() {
+        store.flush();
+    }
+
+    /** Escribe lo pendiente y suelta el archivo (ver {@link JsonStore#close()}). */
+    public void close() {
+        store.close();
     }
 
-    /** El mapa ordenado de perfiles (clave = profile name) */
-    public Map<String, Profile> getProfiles() {
-        return profiles;
+    /** Copia del mapa ordenado de perfiles (clave = profile name) */
+    public synchronized Map<String, Profile> getProfiles() {
+        return new LinkedHashMap<>(profiles);
     }
 
-    public void addOrUpdate(Profile p) {
+    public synchronized void addOrUpdate(Profile p) {
         profiles.put(p.getName(), p);
         save();
     }
 
-    public void remove(String name) {
+    public synchronized void remove(String name) {
         profiles.remove(name);
         save();
     }
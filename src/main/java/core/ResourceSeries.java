@@ -0,0 +1,57 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serie de tiempo de tamaño fijo con las muestras de recursos de una instancia.
+ * Cuando se llena, la muestra nueva pisa a la más vieja.
+ */
+public class ResourceSeries {
+
+    /**
+     * Una muestra del proceso del juego. Los valores que el SO no expone valen -1.
+     *
+     * @param time       Epoch millis
+     * @param cpuNanos   Tiempo de CPU acumulado (usuario + sistema)
+     * @param cpuPercent CPU usada desde la muestra anterior (100 = un núcleo completo)
+     * @param rssBytes   Memoria residente
+     * @param threads    Cantidad de hilos
+     * @param readBytes  Bytes leídos del disco, acumulados (read_bytes de /proc/{pid}/io)
+     * @param writeBytes Bytes escritos al disco, acumulados (write_bytes de /proc/{pid}/io)
+     */
+    public record Sample(long time, long cpuNanos, double cpuPercent, long rssBytes,
+                         int threads, long readBytes, long writeBytes) {
+    }
+
+    private final Sample[] ring;
+    private int next;
+    private int size;
+
+    public ResourceSeries(int capacity) {
+        this.ring = new Sample[capacity];
+    }
+
+    public synchronized void add(Sample s) {
+        ring[next] = s;
+        next = (next + 1) % ring.length;
+        if (size < ring.length) size++;
+    }
+
+    /** La muestra más reciente, o null si todavía no hay. */
+    public synchronized Sample last() {
+        return size == 0 ? null : ring[(next - 1 + ring.length) % ring.length];
+    }
+
+    /** Copia de las muestras, de la más vieja a la más nueva. */
+    public synchronized List<Sample> snapshot() {
+        List<Sample> out = new ArrayList<>(size);
+        int start = (next - size + ring.length) % ring.length;
+        for (int i = 0; i < size; i++) out.add(ring[(start + i) % ring.length]);
+        return out;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+}
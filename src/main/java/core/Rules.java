@@ -0,0 +1,77 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Las reglas "rules" del JSON de versión: las de cada argumento (1.13+) y las de cada
+ * librería. Las librerías las usan para que cada SO baje solo lo suyo. Por ejemplo, 1.8.9
+ * trae lwjgl 2.9.2 solo para macOS y 2.9.4 para el resto.
+ * <p>
+ * Como en el launcher oficial, la última regla que coincide decide, y sin ninguna que
+ * coincida no se permite. Una lista vacía o ausente siempre permite.
+ */
+final class Rules {
+
+    /** Una regla "allow"/"disallow" con sus condiciones; las que faltan no restringen. */
+    record Rule(boolean allow, String os, String arch, Pattern osVersion, Map<String, Boolean> features) {
+        boolean matches(ArgumentTemplate.Environment env) {
+            if (os != null && !os.equals(env.os())) return false;
+            if (arch != null && !arch.equals(env.arch())) return false;
+            if (osVersion != null && (env.osVersion() == null || !osVersion.matcher(env.osVersion()).find())) return false;
+            if (features != null) {
+                for (Map.Entry<String, Boolean> f : features.entrySet()) {
+                    if (env.features().contains(f.getKey()) != f.getValue()) return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final Rule[] NONE = new Rule[0];
+
+    // las librerías no dependen de features: el sistema actual alcanza
+    private static final ArgumentTemplate.Environment HOST = ArgumentTemplate.Environment.current(Set.of());
+
+    private Rules() {
+    }
+
+    /** Parsea la lista "rules" tal como la deja Jackson (mapas y strings). */
+    @SuppressWarnings("unchecked")
+    static Rule[] parse(List<?> raw) {
+        if (raw == null || raw.isEmpty()) return NONE;
+        List<Rule> out = new ArrayList<>();
+        for (Object o : raw) {
+            if (!(o instanceof Map<?, ?> m)) continue;
+            boolean allow = !"disallow".equals(m.get("action"));
+            String os = null, arch = null;
+            Pattern version = null;
+            if (m.get("os") instanceof Map<?, ?> osm) {
+                os = (String) osm.get("name");
+                arch = (String) osm.get("arch");
+                if (osm.get("version") instanceof String v) version = Pattern.compile(v);
+            }
+            Map<String, Boolean> features = (m.get("features") instanceof Map<?, ?> f)
+                    ? (Map<String, Boolean>) f : null;
+            out.add(new Rule(allow, os, arch, version, features));
+        }
+        return out.toArray(NONE);
+    }
+
+    static boolean allowed(Rule[] rules, ArgumentTemplate.Environment env) {
+        if (rules.length == 0) return true;
+        boolean allowed = false;
+        for (Rule r : rules) {
+            if (r.matches(env)) allowed = r.allow();
+        }
+        return allowed;
+    }
+
+    /** true si la librería corresponde a este sistema (o no tiene reglas). */
+    static boolean applies(VersionDetails.Library lib) {
+        return allowed(lib.getCompiledRules(), HOST);
+    }
+}
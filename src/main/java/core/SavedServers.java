@@ -0,0 +1,101 @@
+package core;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lista de servidores guardada por el juego (servers.dat, NBT sin comprimir).
+ * Solo se lee: el juego es el que la edita.
+ */
+public final class SavedServers {
+    public static final String FILE = "servers.dat";
+
+    private SavedServers() {
+    }
+
+    /** Servidores guardados en el orden del juego; vacío si no hay archivo o no se pudo leer. */
+    @SuppressWarnings("unchecked")
+    public static List<ServerMonitor.Server> read(Path mcBaseDir) {
+        List<ServerMonitor.Server> out = new ArrayList<>();
+        Path file = mcBaseDir.resolve(FILE);
+        if (!Files.isRegularFile(file)) return out;
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file))) {
+            // versiones muy viejas lo guardaban con gzip
+            raw.mark(2);
+            boolean gzip = raw.read() == 0x1f && raw.read() == 0x8b;
+            raw.reset();
+            DataInputStream in = new DataInputStream(gzip ? new GZIPInputStream(raw) : raw);
+            if (in.readByte() != TAG_COMPOUND) return out;
+            in.readUTF();
+            Map<String, Object> root = (Map<String, Object>) readPayload(in, TAG_COMPOUND, 0);
+            if (!(root.get("servers") instanceof List<?> servers)) return out;
+            for (Object o : servers) {
+                if (!(o instanceof Map<?, ?> s) || !(s.get("ip") instanceof String ip) || ip.isBlank()) continue;
+                String name = (s.get("name") instanceof String n && !n.isBlank()) ? n : ip;
+                try {
+                    out.add(new ServerMonitor.Server(name, ServerPinger.Address.parse(ip)));
+                } catch (RuntimeException ignored) {
+                    // dirección que no se entiende: se saltea
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            ex.printStackTrace();
+        }
+        return out;
+    }
+
+    // ===== NBT mínimo =====
+
+    private static final byte TAG_END = 0, TAG_BYTE = 1, TAG_SHORT = 2, TAG_INT = 3, TAG_LONG = 4,
+            TAG_FLOAT = 5, TAG_DOUBLE = 6, TAG_BYTE_ARRAY = 7, TAG_STRING = 8, TAG_LIST = 9,
+            TAG_COMPOUND = 10, TAG_INT_ARRAY = 11, TAG_LONG_ARRAY = 12;
+    private static final int MAX_DEPTH = 64;
+
+    private static Object readPayload(DataInputStream in, byte type, int depth) throws IOException {
+        if (depth > MAX_DEPTH) throw new IOException("NBT demasiado anidado");
+        switch (type) {
+            case TAG_BYTE: return in.readByte();
+            case TAG_SHORT: return in.readShort();
+            case TAG_INT: return in.readInt();
+            case TAG_LONG: return in.readLong();
+            case TAG_FLOAT: return in.readFloat();
+            case TAG_DOUBLE: return in.readDouble();
+            case TAG_BYTE_ARRAY: in.skipNBytes(length(in)); return null;
+            case TAG_STRING: return in.readUTF();
+            case TAG_LIST: {
+                byte elem = in.readByte();
+                int n = length(in);
+                List<Object> list = new ArrayList<>(Math.min(n, 1024));
+                for (int i = 0; i < n; i++) list.add(readPayload(in, elem, depth + 1));
+                return list;
+            }
+            case TAG_COMPOUND: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                byte t;
+                while ((t = in.readByte()) != TAG_END) {
+                    String name = in.readUTF();
+                    map.put(name, readPayload(in, t, depth + 1));
+                }
+                return map;
+            }
+            case TAG_INT_ARRAY: in.skipNBytes(4L * length(in)); return null;
+            case TAG_LONG_ARRAY: in.skipNBytes(8L * length(in)); return null;
+            default: throw new IOException("tag NBT desconocido: " + type);
+        }
+    }
+
+    private static int length(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) throw new IOException("largo NBT negativo");
+        return n;
+    }
+}
@@ -0,0 +1,293 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Actualización del propio launcher desde las releases de GitHub.
+ * <p>
+ * Si la release publica un parche ({@link BinaryDelta}) contra el jar instalado, se baja solo
+ * eso y se arma el jar nuevo localmente; si no, o si el parche falla, se baja el instalador
+ * completo. Las descargas quedan en {@code cache/update/<tag>/} y se retoman con
+ * {@code Range} si se cortan (incluso entre reinicios). Nada se entrega sin comparar antes su
+ * SHA-256 con el publicado: el {@code digest} que GitHub informa por asset o, si falta, la
+ * línea correspondiente de un asset {@value #SUMS_ASSET}.
+ * <p>
+ * Convención de nombres de los assets de una release:
+ * <ul>
+ *   <li>{@code *.exe}: instalador completo</li>
+ *   <li>{@code *-from-<sha256 del jar base, 16 hex>.ydelta}: parche desde ese jar</li>
+ *   <li>{@value #SUMS_ASSET} (opcional): {@code <sha256>  <nombre>} por línea</li>
+ * </ul>
+ */
+public class SelfUpdater {
+    public static final String LATEST_URL = "https://api.github.com/repos/Alenkpo1/YaguaLauncher/releases/latest";
+    public static final String DELTA_SUFFIX = ".ydelta";
+    public static final String SUMS_ASSET = "SHA256SUMS";
+    private static final int DOWNLOAD_ATTEMPTS = 4;
+
+    public record Asset(String name, String url, long size, String sha256) {
+    }
+
+    public record Release(String tag, List<Asset> assets) {
+        public Optional<Asset> installer() {
+            return assets.stream().filter(a -> a.name().toLowerCase(Locale.ROOT).endsWith(".exe")).findFirst();
+        }
+
+        public Optional<Asset> deltaFrom(String baseSha256) {
+            String suffix = "-from-" + baseSha256.substring(0, 16).toLowerCase(Locale.ROOT) + DELTA_SUFFIX;
+            return assets.stream().filter(a -> a.name().toLowerCase(Locale.ROOT).endsWith(suffix)).findFirst();
+        }
+    }
+
+    /** Lo que hay que instalar: un jar ya parcheado que reemplaza al actual, o el instalador. */
+    public record Update(String tag, Path file, boolean jar) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(7))
+            .build();
+    private final String latestUrl;
+    private final Path cacheDir;
+
+    /** @param cacheDir Carpeta para la respuesta cacheada de la API y las descargas a medias */
+    public SelfUpdater(Path cacheDir) {
+        this(LATEST_URL, cacheDir);
+    }
+
+    public SelfUpdater(String latestUrl, Path cacheDir) {
+        this.latestUrl = latestUrl;
+        this.cacheDir = cacheDir;
+    }
+
+    public static Path cacheDir(Path mcBaseDir) {
+        return mcBaseDir.resolve("cache").resolve("update");
+    }
+
+    /**
+     * Última release. La consulta es condicional ({@code If-None-Match} con el ETag anterior):
+     * si no cambió, GitHub responde 304 sin cuerpo y no cuenta contra el límite de la API.
+     */
+    public Release fetchLatest() throws IOException, InterruptedException {
+        Path body = cacheDir.resolve("latest-release.json");
+        Path etag = cacheDir.resolve("latest-release.etag");
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(latestUrl))
+                .timeout(Duration.ofSeconds(10))
+                .header("Accept", "application/vnd.github+json");
+        if (Files.isRegularFile(body) && Files.isRegularFile(etag)) {
+            req.header("If-None-Match", Files.readString(etag).trim());
+        }
+        HttpResponse<byte[]> resp = http.send(req.build(), HttpResponse.BodyHandlers.ofByteArray());
+        byte[] json;
+        if (resp.statusCode() == 304) {
+            json = Files.readAllBytes(body);
+        } else if (resp.statusCode() == 200) {
+            json = resp.body();
+            Files.createDirectories(cacheDir);
+            writeAtomically(body, json);
+            Optional<String> tag = resp.headers().firstValue("ETag");
+            if (tag.isPresent()) writeAtomically(etag, tag.get().getBytes(StandardCharsets.UTF_8));
+            else Files.deleteIfExists(etag);
+        } else {
+            throw new IOException("GitHub API respondió HTTP " + resp.statusCode());
+        }
+        return parseRelease(JsonStore.MAPPER.readTree(json));
+    }
+
+    private Release parseRelease(JsonNode root) throws IOException, InterruptedException {
+        String tag = root.path("tag_name").asText("");
+        if (tag.isEmpty()) throw new IOException("No se encontró tag_name");
+        List<Asset> assets = new ArrayList<>();
+        String sumsUrl = null;
+        for (JsonNode a : root.path("assets")) {
+            String name = a.path("name").asText();
+            String url = a.path("browser_download_url").asText();
+            if (name.equals(SUMS_ASSET)) sumsUrl = url;
+            String digest = a.path("digest").asText("");
+            String sha = digest.startsWith("sha256:") ? digest.substring(7).toLowerCase(Locale.ROOT) : null;
+            assets.add(new Asset(name, url, a.path("size").asLong(-1), sha));
+        }
+        if (sumsUrl != null && assets.stream().anyMatch(a -> a.sha256() == null)) {
+            Map<String, String> sums = fetchSums(sumsUrl);
+            assets.replaceAll(a -> a.sha256() != null ? a
+                    : new Asset(a.name(), a.url(), a.size(), sums.get(a.name())));
+        }
+        return new Release(tag, assets);
+    }
+
+    private Map<String, String> fetchSums(String url) throws IOException, InterruptedException {
+        HttpResponse<String> resp = http.send(HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() != 200) throw new IOException(SUMS_ASSET + ": HTTP " + resp.statusCode());
+        Map<String, String> out = new HashMap<>();
+        for (String line : resp.body().split("\\R")) {
+            String[] parts = line.trim().split("\\s+\\*?", 2);
+            if (parts.length == 2 && parts[0].length() == 64) out.put(parts[1], parts[0].toLowerCase(Locale.ROOT));
+        }
+        return out;
+    }
+
+    /**
+     * Deja lista la actualización: primero intenta el parche contra {@code installedJar} (si no
+     * es null y la release trae uno para ese jar) y si no, baja el instalador completo.
+     */
+    public Update prepare(Release release, Path installedJar, VersionInstaller.ProgressListener progress)
+            throws IOException, InterruptedException {
+        Path dir = cacheDir.resolve(safeName(release.tag()));
+        Files.createDirectories(dir);
+        dropOtherReleases(dir);
+
+        if (installedJar != null && Files.isRegularFile(installedJar)) {
+            Optional<Asset> delta = release.deltaFrom(BinaryDelta.sha256Hex(installedJar));
+            if (delta.isPresent()) {
+                try {
+                    Path patch = download(delta.get(), dir, progress);
+                    progress.onProgress("Aplicando parche…", 0, 1);
+                    Path jar = dir.resolve(installedJar.getFileName());
+                    BinaryDelta.apply(installedJar, patch, jar);
+                    progress.onProgress("Parche aplicado", 1, 1);
+                    return new Update(release.tag(), jar, true);
+                } catch (IOException ex) {
+                    // el instalador completo sigue siendo una salida válida
+                    ex.printStackTrace();
+                }
+            }
+        }
+        Asset installer = release.installer()
+                .orElseThrow(() -> new IOException("No se encontró ningún asset .exe en la release " + release.tag()));
+        return new Update(release.tag(), download(installer, dir, progress), false);
+    }
+
+    /**
+     * Baja un asset a {@code dir} retomando lo que haya de un intento anterior, y verifica su
+     * SHA-256 contra el publicado. Si el hash no coincide, borra lo bajado y falla.
+     */
+    public Path download(Asset asset, Path dir, VersionInstaller.ProgressListener progress)
+            throws IOException, InterruptedException {
+        if (asset.sha256() == null) {
+            throw new IOException("La release no publica el SHA-256 de " + asset.name());
+        }
+        Path dest = dir.resolve(safeName(asset.name()));
+        if (Files.isRegularFile(dest) && asset.sha256().equals(BinaryDelta.sha256Hex(dest))) return dest;
+        Path part = dir.resolve(dest.getFileName() + ".part");
+
+        IOException last = null;
+        for (int attempt = 0; attempt < DOWNLOAD_ATTEMPTS; attempt++) {
+            if (attempt > 0) Thread.sleep(1000L << (attempt - 1));
+            try {
+                fetchRemaining(asset, part, progress);
+                last = null;
+                break;
+            } catch (IOException ex) {
+                last = ex;   // lo ya escrito en .part se aprovecha en el próximo intento
+            }
+        }
+        if (last != null) throw last;
+
+        if (!asset.sha256().equals(BinaryDelta.sha256Hex(part))) {
+            Files.deleteIfExists(part);
+            throw new IOException("Integridad fallida (SHA-256) para " + asset.name());
+        }
+        Files.move(part, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return dest;
+    }
+
+    private void fetchRemaining(Asset asset, Path part, VersionInstaller.ProgressListener progress)
+            throws IOException, InterruptedException {
+        long have = Files.isRegularFile(part) ? Files.size(part) : 0;
+        if (asset.size() >= 0 && have > asset.size()) {
+            Files.delete(part);
+            have = 0;
+        }
+        if (asset.size() >= 0 && have == asset.size()) return;
+
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(asset.url()))
+                .timeout(Duration.ofSeconds(30));
+        if (have > 0) req.header("Range", "bytes=" + have + "-");
+        HttpResponse<InputStream> resp = http.send(req.build(), HttpResponse.BodyHandlers.ofInputStream());
+        int status = resp.statusCode();
+        boolean append = status == 206;
+        try (InputStream in = resp.body()) {
+            if (status == 416) {
+                // el servidor dice que ya no queda nada: lo bajado está completo o es basura
+                Files.deleteIfExists(part);
+                throw new IOException("Rango inválido al retomar " + asset.name());
+            }
+            if (status != 200 && status != 206) throw new IOException("HTTP " + status + " al bajar " + asset.name());
+            if (!append) have = 0;   // el servidor ignoró el Range: se empieza de cero
+
+            long total = asset.size() >= 0 ? asset.size() : have + resp.headers().firstValueAsLong("Content-Length").orElse(0);
+            try (OutputStream out = Files.newOutputStream(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+                byte[] buf = new byte[64 * 1024];
+                long lastReport = 0;
+                int r;
+                while ((r = in.read(buf)) > 0) {
+                    out.write(buf, 0, r);
+                    have += r;
+                    if (have - lastReport >= 256 * 1024 || have == total) {
+                        progress.onProgress("Descargando " + asset.name() + "…", have, total);
+                        lastReport = have;
+                    }
+                }
+            }
+        }
+        if (asset.size() >= 0 && have < asset.size()) {
+            throw new IOException("Descarga incompleta de " + asset.name() + " (" + have + "/" + asset.size() + ")");
+        }
+    }
+
+    /** Jar desde el que corre el launcher, o null si no corre desde un jar (IDE, clases sueltas). */
+    public static Path currentJar() {
+        try {
+            Path p = Path.of(SelfUpdater.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return Files.isRegularFile(p) && p.toString().toLowerCase(Locale.ROOT).endsWith(".jar") ? p : null;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private void dropOtherReleases(Path keep) {
+        try (Stream<Path> dirs = Files.list(cacheDir)) {
+            for (Path d : dirs.filter(Files::isDirectory).filter(d -> !d.equals(keep)).toList()) {
+                try (Stream<Path> files = Files.list(d)) {
+                    for (Path f : files.toList()) Files.deleteIfExists(f);
+                }
+                Files.deleteIfExists(d);
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static String safeName(String s) {
+        return s.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static void writeAtomically(Path file, byte[] data) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, data);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,146 @@
+package core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Pingea periódicamente una lista de servidores, todos a la vez, y guarda las últimas
+ * {@value #HISTORY} latencias de cada uno. Una ronda termina cuando respondieron todos
+ * (o venció su timeout); la siguiente arranca {@code periodMs} después, así que las
+ * rondas nunca se pisan.
+ */
+public class ServerMonitor implements AutoCloseable {
+    public static final int HISTORY = 30;
+
+    public record Server(String name, ServerPinger.Address address) {
+    }
+
+    /** Estado de un servidor: el último ping y el historial de latencias (solo los que respondieron). */
+    public static final class Entry {
+        private final Server server;
+        private final long[] latencies = new long[HISTORY];
+        private int next, size;
+        private volatile ServerPinger.Status last;
+
+        Entry(Server server) {
+            this.server = server;
+        }
+
+        public Server getServer() {
+            return server;
+        }
+
+        /** null hasta que termine el primer ping. */
+        public ServerPinger.Status getLast() {
+            return last;
+        }
+
+        synchronized void record(ServerPinger.Status s) {
+            last = s;
+            if (!s.online()) return;
+            latencies[next] = s.latencyMs();
+            next = (next + 1) % HISTORY;
+            if (size < HISTORY) size++;
+        }
+
+        /** Latencias en ms, de la más vieja a la más nueva. */
+        public synchronized long[] history() {
+            long[] out = new long[size];
+            int start = (next - size + HISTORY) % HISTORY;
+            for (int i = 0; i < size; i++) out[i] = latencies[(start + i) % HISTORY];
+            return out;
+        }
+
+        /** Mediana del historial, o -1 si nunca respondió. */
+        public long medianLatency() {
+            long[] h = history();
+            if (h.length == 0) return -1;
+            Arrays.sort(h);
+            return h[h.length / 2];
+        }
+    }
+
+    private final ServerPinger pinger;
+    private final Supplier<List<Server>> servers;
+    private final long periodMs;
+    private final Consumer<Entry> listener;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "server-monitor");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<ServerPinger.Address, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * @param servers  Se consulta en cada ronda (la lista guardada puede cambiar mientras tanto)
+     * @param listener Recibe cada resultado apenas llega, desde un hilo de fondo
+     */
+    public ServerMonitor(ServerPinger pinger, Supplier<List<Server>> servers, long periodMs, Consumer<Entry> listener) {
+        this.pinger = pinger;
+        this.servers = servers;
+        this.periodMs = periodMs;
+        this.listener = listener;
+    }
+
+    public ServerMonitor(Supplier<List<Server>> servers, long periodMs, long timeoutMs,
+                         Consumer<Entry> listener) throws IOException {
+        this(new ServerPinger(timeoutMs), servers, periodMs, listener);
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                pingAll().join();
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }, 0, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Una ronda: pingea todos los servidores a la vez. */
+    public CompletableFuture<Void> pingAll() {
+        List<Entry> round = new ArrayList<>();
+        synchronized (entries) {
+            Map<ServerPinger.Address, Entry> keep = new LinkedHashMap<>();
+            for (Server s : servers.get()) {
+                Entry e = entries.get(s.address());
+                keep.putIfAbsent(s.address(), (e != null && e.server.equals(s)) ? e : new Entry(s));
+            }
+            entries.clear();
+            entries.putAll(keep);
+            round.addAll(keep.values());
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[round.size()];
+        for (int i = 0; i < futures.length; i++) {
+            Entry e = round.get(i);
+            futures[i] = pinger.ping(e.server.address()).thenAccept(status -> {
+                e.record(status);
+                listener.accept(e);
+            });
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    /** Servidores de la última ronda, en el orden de la lista. */
+    public List<Entry> entries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries.values());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        pinger.close();
+    }
+}
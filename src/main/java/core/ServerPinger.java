@@ -0,0 +1,448 @@
+package core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import javax.naming.Context;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cliente del Server List Ping de Minecraft (1.7+): handshake, pedido de estado y ping/pong,
+ * todo sobre NIO. Un solo hilo con un Selector atiende todas las conexiones, así que pingear
+ * la lista entera a la vez no crea un hilo por servidor.
+ * <p>
+ * "Online" significa que el servidor respondió el estado; un puerto abierto que no habla el
+ * protocolo cuenta como offline. La latencia es la del ping/pong (como la mide el juego).
+ * Los nombres sin puerto se resuelven con el registro SRV {@code _minecraft._tcp.<host>}.
+ */
+public class ServerPinger implements AutoCloseable {
+    public static final int DEFAULT_PORT = 25565;
+
+    /** Con -1 el servidor contesta igual: es lo que se manda para averiguar su versión. */
+    private static final int PROTOCOL_VERSION = -1;
+    private static final int MAX_PACKET = 2 * 1024 * 1024;
+    private static final long SRV_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    /** Dirección tal como la escribe el usuario ("host" o "host:puerto"). */
+    public record Address(String host, int port, boolean explicitPort) {
+        public static Address parse(String s) {
+            String t = s.trim();
+            int colon = t.lastIndexOf(':');
+            boolean ipv6 = t.startsWith("[");
+            if (ipv6) {
+                int close = t.indexOf(']');
+                String host = t.substring(1, close);
+                if (close + 1 < t.length() && t.charAt(close + 1) == ':') {
+                    return new Address(host, Integer.parseInt(t.substring(close + 2)), true);
+                }
+                return new Address(host, DEFAULT_PORT, false);
+            }
+            if (colon > 0 && t.indexOf(':') == colon) {
+                return new Address(t.substring(0, colon), Integer.parseInt(t.substring(colon + 1)), true);
+            }
+            return new Address(t, DEFAULT_PORT, false);
+        }
+
+        @Override
+        public String toString() {
+            String h = host.contains(":") ? "[" + host + "]" : host;
+            return explicitPort || port != DEFAULT_PORT ? h + ":" + port : h;
+        }
+    }
+
+    /**
+     * Resultado de un ping. Si el servidor no respondió, online es false y error dice por qué;
+     * los campos del estado valen null/-1.
+     *
+     * @param address   Lo que se pidió pingear
+     * @param resolved  A dónde se conectó (después del SRV)
+     * @param latencyMs Ida y vuelta del ping/pong (o del pedido de estado si no contesta el ping)
+     * @param motd      Descripción sin códigos de formato (§)
+     */
+    public record Status(Address address, Address resolved, boolean online, long latencyMs,
+                         String version, int protocol, int playersOnline, int playersMax,
+                         String motd, String error, long time) {
+        static Status offline(Address address, Address resolved, String error) {
+            return new Status(address, resolved, false, -1, null, -1, -1, -1, null, error,
+                    System.currentTimeMillis());
+        }
+    }
+
+    private record SrvEntry(Address target, long expires) {
+    }
+
+    private static final Map<String, SrvEntry> SRV_CACHE = new ConcurrentHashMap<>();
+
+    private final long timeoutMs;
+    private final UnaryOperator<Address> resolver;
+    private final Selector selector;
+    private final Queue<Conn> pending = new ConcurrentLinkedQueue<>();
+    private final Thread loop;
+    private volatile boolean open = true;
+
+    public ServerPinger(long timeoutMs) throws IOException {
+        this(timeoutMs, ServerPinger::resolveSrv);
+    }
+
+    /**
+     * @param resolver Traduce la dirección pedida a la de conexión (por defecto, SRV). Pasar
+     *                 {@code UnaryOperator.identity()} para apuntar a un servidor local de prueba.
+     */
+    public ServerPinger(long timeoutMs, UnaryOperator<Address> resolver) throws IOException {
+        this.timeoutMs = timeoutMs;
+        this.resolver = resolver;
+        this.selector = Selector.open();
+        this.loop = new Thread(this::run, "server-ping");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    /**
+     * Pingea una dirección; el futuro nunca falla: los errores vuelven como estado offline.
+     * Después de {@link #close()} se completa enseguida como offline ("cerrado").
+     */
+    public CompletableFuture<Status> ping(Address address) {
+        if (!open) return CompletableFuture.completedFuture(Status.offline(address, address, "cerrado"));
+        CompletableFuture<Status> result = new CompletableFuture<>();
+        // SRV y DNS bloquean: se resuelven fuera del hilo del selector
+        CompletableFuture.runAsync(() -> {
+            Address target = address;
+            try {
+                target = resolver.apply(address);
+                InetSocketAddress socket = new InetSocketAddress(target.host(), target.port());
+                if (socket.isUnresolved()) {
+                    result.complete(Status.offline(address, target, "host desconocido"));
+                    return;
+                }
+                pending.add(new Conn(address, target, socket, result));
+                // si el loop ya terminó (o está vaciando la cola), nadie más va a atender este pedido
+                if (!open) failPending();
+                selector.wakeup();
+            } catch (RuntimeException ex) {
+                result.complete(Status.offline(address, target, String.valueOf(ex.getMessage())));
+            }
+        }, Tasks.io());
+        return result;
+    }
+
+    /** Como {@link #ping(Address)}; una dirección mal escrita (p.ej. "host:abc") vuelve offline. */
+    public CompletableFuture<Status> ping(String address) {
+        Address parsed;
+        try {
+            parsed = Address.parse(address);
+        } catch (RuntimeException ex) {
+            Address raw = new Address(address.trim(), DEFAULT_PORT, false);
+            return CompletableFuture.completedFuture(Status.offline(raw, raw, "dirección inválida"));
+        }
+        return ping(parsed);
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        selector.wakeup();
+    }
+
+    private void failPending() {
+        Conn c;
+        while ((c = pending.poll()) != null) c.fail("cerrado");
+    }
+
+    // ===== SRV =====
+
+    /** Busca _minecraft._tcp.&lt;host&gt; si no se indicó puerto; si no hay registro, deja la dirección igual. */
+    public static Address resolveSrv(Address address) {
+        if (address.explicitPort() || isIpLiteral(address.host())) return address;
+        String key = address.host().toLowerCase();
+        SrvEntry cached = SRV_CACHE.get(key);
+        if (cached != null && cached.expires() > System.currentTimeMillis()) return cached.target();
+
+        Address target = address;
+        Hashtable<String, String> env = new Hashtable<>();
+        env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.dns.DnsContextFactory");
+        env.put("com.sun.jndi.dns.timeout.initial", "2000");
+        env.put("com.sun.jndi.dns.timeout.retries", "1");
+        try {
+            DirContext ctx = new InitialDirContext(env);
+            try {
+                Attribute srv = ctx.getAttributes("_minecraft._tcp." + address.host(), new String[]{"SRV"}).get("SRV");
+                int best = Integer.MAX_VALUE;
+                for (int i = 0; srv != null && i < srv.size(); i++) {
+                    // "prioridad peso puerto destino."
+                    String[] p = srv.get(i).toString().trim().split("\\s+");
+                    if (p.length < 4 || Integer.parseInt(p[0]) >= best) continue;
+                    best = Integer.parseInt(p[0]);
+                    String host = p[3].endsWith(".") ? p[3].substring(0, p[3].length() - 1) : p[3];
+                    target = new Address(host, Integer.parseInt(p[2]), true);
+                }
+            } finally {
+                ctx.close();
+            }
+        } catch (NamingException | NumberFormatException ignored) {
+            // sin registro SRV (lo normal) o DNS sin respuesta: host y puerto por defecto
+        }
+        SRV_CACHE.put(key, new SrvEntry(target, System.currentTimeMillis() + SRV_TTL_MS));
+        return target;
+    }
+
+    private static boolean isIpLiteral(String host) {
+        return host.contains(":") || host.chars().allMatch(c -> c == '.' || Character.isDigit(c));
+    }
+
+    // ===== loop NIO =====
+
+    private void run() {
+        try {
+            while (open) {
+                selector.select(250);
+                Conn c;
+                while ((c = pending.poll()) != null) c.start();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey k = it.next();
+                    it.remove();
+                    ((Conn) k.attachment()).handle(k);
+                }
+                long now = System.nanoTime();
+                for (SelectionKey k : selector.keys()) {
+                    Conn conn = (Conn) k.attachment();
+                    if (conn != null && now > conn.deadline) conn.fail("sin respuesta en " + timeoutMs + " ms");
+                }
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        } finally {
+            for (SelectionKey k : selector.keys()) {
+                if (k.attachment() instanceof Conn conn) conn.fail("cerrado");
+            }
+            failPending();
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+            // un ping() que encoló mientras se cerraba (lo vuelve a mirar él mismo al ver !open)
+            failPending();
+        }
+    }
+
+    /** Una conexión: conectar → handshake + pedido de estado → estado → ping → pong. */
+    private final class Conn {
+        private final Address address;
+        private final Address target;
+        private final InetSocketAddress socket;
+        private final CompletableFuture<Status> result;
+        private final long deadline;
+        private SocketChannel channel;
+        private ByteBuffer out;
+        private ByteBuffer in = ByteBuffer.allocate(8 * 1024);
+        private JsonNode status;
+        private long requestSentAt;
+        private long statusRttNanos;
+        private long pingSentAt;
+
+        Conn(Address address, Address target, InetSocketAddress socket, CompletableFuture<Status> result) {
+            this.address = address;
+            this.target = target;
+            this.socket = socket;
+            this.result = result;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        }
+
+        void start() {
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                boolean connected = channel.connect(socket);
+                SelectionKey key = channel.register(selector, connected ? 0 : SelectionKey.OP_CONNECT, this);
+                if (connected) connected(key);
+            } catch (IOException ex) {
+                fail(ex.getMessage());
+            }
+        }
+
+        void handle(SelectionKey key) {
+            try {
+                if (key.isConnectable() && channel.finishConnect()) connected(key);
+                if (key.isValid() && key.isWritable()) write(key);
+                if (key.isValid() && key.isReadable()) read(key);
+            } catch (IOException | RuntimeException ex) {
+                fail(ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+            }
+        }
+
+        private void connected(SelectionKey key) throws IOException {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            // handshake (0x00): protocolo, host, puerto, siguiente estado = 1 (status)
+            ByteArrayOutputStream hs = new ByteArrayOutputStream();
+            writeVarInt(hs, 0x00);
+            writeVarInt(hs, PROTOCOL_VERSION);
+            writeString(hs, target.host());
+            hs.write((target.port() >> 8) & 0xFF);
+            hs.write(target.port() & 0xFF);
+            writeVarInt(hs, 1);
+            writePacket(buf, hs.toByteArray());
+            // pedido de estado (0x00, vacío)
+            writePacket(buf, new byte[]{0x00});
+            send(key, buf.toByteArray());
+            requestSentAt = System.nanoTime();
+        }
+
+        private void send(SelectionKey key, byte[] data) throws IOException {
+            out = ByteBuffer.wrap(data);
+            write(key);
+        }
+
+        private void write(SelectionKey key) throws IOException {
+            channel.write(out);
+            key.interestOps(out.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            if (!in.hasRemaining()) {
+                if (in.capacity() >= MAX_PACKET) throw new IOException("respuesta demasiado grande");
+                in = ByteBuffer.allocate(Math.min(MAX_PACKET, in.capacity() * 4)).put(in.flip());
+            }
+            if (channel.read(in) < 0) {
+                // algunos servidores cierran en vez de contestar el ping: alcanza con el estado
+                if (status != null) done(statusRttNanos / 1_000_000);
+                else fail("conexión cerrada sin respuesta");
+                return;
+            }
+            ByteBuffer packet;
+            while ((packet = nextPacket()) != null) {
+                int id = readVarInt(packet);
+                if (status == null && id == 0x00) {
+                    byte[] json = new byte[readVarInt(packet)];
+                    packet.get(json);
+                    status = JsonStore.MAPPER.readTree(json);
+                    statusRttNanos = System.nanoTime() - requestSentAt;
+                    // ping (0x01) con un long que el servidor devuelve tal cual
+                    ByteArrayOutputStream p = new ByteArrayOutputStream();
+                    writeVarInt(p, 0x01);
+                    long payload = System.currentTimeMillis();
+                    for (int s = 56; s >= 0; s -= 8) p.write((int) (payload >> s) & 0xFF);
+                    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+                    writePacket(buf, p.toByteArray());
+                    pingSentAt = System.nanoTime();
+                    send(key, buf.toByteArray());
+                } else if (status != null && id == 0x01) {
+                    done((System.nanoTime() - pingSentAt) / 1_000_000);
+                    return;
+                } else {
+                    throw new IOException("paquete inesperado 0x" + Integer.toHexString(id));
+                }
+            }
+        }
+
+        /** Saca del buffer un paquete completo (sin el largo), o null si falta llegar algo. */
+        private ByteBuffer nextPacket() throws IOException {
+            ByteBuffer view = in.duplicate().flip();
+            int len;
+            try {
+                len = readVarInt(view);
+            } catch (BufferUnderflowException e) {
+                return null;
+            }
+            if (len < 0 || len > MAX_PACKET) throw new IOException("largo de paquete inválido: " + len);
+            if (view.remaining() < len) return null;
+            ByteBuffer packet = view.slice(view.position(), len);
+            byte[] copy = new byte[len];
+            packet.get(copy);
+            in.flip().position(view.position() + len);
+            in.compact();
+            return ByteBuffer.wrap(copy);
+        }
+
+        private void done(long latencyMs) {
+            close();
+            JsonNode v = status.path("version");
+            JsonNode players = status.path("players");
+            result.complete(new Status(address, target, true, latencyMs,
+                    v.path("name").asText(null), v.path("protocol").asInt(-1),
+                    players.path("online").asInt(-1), players.path("max").asInt(-1),
+                    stripFormatting(chatText(status.get("description"))), null, System.currentTimeMillis()));
+        }
+
+        void fail(String error) {
+            close();
+            result.complete(Status.offline(address, target, error));
+        }
+
+        private void close() {
+            if (channel == null) return;
+            try {
+                channel.close();   // también cancela la key
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // ===== formato =====
+
+    static int readVarInt(ByteBuffer b) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte x = b.get();   // BufferUnderflowException si todavía no llegó entero
+            value |= (x & 0x7F) << shift;
+            if ((x & 0x80) == 0) return value;
+        }
+        throw new IOException("VarInt demasiado largo");
+    }
+
+    static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, b.length);
+        out.writeBytes(b);
+    }
+
+    private static void writePacket(ByteArrayOutputStream out, byte[] body) {
+        writeVarInt(out, body.length);
+        out.writeBytes(body);
+    }
+
+    /** Texto plano de un componente de chat: string, {"text", "extra": [...]} o lista. */
+    private static String chatText(JsonNode n) {
+        if (n == null || n.isNull()) return "";
+        if (n.isTextual()) return n.asText();
+        StringBuilder sb = new StringBuilder();
+        if (n.isArray()) {
+            for (JsonNode c : n) sb.append(chatText(c));
+            return sb.toString();
+        }
+        sb.append(n.path("text").asText(""));
+        for (JsonNode c : n.path("extra")) sb.append(chatText(c));
+        return sb.toString();
+    }
+
+    private static String stripFormatting(String s) {
+        return s.replaceAll("§.", "").trim();
+    }
+}
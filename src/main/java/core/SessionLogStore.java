@@ -0,0 +1,432 @@
+package core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacén en disco de los eventos de log de una sesión de juego.
+ * <p>
+ * Archivos dentro de logs/sessions/{id}/:
+ * <ul>
+ *   <li>events.dat: registros binarios append-only (tiempo, nivel, hilo, logger, mensaje UTF-8)</li>
+ *   <li>strings.txt: diccionario de nombres de hilo/logger (id = número de línea)</li>
+ *   <li>index.dat: columnas tiempo/nivel/logger/offset, escrito al cerrar</li>
+ * </ul>
+ * Las columnas viven en memoria como arrays primitivos y hay listas de posiciones por nivel
+ * y por logger, así que filtrar una sesión de cientos de miles de líneas no relee events.dat:
+ * solo se leen los registros que coinciden.
+ */
+public class SessionLogStore implements AutoCloseable {
+    private static final DateTimeFormatter SESSION_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int INDEX_MAGIC = 0x59474C49; // "YGLI"
+
+    private final Path dir;
+    private final Path eventsFile;
+    private final Path stringsFile;
+    private final Path indexFile;
+
+    // diccionario de hilos/loggers
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    // columnas (una posición por evento)
+    private final LongList times = new LongList();
+    private final LongList offsets = new LongList();
+    private final ByteList levels = new ByteList();
+    private final IntList loggers = new IntList();
+
+    // listas de posiciones por nivel y por logger
+    private final IntList[] byLevel = new IntList[LogEvent.Level.values().length];
+    private final Map<Integer, IntList> byLogger = new HashMap<>();
+
+    private final boolean readOnly;
+    private DataOutputStream out;
+    private DataOutputStream stringsOut;
+    private FileChannel reader;
+    private long writePos;
+    private long lastTime;
+
+    private SessionLogStore(Path dir, boolean readOnly) {
+        this.dir = dir;
+        this.eventsFile = dir.resolve("events.dat");
+        this.stringsFile = dir.resolve("strings.txt");
+        this.indexFile = dir.resolve("index.dat");
+        this.readOnly = readOnly;
+        for (int i = 0; i < byLevel.length; i++) byLevel[i] = new IntList();
+    }
+
+    /** Crea una sesión nueva en {sessionsRoot}/{yyyyMMdd-HHmmss}. */
+    public static SessionLogStore create(Path sessionsRoot) throws IOException {
+        String id = SESSION_ID.format(LocalDateTime.now());
+        Path dir = sessionsRoot.resolve(id);
+        for (int n = 1; Files.exists(dir); n++) dir = sessionsRoot.resolve(id + "-" + n);
+        Files.createDirectories(dir);
+
+        SessionLogStore s = new SessionLogStore(dir, false);
+        s.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(s.eventsFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 64 * 1024));
+        s.stringsOut = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(s.stringsFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)));
+        return s;
+    }
+
+    /**
+     * Abre una sesión existente para consultas. Usa index.dat si está completo;
+     * si la sesión no se cerró bien (crash), reconstruye el índice desde events.dat.
+     */
+    public static SessionLogStore open(Path sessionDir) throws IOException {
+        SessionLogStore s = new SessionLogStore(sessionDir, true);
+        if (Files.exists(s.stringsFile)) {
+            for (String name : Files.readAllLines(s.stringsFile, StandardCharsets.UTF_8)) {
+                s.stringIds.put(name, s.strings.size());
+                s.strings.add(name);
+            }
+        }
+        if (!s.loadIndex()) s.rebuildIndex();
+        return s;
+    }
+
+    /** Sesiones guardadas, de la más reciente a la más antigua. */
+    public static List<Path> listSessions(Path sessionsRoot) throws IOException {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(sessionsRoot)) return out;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(sessionsRoot, Files::isDirectory)) {
+            for (Path p : ds) out.add(p);
+        }
+        out.sort(Collections.reverseOrder());
+        return out;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    public synchronized int size() {
+        return times.size;
+    }
+
+    /** Agrega un evento. Thread-safe (stdout y stderr escriben a la vez). */
+    public synchronized void append(LogEvent ev) throws IOException {
+        if (readOnly) throw new IllegalStateException("Sesión abierta en solo lectura");
+        // el tiempo indexado es no decreciente para poder buscar por rango
+        long t = Math.max(ev.time(), lastTime);
+        lastTime = t;
+
+        int threadId = intern(ev.thread());
+        int loggerId = intern(ev.logger());
+        byte[] msg = ev.message().getBytes(StandardCharsets.UTF_8);
+        byte flags = (byte) ((ev.stderr() ? 1 : 0) | (ev.structured() ? 2 : 0));
+
+        // [len][time][level][flags][thread][logger][msg]
+        int len = 8 + 1 + 1 + 4 + 4 + msg.length;
+        out.writeInt(len);
+        out.writeLong(t);
+        out.writeByte(ev.level().ordinal());
+        out.writeByte(flags);
+        out.writeInt(threadId);
+        out.writeInt(loggerId);
+        out.write(msg);
+
+        index(t, (byte) ev.level().ordinal(), loggerId, writePos);
+        writePos += 4 + len;
+    }
+
+    /**
+     * Devuelve las posiciones de los eventos que cumplen el filtro, en orden.
+     *
+     * @param levelsFilter niveles aceptados (null = todos)
+     * @param loggerPrefix prefijo del nombre de logger (null o vacío = todos)
+     * @param fromMillis   tiempo mínimo inclusive (Long.MIN_VALUE = sin límite)
+     * @param toMillis     tiempo máximo exclusive (Long.MAX_VALUE = sin límite)
+     */
+    public synchronized int[] find(EnumSet<LogEvent.Level> levelsFilter, String loggerPrefix,
+                                   long fromMillis, long toMillis) {
+        int lo = lowerBound(times, fromMillis);
+        int hi = lowerBound(times, toMillis);
+        if (lo >= hi) return new int[0];
+
+        boolean[] levelOk = null;
+        if (levelsFilter != null && levelsFilter.size() < byLevel.length) {
+            levelOk = new boolean[byLevel.length];
+            for (LogEvent.Level l : levelsFilter) levelOk[l.ordinal()] = true;
+        }
+        boolean[] loggerOk = null;
+        List<Integer> loggerIds = null;
+        if (loggerPrefix != null && !loggerPrefix.isEmpty()) {
+            loggerOk = new boolean[strings.size()];
+            loggerIds = new ArrayList<>();
+            for (int i = 0; i < strings.size(); i++) {
+                if (strings.get(i).startsWith(loggerPrefix) && byLogger.containsKey(i)) {
+                    loggerOk[i] = true;
+                    loggerIds.add(i);
+                }
+            }
+            if (loggerIds.isEmpty()) return new int[0];
+        }
+
+        // lista de posiciones más selectiva como conductora; el resto se chequea contra las columnas
+        IntList driver = null;
+        if (levelsFilter != null && levelsFilter.size() == 1) {
+            driver = byLevel[levelsFilter.iterator().next().ordinal()];
+        }
+        if (loggerIds != null && loggerIds.size() == 1) {
+            IntList l = byLogger.get(loggerIds.get(0));
+            if (driver == null || l.size < driver.size) driver = l;
+        }
+
+        IntList result = new IntList();
+        if (driver != null) {
+            int from = lowerBound(driver, lo);
+            for (int k = from; k < driver.size; k++) {
+                int i = driver.data[k];
+                if (i >= hi) break;
+                if (matches(i, levelOk, loggerOk)) result.add(i);
+            }
+        } else {
+            for (int i = lo; i < hi; i++) {
+                if (matches(i, levelOk, loggerOk)) result.add(i);
+            }
+        }
+        return result.toArray();
+    }
+
+    /** Lee los eventos de las posiciones dadas (típicamente el resultado de {@link #find}). */
+    public synchronized List<LogEvent> read(int[] positions, int from, int count) throws IOException {
+        if (out != null) out.flush();
+        if (reader == null) reader = FileChannel.open(eventsFile, StandardOpenOption.READ);
+        List<LogEvent> evs = new ArrayList<>(Math.max(0, Math.min(count, positions.length - from)));
+        ByteBuffer lenBuf = ByteBuffer.allocate(4);
+        for (int k = from; k < positions.length && k < from + count; k++) {
+            long off = offsets.data[positions[k]];
+            lenBuf.clear();
+            readFully(reader, lenBuf, off);
+            ByteBuffer rec = ByteBuffer.allocate(lenBuf.getInt(0));
+            readFully(reader, rec, off + 4);
+            rec.flip();
+            evs.add(decode(rec));
+        }
+        return evs;
+    }
+
+    /** Cierra la escritura y persiste el índice. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            stringsOut.close();
+            out = null;
+            writeIndex();
+        }
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    // ===== internos =====
+
+    private boolean matches(int i, boolean[] levelOk, boolean[] loggerOk) {
+        if (levelOk != null && !levelOk[levels.data[i]]) return false;
+        return loggerOk == null || loggerOk[loggers.data[i]];
+    }
+
+    private void index(long t, byte level, int loggerId, long offset) {
+        int pos = times.size;
+        times.add(t);
+        levels.add(level);
+        loggers.add(loggerId);
+        offsets.add(offset);
+        byLevel[level].add(pos);
+        byLogger.computeIfAbsent(loggerId, k -> new IntList()).add(pos);
+    }
+
+    private int intern(String s) throws IOException {
+        String key = (s == null) ? "" : s.replace('\n', ' ').replace('\r', ' ');
+        Integer id = stringIds.get(key);
+        if (id != null) return id;
+        int nid = strings.size();
+        strings.add(key);
+        stringIds.put(key, nid);
+        stringsOut.write(key.getBytes(StandardCharsets.UTF_8));
+        stringsOut.write('\n');
+        return nid;
+    }
+
+    private LogEvent decode(ByteBuffer rec) {
+        long t = rec.getLong();
+        LogEvent.Level level = LogEvent.Level.values()[rec.get()];
+        byte flags = rec.get();
+        String thread = nameOf(rec.getInt());
+        String logger = nameOf(rec.getInt());
+        String msg = new String(rec.array(), rec.position(), rec.remaining(), StandardCharsets.UTF_8);
+        return new LogEvent(t, level, thread, logger, msg, (flags & 1) != 0, (flags & 2) != 0);
+    }
+
+    private String nameOf(int id) {
+        return (id >= 0 && id < strings.size()) ? strings.get(id) : "";
+    }
+
+    private void writeIndex() throws IOException {
+        Path tmp = indexFile.resolveSibling("index.dat.tmp");
+        try (DataOutputStream d = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            d.writeInt(INDEX_MAGIC);
+            d.writeInt(times.size);
+            d.writeLong(writePos);
+            for (int i = 0; i < times.size; i++) {
+                d.writeLong(times.data[i]);
+                d.writeLong(offsets.data[i]);
+                d.writeByte(levels.data[i]);
+                d.writeInt(loggers.data[i]);
+            }
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean loadIndex() throws IOException {
+        if (!Files.exists(indexFile) || !Files.exists(eventsFile)) return false;
+        try (DataInputStream d = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (d.readInt() != INDEX_MAGIC) return false;
+            int n = d.readInt();
+            long size = d.readLong();
+            if (size != Files.size(eventsFile)) return false;
+            for (int i = 0; i < n; i++) {
+                long t = d.readLong();
+                long off = d.readLong();
+                byte lvl = d.readByte();
+                int lg = d.readInt();
+                index(t, lvl, lg, off);
+            }
+            writePos = size;
+            return true;
+        } catch (EOFException e) {
+            clearIndex();
+            return false;
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        clearIndex();
+        if (!Files.exists(eventsFile)) return;
+        try (InputStream raw = Files.newInputStream(eventsFile);
+             DataInputStream d = new DataInputStream(new BufferedInputStream(raw, 64 * 1024))) {
+            long pos = 0;
+            while (true) {
+                int len;
+                try {
+                    len = d.readInt();
+                } catch (EOFException eof) {
+                    break;
+                }
+                byte[] rec = new byte[len];
+                try {
+                    d.readFully(rec);
+                } catch (EOFException truncated) {
+                    break; // registro a medio escribir al momento del crash
+                }
+                ByteBuffer b = ByteBuffer.wrap(rec);
+                long t = b.getLong();
+                byte lvl = b.get();
+                b.get();
+                b.getInt();
+                int lg = b.getInt();
+                index(t, lvl, lg, pos);
+                pos += 4 + len;
+            }
+            writePos = pos;
+        }
+    }
+
+    private void clearIndex() {
+        times.size = 0;
+        offsets.size = 0;
+        levels.size = 0;
+        loggers.size = 0;
+        for (IntList l : byLevel) l.size = 0;
+        byLogger.clear();
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int r = ch.read(buf, pos + buf.position());
+            if (r < 0) throw new EOFException("events.dat truncado");
+        }
+    }
+
+    private static int lowerBound(LongList a, long key) {
+        int lo = 0, hi = a.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a.data[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int lowerBound(IntList a, int key) {
+        int lo = 0, hi = a.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a.data[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Arrays crecientes de primitivos (evitan boxing en columnas de cientos de miles de filas)
+
+    private static final class IntList {
+        int[] data = new int[64];
+        int size;
+
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    private static final class LongList {
+        long[] data = new long[1024];
+        int size;
+
+        void add(long v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+    }
+
+    private static final class ByteList {
+        byte[] data = new byte[1024];
+        int size;
+
+        void add(byte v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tiempos del arranque del launcher: cada hito se mide en ms desde el inicio del proceso
+ * (incluye JVM y toolkit de JavaFX) o, si el sistema no lo informa, desde que se creó esto.
+ * <p>
+ * Los hitos se imprimen al marcarse; {@link #finish} agrega una línea por arranque a
+ * {@value #LOG_FILE} para seguir el tiempo hasta que la ventana responde contra
+ * {@value #BUDGET_MS} ms.
+ */
+public class StartupTimings {
+    public static final String LOG_FILE = "launcher-startup.log";
+    public static final long BUDGET_MS = 1000;
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final long t0 = System.nanoTime();
+    private final long offsetMs;
+    private final Map<String, Long> marks = new LinkedHashMap<>();
+    private boolean finished;
+
+    public StartupTimings() {
+        long sinceProcess = ProcessHandle.current().info().startInstant()
+                .map(i -> System.currentTimeMillis() - i.toEpochMilli())
+                .orElse(0L);
+        this.offsetMs = Math.max(0, sinceProcess);
+    }
+
+    /** Anota un hito; se puede llamar desde cualquier hilo. Repetir un hito no lo pisa. */
+    public synchronized long mark(String phase) {
+        long ms = offsetMs + (System.nanoTime() - t0) / 1_000_000;
+        if (marks.putIfAbsent(phase, ms) == null) {
+            System.out.println("[arranque] " + phase + ": " + ms + " ms");
+        }
+        return marks.get(phase);
+    }
+
+    public synchronized Map<String, Long> getMarks() {
+        return new LinkedHashMap<>(marks);
+    }
+
+    /**
+     * Marca el hito final (la ventana ya responde) y lo agrega al log. Solo la primera llamada
+     * escribe; el archivo se toca en el hilo que llama, así que no conviene que sea el FX.
+     */
+    public void finish(String phase, Path logFile) {
+        long total;
+        StringBuilder line = new StringBuilder(STAMP.format(LocalDateTime.now()));
+        synchronized (this) {
+            if (finished) return;
+            finished = true;
+            total = mark(phase);
+            marks.forEach((p, ms) -> line.append(' ').append(p).append('=').append(ms));
+        }
+        if (total > BUDGET_MS) {
+            System.out.println("[arranque] " + total + " ms: por encima de " + BUDGET_MS + " ms");
+        }
+        try {
+            Files.createDirectories(logFile.getParent());
+            Files.writeString(logFile, line.append(System.lineSeparator()), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package core;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hilos de fondo del launcher, en un solo lugar:
+ * <ul>
+ *   <li>{@link #io()}: un hilo virtual por tarea, para todo lo que espera (red, disco, procesos).
+ *       No hace falta limitarlo; lo que sí hay que limitar (conexiones simultáneas) lo limita
+ *       un {@link Scope}.</li>
+ *   <li>{@link #cpu()}: pocos hilos de plataforma para lo que quema CPU (hashes, decodificar
+ *       imágenes), así no le sacan núcleos al juego ni al hilo FX.</li>
+ * </ul>
+ * Para trabajos con subtareas está {@link Scope}: si una falla o se cancela el trabajo, se
+ * interrumpen todas las demás y nadie sale del scope con subtareas todavía corriendo.
+ */
+public final class Tasks {
+    public static final int CPU_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final ExecutorService IO = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("io-", 0).factory());
+    private static final ExecutorService CPU;
+    private static final ThreadLocal<Boolean> ON_CPU = ThreadLocal.withInitial(() -> false);
+
+    static {
+        AtomicInteger n = new AtomicInteger();
+        ThreadPoolExecutor cpu = new ThreadPoolExecutor(CPU_THREADS, CPU_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(() -> {
+                ON_CPU.set(true);
+                r.run();
+            }, "cpu-" + n.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        cpu.allowCoreThreadTimeOut(true);
+        CPU = cpu;
+    }
+
+    private Tasks() {
+    }
+
+    public static ExecutorService io() {
+        return IO;
+    }
+
+    public static ExecutorService cpu() {
+        return CPU;
+    }
+
+    /**
+     * Corre la tarea en {@link #cpu()} y espera el resultado: así un hilo de IO (p.ej. una
+     * descarga) no quema CPU calculando un hash. Si ya se está en un hilo del pool de CPU,
+     * corre en el lugar; si no, tareas del pool esperando a otras del pool lo podrían trabar.
+     * Si interrumpen al que espera, se cancela la tarea.
+     */
+    public static <T> T onCpu(Callable<T> task) throws Exception {
+        if (ON_CPU.get()) return task.call();
+        Future<T> f = CPU.submit(task);
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            f.cancel(true);
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable c = ex.getCause();
+            if (c instanceof Exception e) throw e;
+            if (c instanceof Error e) throw e;
+            throw ex;
+        }
+    }
+
+    /**
+     * Corre una tarea de fondo en un hilo virtual que lleva {@code name} mientras dura (para que
+     * se la reconozca en un volcado de hilos o en JFR). Se cancela con el {@link Future}.
+     */
+    public static Future<?> background(String name, Runnable task) {
+        return IO.submit(() -> {
+            Thread self = Thread.currentThread();
+            String old = self.getName();
+            self.setName(name);
+            try {
+                task.run();
+            } finally {
+                self.setName(old);
+            }
+        });
+    }
+
+    /**
+     * Grupo de subtareas con vida acotada al bloque que lo abre:
+     * <pre>
+     *   try (Tasks.Scope scope = Tasks.Scope.io(8)) {
+     *       for (...) scope.fork(() -> ...);
+     *       scope.join();   // lanza la primera falla
+     *   }
+     * </pre>
+     * La primera subtarea que falla cancela al resto; {@link #cancel()} hace lo mismo desde
+     * afuera. {@link #close()} no vuelve hasta que terminaron todas. Es lo mismo que
+     * {@code StructuredTaskScope.ShutdownOnFailure}, que en Java 21 todavía es preview.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final ExecutorService executor;
+        private final Semaphore permits;
+        // ReentrantLock y no synchronized: un hilo virtual esperando en wait() fija su carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition idle = lock.newCondition();
+        private final Set<Thread> threads = new HashSet<>();
+        private int running;
+        private Throwable failure;
+        private boolean cancelled;
+
+        /**
+         * @param maxParallel Subtareas corriendo a la vez como máximo; {@link #fork} espera
+         *                    lugar, así un bucle de miles de forks no los arranca todos juntos
+         */
+        public Scope(ExecutorService executor, int maxParallel) {
+            this.executor = executor;
+            this.permits = new Semaphore(Math.max(1, maxParallel));
+        }
+
+        public static Scope io(int maxParallel) {
+            return new Scope(IO, maxParallel);
+        }
+
+        public static Scope cpu() {
+            return new Scope(CPU, CPU_THREADS);
+        }
+
+        /**
+         * Arranca una subtarea. Si el scope ya falló o se canceló no arranca nada (el bucle que
+         * forkea puede seguir sin revisar; {@link #join} informa el motivo).
+         */
+        public <T> Future<T> fork(Callable<T> task) throws InterruptedException {
+            permits.acquire();
+            CompletableFuture<T> result = new CompletableFuture<>();
+            lock.lock();
+            try {
+                if (failure != null || cancelled) {
+                    permits.release();
+                    result.cancel(false);
+                    return result;
+                }
+                running++;
+            } finally {
+                lock.unlock();
+            }
+            executor.execute(() -> run(task, result));
+            return result;
+        }
+
+        private <T> void run(Callable<T> task, CompletableFuture<T> result) {
+            Thread self = Thread.currentThread();
+            try {
+                lock.lock();
+                try {
+                    // cancelado mientras esperaba turno en el pool: ni arranca
+                    if (failure != null || cancelled) {
+                        result.cancel(false);
+                        return;
+                    }
+                    threads.add(self);
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    result.complete(task.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                    fail(t);
+                } finally {
+                    lock.lock();
+                    try {
+                        threads.remove(self);
+                    } finally {
+                        lock.unlock();
+                    }
+                    Thread.interrupted();   // que el hilo del pool no quede marcado
+                }
+            } finally {
+                permits.release();
+                lock.lock();
+                try {
+                    if (--running == 0) idle.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Espera a todas las subtareas. Lanza la primera falla tal cual, o
+         * {@link CancellationException} si se canceló. Si interrumpen al que espera, cancela todo.
+         */
+        public void join() throws Exception {
+            Throwable t;
+            lock.lock();
+            try {
+                while (running > 0) {
+                    try {
+                        idle.await();
+                    } catch (InterruptedException ex) {
+                        cancel();
+                        throw ex;
+                    }
+                }
+                t = failure;
+                if (t == null && cancelled) throw new CancellationException();
+            } finally {
+                lock.unlock();
+            }
+            if (t instanceof Exception e) throw e;
+            if (t instanceof Error e) throw e;
+        }
+
+        /** Interrumpe todas las subtareas y no deja arrancar más. */
+        public void cancel() {
+            lock.lock();
+            try {
+                if (cancelled) return;
+                cancelled = true;
+                threads.forEach(Thread::interrupt);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isCancelled() {
+            lock.lock();
+            try {
+                return cancelled;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Cancela lo que quede y espera a que todo termine de verdad (sin dejar hilos sueltos). */
+        @Override
+        public void close() {
+            cancel();
+            lock.lock();
+            try {
+                while (running > 0) idle.awaitUninterruptibly();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void fail(Throwable t) {
+            lock.lock();
+            try {
+                // lo que falla después de cancelar es consecuencia de la cancelación
+                if (failure != null || cancelled) return;
+                failure = t;
+                threads.forEach(Thread::interrupt);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package core;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Miniaturas de screenshots guardadas en disco (cache/thumbnails). La clave es ruta + tamaño +
+ * fecha de modificación: si la imagen cambia, cambia la clave y se vuelve a generar.
+ * Decodificar un PNG 4K cuesta cientos de ms y decenas de MB; una miniatura ya hecha se lee
+ * en un instante.
+ * <p>
+ * No depende de JavaFX (usa ImageIO) y todo bloquea: se llama desde un hilo de fondo.
+ */
+public class ThumbnailCache {
+    private static final String EXT = ".jpg";
+
+    private final Path dir;
+    private final int width;
+
+    public ThumbnailCache(Path dir, int width) {
+        this.dir = dir;
+        this.width = width;
+    }
+
+    public static Path cacheDir(Path mcBaseDir) {
+        return mcBaseDir.resolve("cache").resolve("thumbnails");
+    }
+
+    /** Ruta de la miniatura de image, generándola si no estaba. */
+    public Path thumbnailFor(Path image) throws IOException {
+        Path thumb = dir.resolve(key(image) + EXT);
+        if (Files.isRegularFile(thumb)) return thumb;
+
+        BufferedImage src = decode(image);
+        if (src == null) throw new IOException("Formato de imagen no soportado: " + image);
+        BufferedImage scaled = scale(src);
+
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "thumb", ".tmp");
+        try {
+            if (!ImageIO.write(scaled, "jpg", tmp.toFile())) throw new IOException("No hay writer JPEG");
+            try {
+                Files.move(tmp, thumb, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, thumb, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return thumb;
+    }
+
+    /**
+     * Borra las miniaturas que no correspondan a ninguna de las imágenes dadas
+     * (screenshots borrados o modificados). Devuelve cuántas borró.
+     */
+    public int prune(Collection<Path> images) {
+        if (!Files.isDirectory(dir)) return 0;
+        Set<String> keep = new HashSet<>();
+        for (Path p : images) {
+            try {
+                keep.add(key(p) + EXT);
+            } catch (IOException ignored) {
+                // ya no existe: su miniatura también se va
+            }
+        }
+        int removed = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*" + EXT)) {
+            for (Path t : ds) {
+                if (keep.contains(t.getFileName().toString())) continue;
+                if (Files.deleteIfExists(t)) removed++;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return removed;
+    }
+
+    private static String key(Path image) throws IOException {
+        BasicFileAttributes a = Files.readAttributes(image, BasicFileAttributes.class);
+        String raw = image.toAbsolutePath() + "|" + a.size() + "|" + a.lastModifiedTime().toMillis();
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            return HexFormat.of().formatHex(md.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Lee la imagen salteando píxeles (subsampling) para no cargarla entera: un 4K llega
+     * con apenas el doble del ancho final, suficiente para escalarla bien.
+     */
+    private BufferedImage decode(Path image) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(image.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int step = Math.max(1, reader.getWidth(0) / (width * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage src) {
+        int w = Math.min(width, src.getWidth());
+        int h = Math.max(1, Math.round(src.getHeight() * (w / (float) src.getWidth())));
+        // RGB sin alfa: el writer JPEG no acepta imágenes con transparencia
+        BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,139 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Índices sobre un manifiesto de versiones, armados una sola vez al cargarlo:
+ * por id (búsqueda O(1)), por tipo (release, snapshot, old_beta, old_alpha...),
+ * orden por fecha de publicación y por prefijo de id para el buscador.
+ * Es inmutable; al refrescar el manifiesto se arma uno nuevo.
+ */
+public final class VersionCatalog {
+    public static final String RELEASE = "release";
+    public static final String SNAPSHOT = "snapshot";
+
+    private final VersionManager.VersionManifest manifest;
+    private final Map<String, VersionManager.Version> byId;
+    private final Map<String, List<VersionManager.Version>> byType;
+    private final List<VersionManager.Version> newestFirst;
+    private final NavigableMap<String, VersionManager.Version> byPrefix;
+    private final Map<String, Integer> rank;
+
+    public VersionCatalog(VersionManager.VersionManifest manifest) {
+        this.manifest = manifest;
+        List<VersionManager.Version> all = (manifest.getVersions() != null) ? manifest.getVersions() : List.of();
+
+        // releaseTime es ISO-8601 con la misma zona en todo el manifiesto: se ordena como texto
+        List<VersionManager.Version> sorted = new ArrayList<>(all);
+        sorted.sort(Comparator.comparing(
+                (VersionManager.Version v) -> v.getReleaseTime() != null ? v.getReleaseTime() : "").reversed());
+        this.newestFirst = Collections.unmodifiableList(sorted);
+
+        Map<String, VersionManager.Version> ids = new HashMap<>(all.size() * 2);
+        Map<String, Integer> ranks = new HashMap<>(all.size() * 2);
+        Map<String, List<VersionManager.Version>> types = new LinkedHashMap<>();
+        NavigableMap<String, VersionManager.Version> prefix = new TreeMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            VersionManager.Version v = sorted.get(i);
+            ids.put(v.getId(), v);
+            ranks.put(v.getId(), i);
+            types.computeIfAbsent(v.getType() != null ? v.getType() : "", k -> new ArrayList<>()).add(v);
+            prefix.put(v.getId().toLowerCase(Locale.ROOT), v);
+        }
+        types.replaceAll((k, l) -> Collections.unmodifiableList(l));
+        this.byId = ids;
+        this.rank = ranks;
+        this.byType = types;
+        this.byPrefix = prefix;
+    }
+
+    public VersionManager.VersionManifest getManifest() {
+        return manifest;
+    }
+
+    /** La versión con ese id, o null. */
+    public VersionManager.Version get(String id) {
+        return byId.get(id);
+    }
+
+    public boolean contains(String id) {
+        return byId.containsKey(id);
+    }
+
+    public VersionManager.Latest getLatest() {
+        return manifest.getLatest();
+    }
+
+    /** Tipos presentes en el manifiesto. */
+    public Set<String> types() {
+        return byType.keySet();
+    }
+
+    /** Todas, de la más nueva a la más vieja. */
+    public List<VersionManager.Version> newestFirst() {
+        return newestFirst;
+    }
+
+    /** Versiones de un tipo, de la más nueva a la más vieja. */
+    public List<VersionManager.Version> ofType(String type) {
+        return byType.getOrDefault(type, List.of());
+    }
+
+    /**
+     * Versiones de los tipos pedidos, de la más nueva a la más vieja. Une las listas ya
+     * ordenadas de cada tipo sin volver a ordenar todo: en cada paso toma la cabeza más
+     * nueva (son pocos tipos, así que alcanza con recorrerlas).
+     */
+    public List<VersionManager.Version> ofTypes(Set<String> types) {
+        if (types.size() == 1) return ofType(types.iterator().next());
+        List<List<VersionManager.Version>> lists = new ArrayList<>();
+        int total = 0;
+        for (String t : types) {
+            List<VersionManager.Version> l = ofType(t);
+            if (l.isEmpty()) continue;
+            lists.add(l);
+            total += l.size();
+        }
+        int[] next = new int[lists.size()];
+        List<VersionManager.Version> out = new ArrayList<>(total);
+        while (out.size() < total) {
+            int best = -1;
+            int bestRank = Integer.MAX_VALUE;
+            for (int i = 0; i < next.length; i++) {
+                if (next[i] == lists.get(i).size()) continue;
+                int r = rank.get(lists.get(i).get(next[i]).getId());
+                if (r < bestRank) {
+                    best = i;
+                    bestRank = r;
+                }
+            }
+            out.add(lists.get(best).get(next[best]++));
+        }
+        return out;
+    }
+
+    /**
+     * Versiones cuyo id empieza con el prefijo (sin distinguir mayúsculas), filtradas
+     * por tipo (null = todos) y de la más nueva a la más vieja.
+     */
+    public List<VersionManager.Version> search(String prefix, Set<String> types) {
+        if (prefix == null || prefix.isEmpty()) return (types == null) ? newestFirst : ofTypes(types);
+        String p = prefix.toLowerCase(Locale.ROOT);
+        List<VersionManager.Version> out = new ArrayList<>();
+        for (VersionManager.Version v : byPrefix.subMap(p, true, p + Character.MAX_VALUE, false).values()) {
+            if (types == null || types.contains(v.getType())) out.add(v);
+        }
+        out.sort(Comparator.comparingInt(v -> rank.get(v.getId())));
+        return out;
+    }
+}
@@ -1,5 +1,6 @@
 package core;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -40,13 +41,45 @@ public class VersionDetails {
         @JsonProperty("jvm")
         private List<Object> jvm;
 
-
+        public List<Object> getGame() { return game; }
+        public void setGame(List<Object> game) { this.game = game; }
+        public List<Object> getJvm() { return jvm; }
+        public void setJvm(List<Object> jvm) { this.jvm = jvm; }
     }
 
     @JsonProperty("arguments")
     private Arguments arguments;
     public Arguments getArguments() { return arguments; }
-    public void setArguments(Arguments arguments) { this.arguments = arguments; }
+    public synchronized void setArguments(Arguments arguments) {
+        this.arguments = arguments;
+        gameTemplate = jvmTemplate = null;
+    }
+
+    // plantillas compiladas una vez por versión (ver ArgumentTemplate)
+    @JsonIgnore
+    private ArgumentTemplate gameTemplate;
+    @JsonIgnore
+    private ArgumentTemplate jvmTemplate;
+
+    /** Argumentos del juego: "arguments.game" (1.13+) o, si no hay, "minecraftArguments". */
+    @JsonIgnore
+    public synchronized ArgumentTemplate getGameTemplate() {
+        if (gameTemplate == null) {
+            gameTemplate = (arguments != null && arguments.game != null)
+                    ? ArgumentTemplate.compile(arguments.game)
+                    : ArgumentTemplate.compileLegacy(minecraftArguments);
+        }
+        return gameTemplate;
+    }
+
+    /** Argumentos de la JVM ("arguments.jvm"), o null en versiones anteriores a 1.13. */
+    @JsonIgnore
+    public synchronized ArgumentTemplate getJvmTemplate() {
+        if (jvmTemplate == null && arguments != null && arguments.jvm != null) {
+            jvmTemplate = ArgumentTemplate.compile(arguments.jvm);
+        }
+        return jvmTemplate;
+    }
 
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -59,13 +92,53 @@ public class VersionDetails {
         @JsonProperty("url")
         private String repositoryUrl;
 
+        // reglas por SO/arquitectura (ver Rules): sin reglas, la librería va siempre
+        @JsonProperty("rules")
+        private List<Object> rules;
+        @JsonIgnore
+        private volatile Rules.Rule[] compiledRules;
+
         public String getName() { return name; }
         public void setName(String n) { this.name = n; }
+        public List<Object> getRules() { return rules; }
+        public void setRules(List<Object> rules) {
+            this.rules = rules;
+            compiledRules = null;
+        }
+
+        /** Las reglas ya parseadas, una sola vez por librería. */
+        @JsonIgnore
+        Rules.Rule[] getCompiledRules() {
+            Rules.Rule[] r = compiledRules;
+            if (r == null) compiledRules = r = Rules.parse(rules);
+            return r;
+        }
         public String getRepositoryUrl() { return repositoryUrl; }
         public void setRepositoryUrl(String u) { this.repositoryUrl = u; }
         public Downloads getDownloads() {return downloads;}
         public void setDownloads(Downloads downloads) { this.downloads = downloads; }
 
+        // nativos (formato pre-1.19): os -> classifier, p.ej. "windows" -> "natives-windows-${arch}"
+        @JsonProperty("natives")
+        private Map<String, String> natives;
+
+        @JsonProperty("extract")
+        private Extract extract;
+
+        public Map<String, String> getNatives() { return natives; }
+        public void setNatives(Map<String, String> natives) { this.natives = natives; }
+        public Extract getExtract() { return extract; }
+        public void setExtract(Extract extract) { this.extract = extract; }
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        public static class Extract {
+            @JsonProperty("exclude")
+            private List<String> exclude;
+
+            public List<String> getExclude() { return exclude; }
+            public void setExclude(List<String> exclude) { this.exclude = exclude; }
+        }
+
         @JsonIgnoreProperties(ignoreUnknown = true)
         public static class Downloads {
             private Artifact artifact;
@@ -95,7 +168,10 @@ public class VersionDetails {
     @JsonProperty("minecraftArguments")
     private String minecraftArguments;
     public String getMinecraftArguments() { return minecraftArguments; }
-    public void setMinecraftArguments(String s) { this.minecraftArguments = s; }
+    public synchronized void setMinecraftArguments(String s) {
+        this.minecraftArguments = s;
+        gameTemplate = null;
+    }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class ClientDownload{
@@ -134,6 +210,44 @@ public class VersionDetails {
     public AssetIndexInfo getAssetIndex() { return assetIndex; }
     public void setAssetIndex(AssetIndexInfo assetIndex) { this.assetIndex = assetIndex; }
 
+    // configuración log4j2 que publica Mojang (la que trae la mitigación de Log4Shell)
+    @JsonProperty("logging")
+    private Logging logging;
+    public Logging getLogging() { return logging; }
+    public void setLogging(Logging logging) { this.logging = logging; }
+
+    /** "logging": solo nos importa "client". */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Logging {
+        @JsonProperty("client")
+        private LoggingConfig client;
+        public LoggingConfig getClient() { return client; }
+        public void setClient(LoggingConfig client) { this.client = client; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class LoggingConfig {
+        @JsonProperty("file")
+        private LogFile file;
+        public LogFile getFile() { return file; }
+        public void setFile(LogFile file) { this.file = file; }
+    }
+
+    /** Archivo de configuración, p.ej. id "client-1.12.xml". */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class LogFile {
+        private String id;
+        private String url;
+        private String sha1;
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+        public String getSha1() { return sha1; }
+        public void setSha1(String sha1) { this.sha1 = sha1; }
+    }
+
     @JsonProperty("type")
     private String type;
     public String getType() { return type; }
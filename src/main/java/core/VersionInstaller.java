@@ -0,0 +1,667 @@
+package core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Instala, verifica y limpia versiones en una carpeta .minecraft.
+ * Es la lógica que usan tanto la UI como la CLI; no depende de JavaFX.
+ * <p>
+ * Se pueden correr varias {@link #install} a la vez sobre la misma instancia (ver
+ * {@link InstallQueue}): comparten el límite de conexiones y lo que tienen en común
+ * (librerías, objetos de assets, índices) se baja una sola vez.
+ */
+public class VersionInstaller {
+
+    /**
+     * Recibe el avance de una instalación. message puede ser null si solo cambió el avance.
+     * Las descargas corren en paralelo, así que se lo llama desde varios hilos.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(String message, long done, long total);
+    }
+
+    /**
+     * Pausa, reanuda o cancela una instalación en curso desde cualquier hilo. La pausa se
+     * aplica entre archivos (lo que ya se está bajando termina); cancelar interrumpe también
+     * las transferencias en vuelo. Lo ya verificado queda en disco y la próxima
+     * {@link #install} de la misma versión sigue desde ahí.
+     */
+    public static final class Control {
+        public enum State { RUNNING, PAUSED, CANCELLED }
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private State state = State.RUNNING;
+        private Tasks.Scope scope;
+
+        public void pause() {
+            lock.lock();
+            try {
+                if (state == State.RUNNING) state = State.PAUSED;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void resume() {
+            lock.lock();
+            try {
+                if (state == State.PAUSED) state = State.RUNNING;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void cancel() {
+            Tasks.Scope s;
+            lock.lock();
+            try {
+                state = State.CANCELLED;
+                s = scope;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (s != null) s.cancel();
+        }
+
+        public State getState() {
+            lock.lock();
+            try {
+                return state;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Antes de cada archivo: espera mientras esté en pausa y corta si se canceló. */
+        void checkpoint() throws InterruptedException {
+            lock.lock();
+            try {
+                while (state == State.PAUSED) changed.await();
+                if (state == State.CANCELLED) throw new CancellationException("Instalación cancelada");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** El tramo de descargas en curso; si ya se canceló, se cancela apenas empieza. */
+        void attach(Tasks.Scope s) {
+            lock.lock();
+            try {
+                scope = s;
+                if (state == State.CANCELLED) s.cancel();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void detach() {
+            lock.lock();
+            try {
+                scope = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Resultado de {@link #verify}: archivos que faltan o no coinciden con su SHA-1. */
+    public record VerifyReport(String versionId, int checked, List<String> missing, List<String> corrupt) {
+        public boolean ok() {
+            return missing.isEmpty() && corrupt.isEmpty();
+        }
+    }
+
+    /** Resultado de {@link #gc}. */
+    public record GcReport(int nativesRemoved, int assetObjectsRemoved, int tempFilesRemoved,
+                           int sessionsRemoved, long bytesFreed) {
+    }
+
+    /** Marca dentro de versions/&lt;ver&gt;/ mientras la instalación no terminó. */
+    public static final String INSTALLING_MARKER = ".installing";
+    /** gc no toca archivos más nuevos que esto: pueden ser de una instalación en curso. */
+    public static final Duration GC_GRACE = Duration.ofHours(1);
+    /** Descargas simultáneas en total, sumando todas las instalaciones en curso. */
+    public static final int DOWNLOAD_PARALLELISM = 16;
+
+    private final Path mcBaseDir;
+    private final VersionManager versionManager;
+    private final AssetDownloader assetDownloader;
+    private final AssetsManager assetsManager;
+    private final NativesManager nativesManager;
+    // justa: con varias versiones en cola, ninguna se queda sin conexiones
+    private final Semaphore connections = new Semaphore(DOWNLOAD_PARALLELISM, true);
+    private final Map<Path, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock manifestLock = new ReentrantLock();
+
+    public VersionInstaller(Path mcBaseDir,
+                            VersionManager versionManager,
+                            AssetDownloader assetDownloader,
+                            AssetsManager assetsManager,
+                            NativesManager nativesManager) {
+        this.mcBaseDir = mcBaseDir;
+        this.versionManager = versionManager;
+        this.assetDownloader = assetDownloader;
+        this.assetsManager = assetsManager;
+        this.nativesManager = nativesManager;
+    }
+
+    /** Versiones con carpeta y jar en versions/ (sin contar las que quedaron a medias). */
+    public Set<String> scanInstalled() {
+        Set<String> out = new TreeSet<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(mcBaseDir.resolve("versions"))) {
+            for (Path v : ds) {
+                if (Files.isDirectory(v) && Files.exists(v.resolve(v.getFileName() + ".jar"))
+                        && !Files.exists(v.resolve(INSTALLING_MARKER))) {
+                    out.add(v.getFileName().toString());
+                }
+            }
+        } catch (IOException ignored) {
+        }
+        return out;
+    }
+
+    /** true si una instalación de la versión empezó y no terminó (se canceló o se cerró el launcher). */
+    public boolean isPartial(String ver) {
+        return Files.exists(mcBaseDir.resolve("versions").resolve(ver).resolve(INSTALLING_MARKER));
+    }
+
+    /**
+     * Descarga el JSON, librerías, nativos, cliente y assets de la versión.
+     */
+    public void install(String ver, ProgressListener progress) throws Exception {
+        install(ver, progress, new Control());
+    }
+
+    /**
+     * Igual que {@link #install(String, ProgressListener)}, controlable desde afuera. Lo que ya
+     * está en disco con el SHA-1 correcto no se vuelve a bajar, así que después de cancelar
+     * (o de un corte) alcanza con volver a llamarlo.
+     *
+     * @throws CancellationException si se canceló con {@link Control#cancel()}
+     */
+    public void install(String ver, ProgressListener progress, Control control) throws Exception {
+        manifestLock.lock();
+        try {
+            if (!versionManager.hasManifest() && !versionManager.loadCachedManifest()) {
+                versionManager.fetchManifest();
+            }
+        } finally {
+            manifestLock.unlock();
+        }
+
+        // No se borra nada de un intento anterior: la marca avisa que está a medias
+        Path versionDir = mcBaseDir.resolve("versions").resolve(ver);
+        Files.createDirectories(versionDir);
+        Path marker = versionDir.resolve(INSTALLING_MARKER);
+        Files.writeString(marker, Instant.now().toString());
+        control.checkpoint();
+
+        // JSON de la versión, verificado contra el SHA-1 del manifiesto (puede salir de la caché)
+        Path jsonFile = versionDir.resolve(ver + ".json");
+        progress.onProgress("Guardando " + ver + ".json", 0, 1);
+        Files.copy(versionManager.versionJson(ver), jsonFile, StandardCopyOption.REPLACE_EXISTING);
+
+        // obtiene los detalles de la versión (para libs, jar y assets)
+        VersionDetails det = versionManager.resolveVersionDetails(ver, mcBaseDir);
+
+        // la misma librería puede aparecer dos veces: un solo destino, una sola descarga
+        Map<Path, String[]> libJobs = new LinkedHashMap<>();
+        for (var lib : det.getLibraries()) {
+            // las de otro SO (p.ej. lwjgl 2.9.2 solo para macOS en 1.8.9) ni se bajan
+            if (!Rules.applies(lib)) continue;
+            var dls = lib.getDownloads();
+            if (dls == null || dls.getArtifact() == null) continue;
+
+            String url = dls.getArtifact().getUrl();
+            String sha = dls.getArtifact().getSha1();
+            if (url == null || sha == null) continue;
+            libJobs.putIfAbsent(libraryPath(url), new String[]{url, sha});
+        }
+
+        // el índice va primero: con él se sabe el total de archivos y el avance nunca retrocede
+        VersionDetails.AssetIndexInfo aiInfo = det.getAssetIndex();
+        AssetsManager.AssetIndex ai = shared(assetsManager.indexPath(aiInfo.getId()),
+                () -> assetsManager.fetchAssetIndex(aiInfo.getUrl(), aiInfo.getId()));
+        // varios nombres pueden apuntar al mismo objeto: se baja una vez y se copia a cada nombre
+        Map<String, List<String>> keysByHash = new LinkedHashMap<>();
+        for (Map.Entry<String, AssetsManager.AssetObject> e : ai.objects.entrySet()) {
+            keysByHash.computeIfAbsent(e.getValue().getHash(), h -> new ArrayList<>()).add(e.getKey());
+        }
+        int totalA = ai.objects.size();
+        AtomicInteger doneA = new AtomicInteger();
+        int total = libJobs.size() + 1 + totalA;
+        AtomicInteger done = new AtomicInteger();
+
+        try (Tasks.Scope scope = Tasks.Scope.io(DOWNLOAD_PARALLELISM)) {
+            control.attach(scope);
+            for (Map.Entry<Path, String[]> job : libJobs.entrySet()) {
+                scope.fork(() -> {
+                    control.checkpoint();
+                    Path tgt = job.getKey();
+                    downloadIfNeeded(job.getValue()[0], tgt, job.getValue()[1]);
+                    progress.onProgress("Librería: " + tgt.getFileName(), done.incrementAndGet(), total);
+                    return null;
+                });
+            }
+            scope.join();
+        } finally {
+            control.detach();
+        }
+
+        // Nativos LWJGL: se extraen una vez a la caché (por SHA-1 y SO/arch) y se enlazan
+        Path nativesDir = versionDir.resolve(ver + "-natives");
+        List<Path> nativeDirs = new ArrayList<>();
+
+        for (var lib : det.getLibraries()) {
+            NativesManager.NativeArtifact nat = nativesManager.selectNative(lib);
+            if (nat == null) continue;
+            control.checkpoint();
+
+            // Descargamos el jar de nativos a la carpeta de libraries
+            Path natJar = libraryPath(nat.url());
+            progress.onProgress("Nativos: " + natJar.getFileName(), done.get(), total);
+            if (!Files.isDirectory(nativesManager.cacheDirFor(nat))) {
+                downloadIfNeeded(nat.url(), natJar, nat.sha1());
+            }
+            nativeDirs.add(nativesManager.extract(natJar, nat));
+        }
+        nativesManager.materialize(nativeDirs, nativesDir);
+
+        // cliente y assets juntos: si algo falla, el resto se cancela
+        try (Tasks.Scope scope = Tasks.Scope.io(DOWNLOAD_PARALLELISM)) {
+            control.attach(scope);
+            var cd = det.getClientDownload();
+            Path clientJar = versionDir.resolve(ver + ".jar");
+            scope.fork(() -> {
+                control.checkpoint();
+                progress.onProgress("Cliente: " + ver + ".jar", done.get(), total);
+                // puede estar ya de un intento anterior
+                if (!(Files.isRegularFile(clientJar) && assetsManager.verifySha1(clientJar, cd.getSha1()))) {
+                    Path prefetchedClient = Prefetcher.prefetchedClient(mcBaseDir, cd.getSha1());
+                    if (Files.exists(prefetchedClient) && assetsManager.verifySha1(prefetchedClient, cd.getSha1())) {
+                        Files.move(prefetchedClient, clientJar, StandardCopyOption.REPLACE_EXISTING);
+                    } else {
+                        downloadIfNeeded(cd.getUrl(), clientJar, cd.getSha1());
+                    }
+                }
+                progress.onProgress(null, done.incrementAndGet(), total);
+                return null;
+            });
+            for (Map.Entry<String, List<String>> e : keysByHash.entrySet()) {
+                scope.fork(() -> {
+                    control.checkpoint();
+                    shared(assetsManager.objectPath(e.getKey()),
+                            () -> assetsManager.downloadObject(e.getKey(), e.getValue().get(0)));
+                    for (String objectKey : e.getValue()) {
+                        assetsManager.placeAsset(objectKey, e.getKey());
+                        int d = doneA.incrementAndGet();
+                        progress.onProgress("Asset " + d + "/" + totalA + ": " + objectKey,
+                                done.incrementAndGet(), total);
+                    }
+                    return null;
+                });
+            }
+            scope.join();
+        } finally {
+            control.detach();
+        }
+
+        Files.deleteIfExists(marker);
+        progress.onProgress("¡Descarga completa!", total, total);
+    }
+
+    /**
+     * Comprueba que librerías, nativos, cliente y assets de una versión instalada
+     * estén presentes y con el SHA-1 correcto. No descarga nada.
+     */
+    public VerifyReport verify(String ver, ProgressListener progress) throws IOException {
+        VersionDetails det = versionManager.resolveVersionDetails(ver, mcBaseDir);
+        List<String[]> expected = new ArrayList<>();   // {ruta, sha1}
+
+        for (var lib : det.getLibraries()) {
+            if (!Rules.applies(lib)) continue;
+            var dls = lib.getDownloads();
+            if (dls != null && dls.getArtifact() != null
+                    && dls.getArtifact().getUrl() != null && dls.getArtifact().getSha1() != null) {
+                expected.add(new String[]{libraryPath(dls.getArtifact().getUrl()).toString(), dls.getArtifact().getSha1()});
+            }
+            NativesManager.NativeArtifact nat = nativesManager.selectNative(lib);
+            if (nat != null && !Files.isDirectory(nativesManager.cacheDirFor(nat))) {
+                expected.add(new String[]{libraryPath(nat.url()).toString(), nat.sha1()});
+            }
+        }
+        var cd = det.getClientDownload();
+        if (cd != null && cd.getSha1() != null) {
+            expected.add(new String[]{mcBaseDir.resolve("versions").resolve(ver).resolve(ver + ".jar").toString(), cd.getSha1()});
+        }
+        if (det.getAssetIndex() != null) {
+            AssetsManager.AssetIndex ai = assetsManager.loadLocalIndex(det.getAssetIndex().getId());
+            if (ai == null) {
+                expected.add(new String[]{assetsManager.indexPath(det.getAssetIndex().getId()).toString(),
+                        det.getAssetIndex().getSha1()});
+            } else {
+                for (AssetsManager.AssetObject o : ai.objects.values()) {
+                    expected.add(new String[]{assetsManager.objectPath(o.getHash()).toString(), o.getHash()});
+                }
+            }
+        }
+
+        // 0 ok, 1 falta, 2 no coincide; los SHA-1 se calculan en el pool de CPU
+        byte[] state = new byte[expected.size()];
+        AtomicInteger done = new AtomicInteger();
+        try (Tasks.Scope scope = Tasks.Scope.cpu()) {
+            for (int i = 0; i < expected.size(); i++) {
+                int idx = i;
+                scope.fork(() -> {
+                    String[] e = expected.get(idx);
+                    Path p = Paths.get(e[0]);
+                    if (!Files.isRegularFile(p)) {
+                        state[idx] = 1;
+                    } else if (e[1] != null && !assetsManager.verifySha1(p, e[1])) {
+                        state[idx] = 2;
+                    }
+                    progress.onProgress(null, done.incrementAndGet(), expected.size());
+                    return null;
+                });
+            }
+            scope.join();
+        } catch (IOException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+            throw new IOException("Verificación interrumpida", ex);
+        }
+
+        List<String> missing = new ArrayList<>();
+        List<String> corrupt = new ArrayList<>();
+        for (int i = 0; i < state.length; i++) {
+            if (state[i] == 1) missing.add(expected.get(i)[0]);
+            else if (state[i] == 2) corrupt.add(expected.get(i)[0]);
+        }
+        return new VerifyReport(ver, expected.size(), missing, corrupt);
+    }
+
+    /**
+     * Borra lo que ninguna versión instalada usa: carpetas de la caché de nativos,
+     * objetos de assets que no aparecen en ningún índice, temporales de descargas
+     * interrumpidas y sesiones de log más viejas que keepSessions.
+     * <p>
+     * Se puede correr con una instalación en curso (en esta UI o en otra CLI): lo de las
+     * versiones con {@value #INSTALLING_MARKER} cuenta como usado, y nada más nuevo que
+     * {@link #GC_GRACE} se borra.
+     */
+    public GcReport gc(Duration keepSessions) throws IOException {
+        long freed = 0;
+        // lo reciente puede ser una descarga o extracción de otra instalación (esta UI u otra CLI)
+        Instant young = Instant.now().minus(GC_GRACE);
+
+        // nativos referenciados por versiones instaladas o a medio instalar
+        Set<String> referenced = new TreeSet<>(scanInstalled());
+        Set<String> installing = scanInstalling();
+        referenced.addAll(installing);
+        Set<Path> liveNatives = new HashSet<>();
+        for (String ver : referenced) {
+            try {
+                VersionDetails det = versionManager.resolveVersionDetails(ver, mcBaseDir);
+                for (var lib : det.getLibraries()) {
+                    NativesManager.NativeArtifact nat = nativesManager.selectNative(lib);
+                    if (nat != null) liveNatives.add(nativesManager.cacheDirFor(nat));
+                }
+            } catch (Exception ignored) {
+                // si no se puede resolver una versión, no arriesgamos: no se borra nada de nativos
+                liveNatives = null;
+                break;
+            }
+        }
+        int nativesRemoved = 0;
+        Path nativesRoot = mcBaseDir.resolve("cache").resolve("natives")
+                .resolve(NativesManager.osName() + "-" + NativesManager.archName());
+        if (liveNatives != null && Files.isDirectory(nativesRoot)) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(nativesRoot)) {
+                for (Path d : ds) {
+                    try {
+                        if (!liveNatives.contains(d) && !isYoung(d, young)) {
+                            freed += deleteTree(d);
+                            nativesRemoved++;
+                        }
+                    } catch (NoSuchFileException gone) {
+                    }
+                }
+            }
+        }
+
+        // objetos de assets que no figuran en ningún índice
+        Set<String> liveHashes = new HashSet<>();
+        Path indexes = mcBaseDir.resolve("assets").resolve("indexes");
+        if (Files.isDirectory(indexes)) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(indexes, "*.json")) {
+                for (Path idx : ds) {
+                    String id = idx.getFileName().toString().replaceFirst("\\.json$", "");
+                    AssetsManager.AssetIndex ai = assetsManager.loadLocalIndex(id);
+                    if (ai != null && ai.objects != null) {
+                        for (AssetsManager.AssetObject o : ai.objects.values()) liveHashes.add(o.getHash());
+                    }
+                }
+            }
+        }
+        // una instalación que todavía no guardó su índice baja objetos que ningún índice nombra
+        boolean objectsKnown = !liveHashes.isEmpty();
+        for (String ver : installing) {
+            try {
+                VersionDetails.AssetIndexInfo ai = versionManager.resolveVersionDetails(ver, mcBaseDir).getAssetIndex();
+                if (ai != null && !Files.isRegularFile(assetsManager.indexPath(ai.getId()))) objectsKnown = false;
+            } catch (Exception ignored) {
+                objectsKnown = false;
+            }
+        }
+        int objectsRemoved = 0, tempRemoved = 0;
+        Path objects = mcBaseDir.resolve("assets").resolve("objects");
+        for (Path f : listFiles(objects)) {
+            String name = f.getFileName().toString();
+            boolean temp = name.endsWith(".tmp") || name.endsWith(".part");
+            if (!temp && (!objectsKnown || liveHashes.contains(name))) continue;
+            try {
+                if (isYoung(f, young)) continue;
+                long size = Files.size(f);
+                if (!Files.deleteIfExists(f)) continue;
+                freed += size;
+                if (temp) tempRemoved++;
+                else objectsRemoved++;
+            } catch (NoSuchFileException gone) {
+                // lo movió o borró otro proceso mientras recorríamos
+            }
+        }
+
+        // sesiones de log viejas
+        int sessionsRemoved = 0;
+        Instant cutoff = Instant.now().minus(keepSessions);
+        for (Path s : SessionLogStore.listSessions(mcBaseDir.resolve("logs").resolve("sessions"))) {
+            try {
+                if (Files.getLastModifiedTime(s).toInstant().isBefore(cutoff)) {
+                    freed += deleteTree(s);
+                    sessionsRemoved++;
+                }
+            } catch (NoSuchFileException gone) {
+            }
+        }
+
+        return new GcReport(nativesRemoved, objectsRemoved, tempRemoved, sessionsRemoved, freed);
+    }
+
+    /** Versiones con la marca {@value #INSTALLING_MARKER}: en curso, o cortadas a medias. */
+    private Set<String> scanInstalling() {
+        Set<String> out = new TreeSet<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(mcBaseDir.resolve("versions"))) {
+            for (Path v : ds) {
+                if (Files.exists(v.resolve(INSTALLING_MARKER))) out.add(v.getFileName().toString());
+            }
+        } catch (IOException ignored) {
+        }
+        return out;
+    }
+
+    private static boolean isYoung(Path p, Instant young) throws IOException {
+        return Files.getLastModifiedTime(p).toInstant().isAfter(young);
+    }
+
+    /** Archivos bajo root; lo que desaparece mientras se recorre se saltea. */
+    private static List<Path> listFiles(Path root) throws IOException {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(root)) return out;
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) out.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return out;
+    }
+
+    /**
+     * Descarga solo si el archivo falta o no coincide su SHA-1. Una librería que ya bajó el
+     * {@link Prefetcher} se mueve desde cache/prefetch/ en vez de pedirse otra vez.
+     */
+    private void downloadIfNeeded(String url, Path target, String sha1) throws Exception {
+        shared(target, () -> {
+            LauncherEvents.Download hit = new LauncherEvents.Download();
+            hit.begin();
+            if (!(Files.isRegularFile(target) && assetsManager.verifySha1(target, sha1))
+                    && !adoptPrefetched(target, sha1)) {
+                // la descarga emite su propio evento
+                assetDownloader.downloadAndVerify(url, target, sha1);
+            } else if (hit.shouldCommit()) {
+                hit.host = LauncherEvents.host(url);
+                hit.file = target.getFileName().toString();
+                hit.bytes = Files.size(target);
+                hit.cacheHit = true;
+                hit.commit();
+            }
+            return null;
+        });
+    }
+
+    private boolean adoptPrefetched(Path target, String sha1) throws Exception {
+        Path prefetched = Prefetcher.prefetchedLibrary(mcBaseDir, target);
+        if (prefetched == null || !Files.isRegularFile(prefetched)) return false;
+        if (!assetsManager.verifySha1(prefetched, sha1)) {
+            Files.deleteIfExists(prefetched);
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        Files.move(prefetched, target, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    /**
+     * Corre {@code download} (que deja {@code target} en disco) con una de las
+     * {@link #DOWNLOAD_PARALLELISM} conexiones. Si otra instalación ya lo está bajando, espera
+     * ese resultado en vez de repetirlo; si aquella falla o se cancela, lo intenta esta.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T shared(Path target, Callable<T> download) throws Exception {
+        while (true) {
+            CompletableFuture<Object> mine = new CompletableFuture<>();
+            CompletableFuture<Object> other = inFlight.putIfAbsent(target, mine);
+            if (other != null) {
+                try {
+                    return (T) other.get();
+                } catch (ExecutionException | CancellationException ex) {
+                    continue;
+                }
+            }
+            try {
+                T result;
+                connections.acquire();
+                try {
+                    result = download.call();
+                } finally {
+                    connections.release();
+                }
+                mine.complete(result);
+                return result;
+            } catch (Throwable t) {
+                mine.completeExceptionally(t);
+                throw t;
+            } finally {
+                inFlight.remove(target, mine);
+            }
+        }
+    }
+
+    private Path libraryPath(String url) throws IOException {
+        try {
+            return mcBaseDir.resolve("libraries").resolve(Paths.get(pathFromUrl(url)));
+        } catch (URISyntaxException ex) {
+            throw new IOException("URL inválida: " + url, ex);
+        }
+    }
+
+    private static String pathFromUrl(String url) throws URISyntaxException {
+        URI uri = new URI(url);
+        String p = uri.getPath();
+        return p.startsWith("/") ? p.substring(1) : p;
+    }
+
+    /** Borra un árbol y devuelve los bytes liberados. */
+    private static long deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return 0;
+        long bytes = 0;
+        List<Path> all;
+        try (Stream<Path> walk = Files.walk(root)) {
+            all = walk.sorted(Comparator.reverseOrder()).toList();
+        } catch (NoSuchFileException | UncheckedIOException gone) {
+            // otro proceso lo borró mientras se recorría
+            return 0;
+        }
+        for (Path p : all) {
+            try {
+                if (Files.isRegularFile(p)) bytes += Files.size(p);
+                Files.delete(p);
+            } catch (IOException ignored) {
+            }
+        }
+        return bytes;
+    }
+}
@@ -1,32 +1,74 @@
 package core;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 /**
  * Gestiona la lectura y listado de versiones de Minecraft desde el manifiesto oficial de Mojang,
  * y hace fallback a versiones locales (p.ej. OptiFine) leyendo <.minecraft>/versions/<id>/<id>.json.
+ * <p>
+ * Offline-first: el manifiesto (v2, con el SHA-1 de cada JSON de versión) se guarda en
+ * cache/ y se sirve desde disco al arrancar; {@link #refreshManifestAsync()} lo revalida
+ * después con ETag. Los JSON de versión se guardan en cache/version-json/&lt;sha1&gt;.json
+ * y no se vuelven a bajar mientras el hash coincida.
  */
 public class VersionManager {
     private static final String MANIFEST_URL =
-            "https://launchermeta.mojang.com/mc/game/version_manifest.json";
+            "https://piston-meta.mojang.com/mc/game/version_manifest_v2.json";
+    private static final String MANIFEST_FILE = "version_manifest_v2.json";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(20);
 
     private final ObjectMapper objectMapper;
+    private final String manifestUrl;
     private final Path mcBaseDir;              // puede ser null si no querés soporte local
-    private VersionManifest manifest;
+    private final HttpClient http;
+    private volatile VersionCatalog catalog;
+    private volatile boolean manifestFromCache;
+    private final Map<String, Resolved> resolved = new ConcurrentHashMap<>();
+    // resoluciones en curso por id: quien llega segundo espera la del primero
+    private final Map<String, CompletableFuture<Resolved>> resolving = new ConcurrentHashMap<>();
 
 
     public VersionManager(Path mcBaseDir) {
+        this(mcBaseDir, MANIFEST_URL);
+    }
+
+    /**
+     * @param manifestUrl De dónde bajar el manifiesto (p.ej. un servidor local para pruebas);
+     *                    las URLs de cada versión salen de él
+     */
+    public VersionManager(Path mcBaseDir, String manifestUrl) {
         this.objectMapper = new ObjectMapper();
+        this.manifestUrl = manifestUrl;
         this.mcBaseDir = mcBaseDir;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
     }
 
     /** Constructor legacy: sin base dir (NO habrá fallback local). */
@@ -34,17 +76,107 @@ public class VersionManager {
         this(null);
     }
 
-    /** Descarga y parsea el manifiesto de versiones. */
+    /**
+     * Carga el manifiesto guardado en disco, sin tocar la red.
+     *
+     * @return false si no hay copia local o está dañada
+     */
+    public boolean loadCachedManifest() {
+        Path file = manifestCacheFile();
+        if (file == null || !Files.exists(file)) return false;
+        try {
+            catalog = new VersionCatalog(objectMapper.readValue(file.toFile(), VersionManifest.class));
+            manifestFromCache = true;
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Descarga y parsea el manifiesto de versiones. Si la red falla y hay copia local,
+     * usa esa (ver {@link #isManifestFromCache()}).
+     */
     public void fetchManifest() throws IOException {
-        manifest = objectMapper.readValue(new URL(MANIFEST_URL), VersionManifest.class);
+        try {
+            refreshManifest();
+        } catch (IOException ex) {
+            if (catalog == null && !loadCachedManifest()) throw ex;
+        }
+    }
+
+    /**
+     * Revalida el manifiesto contra el servidor (If-None-Match) y lo guarda en disco.
+     *
+     * @return true si cambió respecto de lo que había cargado
+     */
+    public boolean refreshManifest() throws IOException {
+        Path file = manifestCacheFile();
+        Path etagFile = (file != null) ? file.resolveSibling(MANIFEST_FILE + ".etag") : null;
+
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(manifestUrl)).timeout(REQUEST_TIMEOUT).GET();
+        if (catalog != null && etagFile != null && Files.exists(etagFile)) {
+            req.header("If-None-Match", Files.readString(etagFile).trim());
+        }
+        HttpResponse<byte[]> resp = send(req.build());
+
+        if (resp.statusCode() == 304) {
+            manifestFromCache = false;
+            return false;
+        }
+        if (resp.statusCode() != 200) {
+            throw new IOException("Error bajando el manifiesto: HTTP " + resp.statusCode());
+        }
+        byte[] body = resp.body();
+        VersionManifest fresh = objectMapper.readValue(body, VersionManifest.class);
+        boolean changed = true;
+        if (file != null) {
+            changed = !Files.exists(file) || !java.util.Arrays.equals(body, Files.readAllBytes(file));
+            writeAtomically(file, body);
+            String etag = resp.headers().firstValue("ETag").orElse(null);
+            if (etag != null) writeAtomically(etagFile, etag.getBytes());
+            else Files.deleteIfExists(etagFile);
+        }
+        catalog = new VersionCatalog(fresh);
+        manifestFromCache = false;
+        return changed;
+    }
+
+    /** {@link #refreshManifest()} en segundo plano; el futuro falla si no hay red. */
+    public CompletableFuture<Boolean> refreshManifestAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return refreshManifest();
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            }
+        }, Tasks.io());
+    }
+
+    /** true si el manifiesto cargado viene de disco y todavía no se revalidó. */
+    public boolean isManifestFromCache() {
+        return manifestFromCache;
+    }
+
+    /** true si el manifiesto ya se cargó. */
+    public boolean hasManifest() {
+        return catalog != null;
     }
 
+    /** Índices del manifiesto cargado (por id, tipo, fecha y prefijo). */
+    public VersionCatalog getCatalog() {
+        ensureManifestLoaded();
+        return catalog;
+    }
 
+    /** Últimas release y snapshot según el manifiesto. */
+    public Latest getLatest() {
+        return getCatalog().getLatest();
+    }
 
     /** Devuelve la lista completa de objetos Version tras parsear el manifiesto. */
     public List<Version> getVersions() {
-        ensureManifestLoaded();
-        return manifest.getVersions();
+        return getCatalog().getManifest().getVersions();
     }
 
     /** Devuelve solo los IDs (String) de todas las versiones del manifiesto. */
@@ -58,12 +190,129 @@ public class VersionManager {
     /**
      * Obtiene los detalles de una versión. Intenta primero con el manifiesto remoto;
      * si no está, hace fallback a JSON local en <mcBaseDir>/versions/<id>/<id>.json.
+     * Devuelve siempre un objeto nuevo, sin resolver inheritsFrom.
      *
      * @param versionId ID de la versión (p.ej. "1.20.1" o "1.21.8-OptiFine_HD_U_J6_pre14")
      */
     public VersionDetails fetchVersionDetails(String versionId) throws IOException {
-        // 1) Intentamos tener el manifiesto
-        if (manifest == null) {
+        return load(versionId).details();
+    }
+
+    /**
+     * Detalles de la versión con toda la cadena inheritsFrom ya fusionada.
+     * El resultado se memoiza por id y se comparte entre llamadas (sus listas de librerías y
+     * argumentos no se pueden modificar); se vuelve a armar si cambia algún JSON de la cadena
+     * en disco o su SHA-1 en el manifiesto.
+     * <p>
+     * Sin lock global: versiones distintas se resuelven a la vez, y dos pedidos de la misma
+     * comparten una sola resolución (la red y los SHA-1 no se repiten).
+     *
+     * @throws IllegalStateException si la herencia es cíclica
+     */
+    public VersionDetails resolveVersionDetails(String versionId, Path gameDir) throws IOException {
+        Resolved r = resolved.get(versionId);
+        if (r != null && isFresh(r)) return r.details();
+
+        CompletableFuture<Resolved> mine = new CompletableFuture<>();
+        CompletableFuture<Resolved> other = resolving.putIfAbsent(versionId, mine);
+        if (other != null) return await(other).details();
+        try {
+            // la cadena de padres se resuelve acá sin esperar a otros: una herencia cíclica
+            // entre dos hilos no puede trabarse, se detecta
+            Resolved res = resolve(versionId, new LinkedHashSet<>());
+            mine.complete(res);
+            return res.details();
+        } catch (IOException | RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            resolving.remove(versionId, mine);
+        }
+    }
+
+    private static Resolved await(CompletableFuture<Resolved> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando la resolución de la versión");
+        } catch (ExecutionException ex) {
+            Throwable c = ex.getCause();
+            if (c instanceof IOException io) throw io;
+            if (c instanceof RuntimeException re) throw re;
+            if (c instanceof Error e) throw e;
+            throw new IOException(c);
+        }
+    }
+
+    /** Descarta lo memoizado de una versión y de las que heredan de ella. */
+    public void invalidate(String versionId) {
+        resolved.values().removeIf(r -> r.sources().stream().anyMatch(src -> src.id().equals(versionId)));
+    }
+
+    /** Un JSON que aportó a una versión resuelta, con lo necesario para saber si cambió. */
+    private record Source(String id, Path file, long modified, long size, String sha1) {
+    }
+
+    private record Resolved(VersionDetails details, List<Source> sources) {
+    }
+
+    private record Loaded(VersionDetails details, Source source) {
+    }
+
+    private Resolved resolve(String versionId, LinkedHashSet<String> chain) throws IOException {
+        if (!chain.add(versionId)) {
+            throw new IllegalStateException("Herencia cíclica: " + String.join(" -> ", chain) + " -> " + versionId);
+        }
+        Resolved cached = resolved.get(versionId);
+        if (cached != null && isFresh(cached)) {
+            chain.remove(versionId);
+            return cached;
+        }
+
+        Loaded l = load(versionId);
+        VersionDetails d = l.details();
+        List<Source> sources = new ArrayList<>();
+        sources.add(l.source());
+
+        String parentId = d.getInheritsFrom();
+        if (parentId != null && !parentId.isBlank()) {
+            Resolved base = resolve(parentId, chain);
+            merge(d, base.details());
+            sources.addAll(base.sources());
+        }
+        chain.remove(versionId);
+        freeze(d);
+
+        Resolved r = new Resolved(d, List.copyOf(sources));
+        resolved.put(versionId, r);
+        return r;
+    }
+
+    /** true si ningún JSON de la cadena cambió en disco ni en el manifiesto. */
+    private boolean isFresh(Resolved r) {
+        for (Source src : r.sources()) {
+            if (src.file() != null) {
+                try {
+                    if (Files.getLastModifiedTime(src.file()).toMillis() != src.modified()
+                            || Files.size(src.file()) != src.size()) return false;
+                } catch (IOException ex) {
+                    return false;
+                }
+            }
+            VersionCatalog c = catalog;
+            if (src.sha1() != null && c != null) {
+                Version v = c.get(src.id());
+                if (v != null && !src.sha1().equalsIgnoreCase(v.getSha1())) return false;
+            }
+        }
+        return true;
+    }
+
+    /** Lee un JSON de versión (sin herencia): del manifiesto verificado o de versions/. */
+    private Loaded load(String versionId) throws IOException {
+        // 1) Intentamos tener el manifiesto (primero el de disco: no bloquea sin red)
+        if (catalog == null && !loadCachedManifest()) {
             try {
                 fetchManifest();
             } catch (IOException ignored) {
@@ -72,123 +321,180 @@ public class VersionManager {
         }
 
         // 2) Existe en el manifiesto remoto
-        if (manifest != null) {
-            Optional<Version> match = manifest.getVersions()
-                    .stream()
-                    .filter(v -> v.getId().equals(versionId))
-                    .findFirst();
-
-            if (match.isPresent()) {
-                // Cargar desde URL oficial de Mojang
-                return VersionDetails.loadFromUrl(match.get().getUrl());
+        VersionCatalog c = catalog;
+        Version match = (c != null) ? c.get(versionId) : null;
+        if (match != null) {
+            if (mcBaseDir == null) {
+                return new Loaded(VersionDetails.loadFromUrl(match.getUrl()),
+                        new Source(versionId, null, 0, 0, match.getSha1()));
+            }
+            try {
+                Path json = versionJson(versionId);
+                return new Loaded(VersionDetails.loadFromFile(json), source(versionId, json, match.getSha1()));
+            } catch (IOException ex) {
+                // sin red: si hay un JSON local, aunque no se pueda verificar, sirve
+                if (!Files.exists(localVersionJson(versionId))) throw ex;
             }
         }
 
-
         if (mcBaseDir != null) {
-            Path localJson = mcBaseDir
-                    .resolve("versions")
-                    .resolve(versionId)
-                    .resolve(versionId + ".json");
-
+            Path localJson = localVersionJson(versionId);
             if (Files.exists(localJson)) {
-                try (InputStream in = Files.newInputStream(localJson)) {
-                    return objectMapper.readValue(in, VersionDetails.class);
-                }
+                return new Loaded(VersionDetails.loadFromFile(localJson), source(versionId, localJson, null));
             }
         }
 
-
         throw new IllegalArgumentException("Versión no encontrada: " + versionId);
     }
 
+    private static Source source(String id, Path file, String sha1) throws IOException {
+        return new Source(id, file, Files.getLastModifiedTime(file).toMillis(), Files.size(file), sha1);
+    }
 
-    public VersionDetails resolveVersionDetails(String versionId, Path gameDir) throws IOException {
-        VersionDetails d = fetchVersionDetails(versionId);
-
+    /**
+     * Completa d (recién leído, propio) con lo que hereda de base (compartido, no se toca).
+     * Las listas heredadas se copian: d no comparte ninguna lista con la entrada de base.
+     */
+    private static void merge(VersionDetails d, VersionDetails base) {
+        if (base.getLibraries() != null) {
+            if (d.getLibraries() == null || d.getLibraries().isEmpty()) {
+                d.setLibraries(List.copyOf(base.getLibraries()));
+            } else {
+                List<VersionDetails.Library> merged = new ArrayList<>(base.getLibraries());
+                merged.addAll(d.getLibraries());
+                d.setLibraries(List.copyOf(merged));
+            }
+        }
 
-        String parentId = null;
-        try {
-            var m = d.getClass().getMethod("getInheritsFrom");
-            Object v = m.invoke(d);
-            if (v instanceof String s && !s.isBlank()) parentId = s;
-        } catch (ReflectiveOperationException ignored) {
+        if (d.getAssetIndex() == null) {
+            d.setAssetIndex(base.getAssetIndex());
+        }
+        if (d.getLogging() == null) {
+            d.setLogging(base.getLogging());
+        }
 
+        // arguments (1.13+): los de la base van primero, luego los del hijo
+        if (base.getArguments() != null) {
+            if (d.getArguments() == null) {
+                VersionDetails.Arguments copy = new VersionDetails.Arguments();
+                copy.setGame(copyOf(base.getArguments().getGame()));
+                copy.setJvm(copyOf(base.getArguments().getJvm()));
+                d.setArguments(copy);
+            } else {
+                VersionDetails.Arguments merged = new VersionDetails.Arguments();
+                merged.setGame(copyOf(concat(base.getArguments().getGame(), d.getArguments().getGame())));
+                merged.setJvm(copyOf(concat(base.getArguments().getJvm(), d.getArguments().getJvm())));
+                d.setArguments(merged);
+            }
         }
 
-        if (parentId == null) {
-            return d;
+        if (isBlank(d.getMainClass())) d.setMainClass(base.getMainClass());
+        if (isBlank(d.getAssets())) d.setAssets(base.getAssets());
+        // minecraftArguments (tweakClass para OptiFine/Forge)
+        if (isBlank(d.getMinecraftArguments())) d.setMinecraftArguments(base.getMinecraftArguments());
+    }
+
+    /**
+     * Deja de solo lectura las listas de d antes de memoizarlo: quien lo recibe de
+     * {@link #resolveVersionDetails} no puede alterar la entrada compartida (ni, por ella, a
+     * las versiones que heredan).
+     */
+    private static void freeze(VersionDetails d) {
+        if (d.getLibraries() != null) d.setLibraries(List.copyOf(d.getLibraries()));
+        VersionDetails.Arguments a = d.getArguments();
+        if (a != null) {
+            a.setGame(copyOf(a.getGame()));
+            a.setJvm(copyOf(a.getJvm()));
         }
+    }
 
+    private static <T> List<T> copyOf(List<T> l) {
+        return (l != null) ? List.copyOf(l) : null;
+    }
 
-        VersionDetails base = resolveVersionDetails(parentId, gameDir);
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
 
+    private static List<Object> concat(List<Object> a, List<Object> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        List<Object> out = new ArrayList<>(a);
+        out.addAll(b);
+        return out;
+    }
 
-        if (base.getLibraries() != null) {
-            if (d.getLibraries() == null || d.getLibraries().isEmpty()) {
-                d.setLibraries(base.getLibraries());
-            } else {
-                var merged = new java.util.ArrayList<VersionDetails.Library>(base.getLibraries());
-                merged.addAll(d.getLibraries());
-                d.setLibraries(merged);
+    /**
+     * Ruta a un JSON de versión verificado contra el SHA-1 del manifiesto: el de
+     * versions/&lt;id&gt;/ si coincide, el de la caché, o uno recién bajado.
+     */
+    public Path versionJson(String versionId) throws IOException {
+        Version v = getCatalog().get(versionId);
+        if (v == null) throw new IllegalArgumentException("Versión no encontrada en manifest: " + versionId);
+        if (mcBaseDir == null) throw new IllegalStateException("Sin carpeta base no hay caché de versiones");
+
+        String sha1 = v.getSha1();
+        if (sha1 != null) {
+            Path cached = mcBaseDir.resolve("cache").resolve("version-json").resolve(sha1 + ".json");
+            if (Files.exists(cached) && sha1.equalsIgnoreCase(sha1Of(Files.readAllBytes(cached)))) return cached;
+            Path local = localVersionJson(versionId);
+            if (Files.exists(local) && sha1.equalsIgnoreCase(sha1Of(Files.readAllBytes(local)))) return local;
+
+            byte[] body = download(v.getUrl());
+            if (!sha1.equalsIgnoreCase(sha1Of(body))) {
+                throw new IOException("SHA-1 del JSON de " + versionId + " no coincide con el manifiesto");
             }
+            writeAtomically(cached, body);
+            return cached;
         }
 
+        // entrada sin hash (manifiesto v1 guardado de antes): se baja siempre
+        Path tmp = mcBaseDir.resolve("cache").resolve("version-json").resolve(versionId + ".json");
+        writeAtomically(tmp, download(v.getUrl()));
+        return tmp;
+    }
 
-        if (d.getAssetIndex() == null) {
-            d.setAssetIndex(base.getAssetIndex());
-        }
+    private Path localVersionJson(String versionId) {
+        return mcBaseDir.resolve("versions").resolve(versionId).resolve(versionId + ".json");
+    }
 
+    private Path manifestCacheFile() {
+        return (mcBaseDir != null) ? mcBaseDir.resolve("cache").resolve(MANIFEST_FILE) : null;
+    }
 
-        // mainClass
-        try {
-            var getMain = d.getClass().getMethod("getMainClass");
-            String main = (String) getMain.invoke(d);
-            if (main == null || main.isBlank()) {
-                var baseGetMain = base.getClass().getMethod("getMainClass");
-                String baseMain = (String) baseGetMain.invoke(base);
-                // setMainClass(String) es opcional: si no existe, lo ignoramos
-                try {
-                    var setMain = d.getClass().getMethod("setMainClass", String.class);
-                    setMain.invoke(d, baseMain);
-                } catch (NoSuchMethodException ignored) {}
-            }
-        } catch (ReflectiveOperationException ignored) {}
+    private byte[] download(String url) throws IOException {
+        HttpResponse<byte[]> resp = send(HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT).GET().build());
+        if (resp.statusCode() != 200) throw new IOException("HTTP " + resp.statusCode() + " en " + url);
+        return resp.body();
+    }
 
-        // assets
+    private HttpResponse<byte[]> send(HttpRequest req) throws IOException {
         try {
-            var getAssets = d.getClass().getMethod("getAssets");
-            String assets = (String) getAssets.invoke(d);
-            if (assets == null || assets.isBlank()) {
-                var baseGetAssets = base.getClass().getMethod("getAssets");
-                String baseAssets = (String) baseGetAssets.invoke(base);
-                try {
-                    var setAssets = d.getClass().getMethod("setAssets", String.class);
-                    setAssets.invoke(d, baseAssets);
-                } catch (NoSuchMethodException ignored) {}
-            }
-        } catch (ReflectiveOperationException ignored) {}
+            return http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Descarga interrumpida: " + req.uri());
+        }
+    }
 
-        // minecraftArguments (tweakClass para OptiFine/Forge)
-        try {
-            var getArgs = d.getClass().getMethod("getMinecraftArguments");
-            String args = (String) getArgs.invoke(d);
-            if (args == null || args.isBlank()) {
-                var baseGetArgs = base.getClass().getMethod("getMinecraftArguments");
-                String baseArgs = (String) baseGetArgs.invoke(base);
-                try {
-                    var setArgs = d.getClass().getMethod("setMinecraftArguments", String.class);
-                    setArgs.invoke(d, baseArgs);
-                } catch (NoSuchMethodException ignored) {}
-            }
-        } catch (ReflectiveOperationException ignored) {}
+    private static void writeAtomically(Path target, byte[] data) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(tmp, data);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
 
-        return d;
+    private static String sha1Of(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(data));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 
     /** Verifica que el manifiesto ya se haya cargado antes de acceder a el. */
     private void ensureManifestLoaded() {
-        if (manifest == null) {
+        if (catalog == null) {
             throw new IllegalStateException("Manifest no cargado. Llama primero a fetchManifest().");
         }
     }
@@ -197,6 +503,7 @@ public class VersionManager {
     //  Clases de mapeo JSON
 
 
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class VersionManifest {
         private Latest latest;
         private List<Version> versions;
@@ -208,6 +515,7 @@ public class VersionManager {
         public void setVersions(List<Version> versions) { this.versions = versions; }
     }
 
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Latest {
         private String release;
         private String snapshot;
@@ -219,12 +527,14 @@ public class VersionManager {
         public void setSnapshot(String snapshot) { this.snapshot = snapshot; }
     }
 
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Version {
         private String id;
         private String type;
         private String url;
         private String time;
         private String releaseTime;
+        private String sha1;                   // solo en el manifiesto v2
 
         public String getId() { return id; }
         public void setId(String id) { this.id = id; }
@@ -236,5 +546,7 @@ public class VersionManager {
         public void setTime(String time) { this.time = time; }
         public String getReleaseTime() { return releaseTime; }
         public void setReleaseTime(String releaseTime) { this.releaseTime = releaseTime; }
+        public String getSha1() { return sha1; }
+        public void setSha1(String sha1) { this.sha1 = sha1; }
     }
 }
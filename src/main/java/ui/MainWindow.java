@@ -4,28 +4,48 @@ package ui;
 import core.AuthManager;
 import core.AssetDownloader;
 import core.AssetsManager;
-import core.AssetsManager.AssetIndex;
-import core.AssetsManager.AssetObject;
+import core.ConsoleLog;
 import core.LaunchExecutor;
+import core.LaunchTimings;
+import core.GameInstance;
+import core.InstallQueue;
+import core.JsonStore;
+import core.LauncherEvents;
+import core.LogEvent;
+import core.ResourceSeries;
+import core.SavedServers;
+import core.SelfUpdater;
+import core.ServerMonitor;
+import core.ServerPinger;
+import core.StartupTimings;
+import core.Tasks;
+import core.ThumbnailCache;
+import core.NativesManager;
+import core.Prefetcher;
 import core.ProfileManager;
 import core.ProfileManager.Profile;
-import core.VersionDetails;
+import core.VersionCatalog;
+import core.VersionInstaller;
 import core.VersionManager;
 
+import javafx.animation.AnimationTimer;
 import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableListBase;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -34,10 +54,15 @@ import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.scene.Cursor;
@@ -47,6 +72,7 @@ import javafx.scene.layout.Region;
 import javafx.scene.layout.Priority;
 
 import javafx.util.Duration;
+import javafx.util.StringConverter;
 
 import java.awt.*;
 import java.io.*;
@@ -56,8 +82,10 @@ import java.net.*;
 import java.nio.file.*;
 import java.util.*;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 
@@ -68,10 +96,18 @@ import java.nio.file.Path;
 public class MainWindow extends Application {
 
     private final Path mcBaseDir = computeMcBaseDir();
+    // Se crea con la aplicación: mide desde el inicio del proceso hasta que el login responde
+    private final StartupTimings startup = new StartupTimings();
+    // Managers listos (se inicializan fuera del hilo FX mientras se muestra el login)
+    private CompletableFuture<Void> managersReady;
 
-    private final String SERVER_HOST = "26.68.85.246";
-    private final int SERVER_PORT = 25565;
+    private final String SERVER_ADDRESS = "26.68.85.246:25565";
     private final String SERVER_NAME = "Server AlenyToti";
+    // Estado del servidor propio y de los guardados en servers.dat (Server List Ping)
+    private static final long SERVER_PING_PERIOD_MS = 5000;
+    private static final long SERVER_PING_TIMEOUT_MS = 3000;
+    private ServerMonitor serverMonitor;
+    private Tooltip serverTooltip;
     // — Managers
     private AuthManager authManager;
     private ProfileManager profileManager;
@@ -79,26 +115,51 @@ public class MainWindow extends Application {
     private AssetDownloader assetDownloader;
     private AssetsManager assetsManager;
     private LaunchExecutor launchExecutor;
+    private NativesManager nativesManager;
+    private VersionInstaller versionInstaller;
+    private Prefetcher prefetcher;
+    private static final long PREFETCH_BYTES_PER_SEC = 2L * 1024 * 1024;
+    private static final long PREFETCH_DISK_BYTES = 1024L * 1024 * 1024;
 
     // — Estado de sesión y versiones
     private AuthManager.Session session;
-    private List<String> allRemoteVersions = Collections.emptyList();
-    private final Set<String> installedVersions = new HashSet<>();
+    private VersionCatalog versionCatalog;
+    // se agrega desde el hilo de la instalación y se lee desde el FX
+    private final Set<String> installedVersions = ConcurrentHashMap.newKeySet();
 
     // — Escenas
     private Scene loginScene, mainScene;
 
-    private VBox thumbsColumn;
+    private ListView<Path> thumbsList;
+    /**
+     * Screenshots de la carpeta, del más nuevo al más viejo. El juego los nombra por fecha
+     * (2024-05-01_18.30.12.png), así que alcanza con ordenar por nombre, sin leer atributos.
+     */
+    private final ObservableList<Path> screenshots = FXCollections.observableArrayList();
+    private static final Comparator<Path> NEWEST_FIRST =
+            Comparator.comparing((Path p) -> p.getFileName().toString()).reversed();
     private ImageView preview;
     private ObjectProperty<Path> current;
 
+    // — Miniaturas: se generan en segundo plano y quedan en disco (cache/thumbnails)
+    private static final int THUMB_WIDTH = 100;
+    private static final int THUMB_HEIGHT = THUMB_WIDTH * 9 / 16;
+    private static final int PREVIEW_WIDTH = 600;
+    /** Vistas previas que se precargan a cada lado de la seleccionada. */
+    private static final int PREVIEW_NEIGHBOURS = 2;
+    private ThumbnailCache thumbnailCache;
+    // LRU de imágenes ya decodificadas; solo se tocan desde el hilo FX
+    private final Map<Path, Image> thumbnailImages = lruCache(512);
+    private final Map<Path, Image> previewImages = lruCache(2 * PREVIEW_NEIGHBOURS + 4);
+    /** Qué screenshot espera cada ImageView de celda; el pool de CPU lo consulta para no trabajar de más. */
+    private final Map<ImageView, Path> thumbnailTargets = new ConcurrentHashMap<>();
+
     // — Login UI
     private TextField usernameField;
     private Button loginButton;
     private Label loginStatusLabel;
 
     private WatchService screenshotWatcher;
-    private Thread screenshotWatcherThread;
 
     private VBox screenshotsPane;
 
@@ -110,11 +171,10 @@ public class MainWindow extends Application {
     // — Panes de contenido
     private VBox homePane, profilesPane, versionsPane, launchPane;
     private VBox consolePane;
+    private StackPane contentStack;
 
     private Button bigPlay;
 
-    private final Set<Path> currentScreenshots = new HashSet<>();
-
     // — Controles sección Perfiles
     private ComboBox<String> profileCombo;
     private Button newProfileBtn, saveProfileBtn, deleteProfileBtn;
@@ -123,72 +183,74 @@ public class MainWindow extends Application {
     // — Controles sección Versiones
     private CheckBox showSnapshotsCheckBox;
     private ComboBox<String> versionCombo;
+    private TextField versionSearchField;
     private Button downloadButton;
     private ProgressBar progressBar;
+    private Button installPauseButton;
+    private Button installCancelButton;
+    private VBox installList;
+    private final Map<String, InstallRow> installRows = new HashMap<>();
+    private final AtomicBoolean installRefreshPending = new AtomicBoolean();
+    private final AtomicInteger installUpdates = new AtomicInteger();   // avisos juntados en el repintado pendiente
+    private InstallQueue installQueue;
+    private boolean installPaused;
+    private boolean installPausedPrefetch;   // la tanda en curso tiene tomado un prefetcher.pause()
     private Label statusLabel;
 
-    private TextArea consoleTextArea;
+    // Salida del juego: cada instancia encola sus eventos y la UI vacía por lotes en cada pulso
+    private static final int CONSOLE_BATCH_LINES = 2000;
+    // Líneas de consola en memoria; las anteriores se leen del archivo de volcado
+    private static final int CONSOLE_MEMORY_LINES = 20_000;
+    private ConsoleLog consoleLog;
+    private ConsoleLines consoleLines;
+    private ListView<Integer> consoleList;
+    private TextField consoleSearchField;
+    private ComboBox<LogEvent.Level> consoleLevelCombo;
+    private CheckBox consoleFollow;
+    private int consoleFilterGeneration;
+    // instancias en ejecución (o con log pendiente); solo se toca desde el hilo FX
+    private final List<GameInstance> gameInstances = new ArrayList<>();
+    private AnimationTimer consoleDrainer;
+    // Panel de recursos: muestra la última instancia lanzada
+    private GameInstance monitoredInstance;
+    private Canvas cpuSpark, rssSpark, threadsSpark;
+    private Label cpuLabel, rssLabel, threadsLabel;
     // Controles sección Lanzamiento
     private TextField ramField;
     private Button launchButton;
+    private Label launchStatsLabel;
     private Label serverLabel;
     private Label pingLabel;
 
     private Button openDirButton;
     private Button updateButton;
+    private SelfUpdater selfUpdater;
 
     public static void main(String[] args) {
         launch();
     }
 
     @Override
-    public void start(Stage stage) throws URISyntaxException {
-
-        System.out.println("Path final del .exe: " + getExePath());
-        try {
-            Path iconoTemp = extraerRecursoComoArchivoTemporal("/ui/icon.ico", "icono");
-
-            ShortcutCreator.crearAccesoDirecto(
-                    "YaguaLauncher",
-                    Path.of(getExePath()),
-                    iconoTemp
-            );
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public void start(Stage stage) {
+        startup.mark("fx-start");
 
+        // Nada de esto hace falta para mostrar el login: corre en paralelo mientras se pinta
+        CompletableFuture.runAsync(this::createDesktopShortcut, Tasks.io());
+        managersReady = initManagersAsync();
 
-        String fontPath = "/ui/fonts/Rubik-Bold.ttf";
-        InputStream fontStream = getClass().getResourceAsStream(fontPath);
-        if (fontStream == null) {
-            System.err.println("¡No hallo la fuente en: " + fontPath + "!");
+        var fontUrl = getClass().getResource("/ui/fonts/Rubik-Bold.ttf");
+        if (fontUrl == null) {
+            System.err.println("¡No hallo la fuente en: /ui/fonts/Rubik-Bold.ttf!");
         } else {
-            Font loadedFont = Font.loadFont(fontStream, 12);
-            System.out.println("Cargada familia: " + loadedFont.getFamily());
+            Font.loadFont(fontUrl.toExternalForm(), 12);
         }
 
         stage.initStyle(StageStyle.UNDECORATED);
 
-        var fontUrl = getClass().getResource("/ui/fonts/Rubik-Bold.ttf");
-        if (fontUrl != null) Font.loadFont(fontUrl.toExternalForm(), 12);
-
-        // Inicializa managers
-        authManager = new AuthManager();
-        profileManager = new ProfileManager(mcBaseDir);
-        versionManager = new VersionManager(mcBaseDir);
-        assetDownloader = new AssetDownloader();
-        assetsManager = new AssetsManager(mcBaseDir.resolve("assets"));
-        String javaHome = System.getenv("JAVA_HOME");
-        if (javaHome == null) javaHome = System.getProperty("java.home");
-        launchExecutor = new LaunchExecutor(javaHome, versionManager);
-
-        // Construye escenas
+        // Solo el login; la escena principal se arma al entrar
         loginScene = buildLoginScene(stage);
-        mainScene = buildMainScene(stage);
+        startup.mark("login-scene");
 
-        stage.setWidth(1024);
-        stage.setHeight(600);
-        // Muestra login
         stage.setScene(loginScene);
         stage.setTitle("YaguaLauncher");
         stage.setWidth(854);
@@ -196,69 +258,413 @@ public class MainWindow extends Application {
         stage.centerOnScreen();
         stage.setResizable(true);
         stage.show();
-        maybeShowUpdatedToast();
-    }
+        startup.mark("shown");
 
-    public static class Server {
-        private final String name;
-        private final String address;
-        public final SimpleStringProperty latency = new SimpleStringProperty("…");
+        // el segundo pulso ya tiene el primer frame pintado
+        new AnimationTimer() {
+            private int frames;
 
-        public Server(String name, String address) {
-            this.name = name;
-            this.address = address;
-        }
+            @Override
+            public void handle(long now) {
+                if (++frames < 2) return;
+                stop();
+                startup.mark("first-frame");
+                Path log = mcBaseDir.resolve("logs").resolve(StartupTimings.LOG_FILE);
+                CompletableFuture.runAsync(() -> startup.finish("interactive", log), Tasks.io());
+                maybeShowUpdatedToast();
+            }
+        }.start();
+    }
+
+    /**
+     * Crea los managers en paralelo fuera del hilo FX (cargar Jackson, HttpClient y los
+     * perfiles cuesta bastante más que pintar el login). El login espera a que terminen.
+     */
+    private CompletableFuture<Void> initManagersAsync() {
+        CompletableFuture<Void> auth = CompletableFuture.runAsync(() -> authManager = new AuthManager(), Tasks.io());
+        CompletableFuture<Void> profiles = CompletableFuture.runAsync(() -> profileManager = new ProfileManager(mcBaseDir), Tasks.io());
+        CompletableFuture<Void> versions = CompletableFuture.runAsync(() -> {
+            versionManager = new VersionManager(mcBaseDir);
+            assetDownloader = new AssetDownloader();
+            assetsManager = new AssetsManager(mcBaseDir.resolve("assets"));
+            nativesManager = new NativesManager(mcBaseDir);
+            versionInstaller = new VersionInstaller(mcBaseDir, versionManager, assetDownloader, assetsManager, nativesManager);
+            prefetcher = new Prefetcher(mcBaseDir, versionManager, nativesManager,
+                    PREFETCH_BYTES_PER_SEC, PREFETCH_DISK_BYTES);
+            String javaHome = System.getenv("JAVA_HOME");
+            if (javaHome == null) javaHome = System.getProperty("java.home");
+            launchExecutor = new LaunchExecutor(javaHome, versionManager);
+        }, Tasks.io());
+        return CompletableFuture.allOf(auth, profiles, versions)
+                .whenComplete((v, ex) -> startup.mark("managers"));
+    }
 
+    private void createDesktopShortcut() {
+        try {
+            System.out.println("Path final del .exe: " + getExePath());
+            Path iconoTemp = extraerRecursoComoArchivoTemporal("/ui/icon.ico", "icono");
 
+            ShortcutCreator.crearAccesoDirecto(
+                    "YaguaLauncher",
+                    Path.of(getExePath()),
+                    iconoTemp
+            );
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
 
-    private ObservableList<Server> loadServers() {
+    /** El log de la consola y su vaciado existen desde el inicio, aunque la vista no se haya abierto. */
+    private void initConsoleLog() {
+        consoleLog = new ConsoleLog(CONSOLE_MEMORY_LINES, Paths.get(System.getProperty("java.io.tmpdir"),
+                "yagua-console-" + ProcessHandle.current().pid() + ".dat"));
+        consoleLines = new ConsoleLines(consoleLog, LogEvent.Level.TRACE, "", null, 0);
 
-        return FXCollections.observableArrayList(
-                new Server("Servidor A", "mc.hypixel.net")
-        );
+        consoleDrainer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (gameInstances.isEmpty()) return;
+                boolean tagged = gameInstances.size() > 1;
+                for (GameInstance gi : gameInstances) {
+                    String tag = tagged ? "[" + gi.getName() + "] " : "";
+                    long dropped = gi.getLogBuffer().takeDropped();
+                    if (dropped > 0) {
+                        consoleLog.append(LogEvent.Level.WARN, tag + "[… " + dropped + " líneas descartadas …]");
+                    }
+                    gi.getLogBuffer().drainTo(ev -> consoleLog.append(ev.level(), tag + ev.format()),
+                            CONSOLE_BATCH_LINES);
+                }
+                if (consoleLines.refresh() && consoleList != null && consoleFollow.isSelected()) {
+                    scrollConsoleToEnd();
+                }
+                gameInstances.removeIf(gi -> gi.onExit().isDone() && gi.getLogBuffer().isEmpty());
+            }
+        };
+        consoleDrainer.start();
     }
 
     private void buildConsolePane() {
-        consoleTextArea = new TextArea();
-        consoleTextArea.setEditable(false);
-        consoleTextArea.getStyleClass().add("console-text-area");
-
-        consoleTextArea.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        // Virtualizada: solo se arman (y se leen) las filas visibles, sea cual sea el largo del log
+        consoleList = new ListView<>(consoleLines);
+        consoleList.getStyleClass().addAll("console-text-area", "console-list");
+        consoleList.setFixedCellSize(18);
+        consoleList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        consoleList.setCellFactory(lv -> new ConsoleCell());
+        consoleList.setOnKeyPressed(e -> {
+            if (e.isShortcutDown() && e.getCode() == KeyCode.C) copyConsoleSelection();
+        });
+        // subir con la rueda deja de seguir la salida; se retoma con la casilla
+        consoleList.addEventFilter(ScrollEvent.SCROLL, e -> {
+            if (e.getDeltaY() > 0) consoleFollow.setSelected(false);
+        });
+        consoleList.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        VBox.setVgrow(consoleList, Priority.ALWAYS);
+
+        consoleSearchField = new TextField();
+        consoleSearchField.setPromptText("Buscar en la consola…");
+        HBox.setHgrow(consoleSearchField, Priority.ALWAYS);
+        PauseTransition searchDelay = new PauseTransition(Duration.millis(250));
+        searchDelay.setOnFinished(e -> applyConsoleFilter());
+        consoleSearchField.textProperty().addListener((obs, oldV, newV) -> searchDelay.playFromStart());
+
+        consoleLevelCombo = new ComboBox<>(FXCollections.observableArrayList(LogEvent.Level.values()));
+        consoleLevelCombo.setValue(LogEvent.Level.TRACE);
+        consoleLevelCombo.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(LogEvent.Level l) {
+                if (l == null) return "";
+                return l == LogEvent.Level.TRACE ? "Todos los niveles" : l + " o más";
+            }
 
-        ScrollPane sp = new ScrollPane(consoleTextArea);
-        sp.getStyleClass().add("console-scroll-pane");
-        sp.setFitToWidth(true);
-        sp.setFitToHeight(true);
+            @Override
+            public LogEvent.Level fromString(String s) {
+                return null;
+            }
+        });
+        consoleLevelCombo.setOnAction(e -> applyConsoleFilter());
 
-        sp.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-        VBox.setVgrow(sp, Priority.ALWAYS);
+        consoleFollow = new CheckBox("Seguir salida");
+        consoleFollow.setSelected(true);
+        consoleFollow.selectedProperty().addListener((obs, oldV, on) -> {
+            if (on) scrollConsoleToEnd();
+        });
 
-        consolePane = new VBox(sp);
+        HBox consoleBar = new HBox(8, consoleSearchField, consoleLevelCombo, consoleFollow);
+        consoleBar.setAlignment(Pos.CENTER_LEFT);
+
+        cpuSpark = new Canvas(160, 32);
+        rssSpark = new Canvas(160, 32);
+        threadsSpark = new Canvas(160, 32);
+        cpuLabel = new Label("CPU –");
+        rssLabel = new Label("RAM –");
+        threadsLabel = new Label("Hilos –");
+
+        Button exportCsvBtn = new Button("Exportar CSV");
+        exportCsvBtn.setOnAction(e -> exportResourcesCsv());
+
+        Region barSpacer = new Region();
+        HBox.setHgrow(barSpacer, Priority.ALWAYS);
+        HBox resourcesBar = new HBox(12,
+                new VBox(2, cpuLabel, cpuSpark),
+                new VBox(2, rssLabel, rssSpark),
+                new VBox(2, threadsLabel, threadsSpark),
+                barSpacer,
+                exportCsvBtn);
+        resourcesBar.setAlignment(Pos.CENTER_LEFT);
+        resourcesBar.getStyleClass().add("resources-bar");
+
+        Timeline resourcesTimer = new Timeline(
+                new KeyFrame(Duration.seconds(1), e -> refreshResourcesPanel()));
+        resourcesTimer.setCycleCount(Timeline.INDEFINITE);
+        resourcesTimer.play();
+
+        consolePane = new VBox(8, resourcesBar, consoleBar, consoleList);
         consolePane.getStyleClass().add("console-pane");
         consolePane.setPadding(new Insets(10));
 
         consolePane.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
         VBox.setVgrow(consolePane, Priority.ALWAYS);
+
+        scrollConsoleToEnd();
     }
 
-    private void pingServer() {
-        new Thread(() -> {
-            try (var socket = new Socket()) {
-                long start = System.currentTimeMillis();
-                socket.connect(new InetSocketAddress(SERVER_HOST, SERVER_PORT), 1000);
-                long ms = System.currentTimeMillis() - start;
-                Platform.runLater(() -> {
-                    pingLabel.setText(ms + " ms");
-                    serverStatusCircle.setFill(Color.LIMEGREEN);
-                });
-            } catch (IOException ex) {
-                Platform.runLater(() -> {
-                    pingLabel.setText("offline");
-                    serverStatusCircle.setFill(Color.RED);
-                });
+    /**
+     * Rearma la vista con el filtro actual. Sin filtro es inmediato; con filtro la búsqueda
+     * corre en segundo plano sobre lo que ya había y lo que llegue mientras tanto se agrega al
+     * aplicar el resultado. Si el filtro cambia antes de terminar, el resultado viejo se descarta.
+     */
+    private void applyConsoleFilter() {
+        LogEvent.Level minLevel = consoleLevelCombo.getValue() != null ? consoleLevelCombo.getValue() : LogEvent.Level.TRACE;
+        String needle = consoleSearchField.getText() != null ? consoleSearchField.getText() : "";
+        int generation = ++consoleFilterGeneration;
+
+        if (minLevel == LogEvent.Level.TRACE && needle.isEmpty()) {
+            showConsoleLines(new ConsoleLines(consoleLog, minLevel, needle, null, 0));
+            return;
+        }
+        int upTo = consoleLog.size();
+        Task<int[]> t = new Task<>() {
+            @Override
+            protected int[] call() {
+                return consoleLog.find(minLevel, needle, 0, upTo);
             }
-        }, "Ping-Server").start();
+        };
+        t.setOnSucceeded(e -> {
+            if (generation != consoleFilterGeneration) return;
+            showConsoleLines(new ConsoleLines(consoleLog, minLevel, needle, t.getValue(), upTo));
+        });
+        Tasks.background("Console-Filter", t);
+    }
+
+    private void showConsoleLines(ConsoleLines lines) {
+        lines.refresh();
+        consoleLines = lines;
+        consoleList.setItems(lines);
+        if (consoleFollow.isSelected()) scrollConsoleToEnd();
+    }
+
+    private void scrollConsoleToEnd() {
+        if (!consoleLines.isEmpty()) consoleList.scrollTo(consoleLines.size() - 1);
+    }
+
+    private void copyConsoleSelection() {
+        StringBuilder sb = new StringBuilder();
+        for (Integer i : consoleList.getSelectionModel().getSelectedItems()) {
+            sb.append(consoleLog.text(i)).append('\n');
+        }
+        if (sb.length() == 0) return;
+        ClipboardContent content = new ClipboardContent();
+        content.putString(sb.toString());
+        Clipboard.getSystemClipboard().setContent(content);
+    }
+
+    /**
+     * Lo que muestra la ListView de la consola: índices de {@link ConsoleLog}, sin copiar texto.
+     * Sin filtro es la identidad 0..n-1 y no guarda nada; con filtro guarda solo los índices que
+     * coinciden. Solo crece (el log nunca borra líneas); cambiar el filtro arma una nueva.
+     */
+    private static final class ConsoleLines extends ObservableListBase<Integer> {
+        private final ConsoleLog log;
+        private final LogEvent.Level minLevel;
+        private final String needle;
+        private final boolean filtered;
+        private int[] matches;
+        private int count;
+        private int scanned;   // líneas del log ya revisadas
+
+        ConsoleLines(ConsoleLog log, LogEvent.Level minLevel, String needle, int[] matches, int scanned) {
+            this.log = log;
+            this.minLevel = minLevel;
+            this.needle = needle;
+            this.filtered = minLevel != LogEvent.Level.TRACE || !needle.isEmpty();
+            this.matches = (matches != null) ? matches : new int[64];
+            this.count = (matches != null) ? matches.length : 0;
+            this.scanned = scanned;
+        }
+
+        @Override
+        public Integer get(int i) {
+            if (i < 0 || i >= size()) throw new IndexOutOfBoundsException(i);
+            return filtered ? matches[i] : i;
+        }
+
+        @Override
+        public int size() {
+            return filtered ? count : scanned;
+        }
+
+        /** Incorpora las líneas que llegaron al log; true si la vista creció. */
+        boolean refresh() {
+            int n = log.size();
+            if (n == scanned) return false;
+            int before = size();
+            if (filtered) {
+                for (int i = scanned; i < n; i++) {
+                    if (!log.matches(i, minLevel, needle)) continue;
+                    if (count == matches.length) matches = Arrays.copyOf(matches, Math.max(64, count * 2));
+                    matches[count++] = i;
+                }
+            }
+            scanned = n;
+            if (size() == before) return false;
+            beginChange();
+            nextAdd(before, size());
+            endChange();
+            return true;
+        }
+    }
+
+    /** Una fila de la consola; el color depende del nivel. */
+    private final class ConsoleCell extends ListCell<Integer> {
+        @Override
+        protected void updateItem(Integer idx, boolean empty) {
+            super.updateItem(idx, empty);
+            getStyleClass().removeAll("console-warn", "console-error");
+            if (empty || idx == null) {
+                setText(null);
+                return;
+            }
+            setText(consoleLog.text(idx));
+            LogEvent.Level level = consoleLog.level(idx);
+            if (level.compareTo(LogEvent.Level.ERROR) >= 0) getStyleClass().add("console-error");
+            else if (level == LogEvent.Level.WARN) getStyleClass().add("console-warn");
+        }
+    }
+
+    private void refreshResourcesPanel() {
+        if (monitoredInstance == null || !consolePane.isVisible()) return;
+        List<ResourceSeries.Sample> samples = monitoredInstance.getResources().snapshot();
+        if (samples.isEmpty()) return;
+
+        int n = samples.size();
+        double[] cpu = new double[n], rss = new double[n], threads = new double[n];
+        for (int i = 0; i < n; i++) {
+            ResourceSeries.Sample s = samples.get(i);
+            cpu[i] = Math.max(0, s.cpuPercent());
+            rss[i] = Math.max(0, s.rssBytes()) / (1024.0 * 1024.0);
+            threads[i] = Math.max(0, s.threads());
+        }
+        drawSparkline(cpuSpark, cpu, Color.web("#7CFC00"));
+        drawSparkline(rssSpark, rss, Color.web("#00BFFF"));
+        drawSparkline(threadsSpark, threads, Color.web("#FFB000"));
+
+        ResourceSeries.Sample last = samples.get(n - 1);
+        String who = monitoredInstance.getName() + (monitoredInstance.isAlive() ? "" : " (cerrado)");
+        cpuLabel.setText(String.format("CPU %.0f%% · %s", Math.max(0, last.cpuPercent()), who));
+        rssLabel.setText(last.rssBytes() >= 0 ? String.format("RAM %.0f MB", rss[n - 1]) : "RAM n/d");
+        threadsLabel.setText(last.threads() >= 0 ? "Hilos " + last.threads() : "Hilos n/d");
+    }
+
+    private void drawSparkline(Canvas canvas, double[] values, Color color) {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double w = canvas.getWidth(), h = canvas.getHeight();
+        g.clearRect(0, 0, w, h);
+        if (values.length < 2) return;
+
+        double max = 0;
+        for (double v : values) max = Math.max(max, v);
+        if (max <= 0) max = 1;
+
+        double[] xs = new double[values.length], ys = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            xs[i] = w * i / (values.length - 1);
+            ys[i] = h - 1 - (h - 2) * values[i] / max;
+        }
+        g.setStroke(color);
+        g.setLineWidth(1.2);
+        g.strokePolyline(xs, ys, values.length);
+    }
+
+    private void exportResourcesCsv() {
+        if (monitoredInstance == null) {
+            new Alert(Alert.AlertType.INFORMATION, "Todavía no se lanzó ninguna instancia.").showAndWait();
+            return;
+        }
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Exportar recursos");
+        fc.setInitialFileName("recursos-" + monitoredInstance.getName().replace('#', '-') + ".csv");
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File target = fc.showSaveDialog(consolePane.getScene().getWindow());
+        if (target == null) return;
+        try {
+            monitoredInstance.exportResourcesCsv(target.toPath());
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "No pude exportar el CSV:\n" + ex.getMessage()).showAndWait();
+        }
+    }
+
+    /**
+     * Pingea el servidor propio y los guardados en servers.dat cada {@link #SERVER_PING_PERIOD_MS},
+     * todos a la vez. La lista guardada se relee en cada ronda por si el juego la cambió.
+     */
+    private void startServerMonitor() {
+        ServerMonitor.Server own = new ServerMonitor.Server(SERVER_NAME, ServerPinger.Address.parse(SERVER_ADDRESS));
+        try {
+            serverMonitor = new ServerMonitor(() -> {
+                List<ServerMonitor.Server> list = new ArrayList<>();
+                list.add(own);
+                list.addAll(SavedServers.read(mcBaseDir));
+                return list;
+            }, SERVER_PING_PERIOD_MS, SERVER_PING_TIMEOUT_MS, e -> Platform.runLater(() -> showServerStatus(e)));
+            serverMonitor.start();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            pingLabel.setText("offline");
+        }
+    }
+
+    private void showServerStatus(ServerMonitor.Entry entry) {
+        ServerPinger.Status st = entry.getLast();
+        if (entry.getServer().name().equals(SERVER_NAME) && st != null) {
+            if (st.online()) {
+                String players = st.playersMax() >= 0 ? " · " + st.playersOnline() + "/" + st.playersMax() : "";
+                pingLabel.setText(st.latencyMs() + " ms" + players);
+                serverStatusCircle.setFill(Color.LIMEGREEN);
+            } else {
+                pingLabel.setText("offline");
+                serverStatusCircle.setFill(Color.RED);
+            }
+        }
+
+        // el tooltip resume todos: último ping, mediana del historial, jugadores y versión
+        StringBuilder sb = new StringBuilder();
+        for (ServerMonitor.Entry e : serverMonitor.entries()) {
+            ServerPinger.Status s = e.getLast();
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(e.getServer().name()).append(" (").append(e.getServer().address()).append("): ");
+            if (s == null) {
+                sb.append("…");
+            } else if (!s.online()) {
+                sb.append("offline");
+            } else {
+                sb.append(s.latencyMs()).append(" ms (mediana ").append(e.medianLatency()).append(" ms)");
+                if (s.playersMax() >= 0) sb.append(" · ").append(s.playersOnline()).append('/').append(s.playersMax());
+                if (s.version() != null) sb.append(" · ").append(s.version());
+                if (s.motd() != null && !s.motd().isEmpty()) sb.append("\n    ").append(s.motd().replace('\n', ' '));
+            }
+        }
+        serverTooltip.setText(sb.toString());
     }
 
     private Scene buildLoginScene(Stage stage) {
@@ -292,6 +698,27 @@ public class MainWindow extends Application {
                 return;
             }
 
+            // Los managers se crean en segundo plano desde start(): si todavía no están, se
+            // reintenta cuando terminen
+            if (!managersReady.isDone()) {
+                loginButton.setDisable(true);
+                loginStatusLabel.setText("Cargando…");
+                managersReady.whenComplete((v, ex) -> Platform.runLater(() -> {
+                    loginButton.setDisable(false);
+                    loginStatusLabel.setText("");
+                    loginButton.fire();
+                }));
+                return;
+            }
+            if (managersReady.isCompletedExceptionally()) {
+                loginStatusLabel.setText("No se pudo inicializar el launcher (ver consola).");
+                managersReady.exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return null;
+                });
+                return;
+            }
+
             // Login offline
             session = authManager.loginOffline(user);
             try {
@@ -335,10 +762,10 @@ public class MainWindow extends Application {
 
         loginButton.setMaxWidth(Double.MAX_VALUE);
 
-        // Fondo
-        InputStream bgStream = getClass().getResourceAsStream("/ui/images/login_bg.jpg");
-        ImageView bgView = (bgStream != null)
-                ? new ImageView(new Image(bgStream))
+        // Fondo: se decodifica en segundo plano y aparece apenas está
+        var bgUrl = getClass().getResource("/ui/images/login_bg.jpg");
+        ImageView bgView = (bgUrl != null)
+                ? new ImageView(new Image(bgUrl.toExternalForm(), true))
                 : new ImageView();
         bgView.setPreserveRatio(false);
 
@@ -359,9 +786,6 @@ public class MainWindow extends Application {
 
     private Scene buildMainScene(Stage stage) {
 
-        stage.initStyle(StageStyle.UNDECORATED);
-
-
         navHome = makeNavButton("/ui/icons/home.png");
         navProfiles = makeNavButton("/ui/icons/user.png");
         navVersions = makeNavButton("/ui/icons/versions.png");
@@ -380,20 +804,23 @@ public class MainWindow extends Application {
         navBar.getStyleClass().add("nav-bar");
 
 
+        // Inicio, perfiles, versiones y lanzamiento son pocos controles y se usan entre sí
+        // (JUGAR lee la versión y la RAM): van siempre. Consola y screenshots se arman
+        // la primera vez que se abren.
         buildHomePane();
         buildProfilesPane();
         buildVersionsPane();
         buildLaunchPane();
-        buildConsolePane();
-        buildScreenshotsPane();
-        StackPane content = new StackPane(homePane, profilesPane, versionsPane, launchPane, consolePane, screenshotsPane);
+        initConsoleLog();
+        contentStack = new StackPane(homePane, profilesPane, versionsPane, launchPane);
+        StackPane content = contentStack;
         showOnly(homePane);
         navHome.setOnAction(e -> showOnly(homePane));
         navProfiles.setOnAction(e -> showOnly(profilesPane));
         navVersions.setOnAction(e -> showOnly(versionsPane));
         navLaunch.setOnAction(e -> showOnly(launchPane));
-        navConsole.setOnAction(e -> showOnly(consolePane));
-        navScreenshots.setOnAction(e -> showOnly(screenshotsPane));
+        navConsole.setOnAction(e -> showOnly(consolePane()));
+        navScreenshots.setOnAction(e -> showOnly(screenshotsPane()));
 
 
 
@@ -414,6 +841,8 @@ public class MainWindow extends Application {
         serverBox.getStyleClass().add("server-status-box");
         serverBox.setAlignment(Pos.CENTER_RIGHT);
         serverBox.setPadding(new Insets(5, 15, 5, 15));
+        serverTooltip = new Tooltip("…");
+        Tooltip.install(serverBox, serverTooltip);
 
 
         BorderPane mainPane = new BorderPane();
@@ -471,13 +900,7 @@ public class MainWindow extends Application {
         scene.getStylesheets().add(getClass().getResource("/ui/styles.css").toExternalForm());
 
 
-        Timeline pingTimer = new Timeline(
-                new KeyFrame(Duration.ZERO,
-                        e -> pingServer()),
-                new KeyFrame(Duration.seconds(5))
-        );
-        pingTimer.setCycleCount(Timeline.INDEFINITE);
-        pingTimer.play();
+        startServerMonitor();
 
         LauncherPrefs prefs = loadPrefs();
         applyPrefsToUI(prefs);
@@ -492,7 +915,13 @@ public class MainWindow extends Application {
             ramField.textProperty().addListener((obs,o,n) -> savePrefs(collectPrefsFromUI()));
 
 
-        stage.setOnCloseRequest(e -> savePrefs(collectPrefsFromUI()));
+        stage.setOnCloseRequest(e -> {
+            savePrefs(collectPrefsFromUI());
+            prefsStore().close();
+            if (profileManager != null) profileManager.close();
+            if (consoleLog != null) consoleLog.close();
+            if (serverMonitor != null) serverMonitor.close();
+        });
 
         stage.setResizable(false);
         stage.setFullScreen(false);
@@ -505,7 +934,7 @@ public class MainWindow extends Application {
 
 
     private void startCssWatcher(Path cssFile, Scene scene) {
-        Thread watcher = new Thread(() -> {
+        Tasks.background("CSS-Watcher", () -> {
             try {
                 WatchService ws = FileSystems.getDefault().newWatchService();
                 cssFile.getParent().register(ws,
@@ -526,9 +955,7 @@ public class MainWindow extends Application {
             } catch (Exception e) {
                 e.printStackTrace();
             }
-        }, "CSS-Watcher");
-        watcher.setDaemon(true);
-        watcher.start();
+        });
     }
 
     private void crearAccesoDirectoEscritorio() {
@@ -580,13 +1007,29 @@ public class MainWindow extends Application {
     }
 
     private void showOnly(Region pane) {
-        homePane.setVisible(false);
-        profilesPane.setVisible(false);
-        versionsPane.setVisible(false);
-        launchPane.setVisible(false);
-        consolePane.setVisible(false);
-        screenshotsPane.setVisible(false);
-        pane.setVisible(true);
+        for (Node n : contentStack.getChildren()) n.setVisible(n == pane);
+    }
+
+    private VBox consolePane() {
+        if (consolePane == null) {
+            buildConsolePane();
+            addLazyPane(consolePane, "consola");
+        }
+        return consolePane;
+    }
+
+    private VBox screenshotsPane() {
+        if (screenshotsPane == null) {
+            buildScreenshotsPane();
+            addLazyPane(screenshotsPane, "screenshots");
+        }
+        return screenshotsPane;
+    }
+
+    /** Las secciones se arman al abrirlas por primera vez; el hito queda en {@link #startup}. */
+    private void addLazyPane(Region pane, String name) {
+        contentStack.getChildren().add(pane);
+        startup.mark("pane-" + name);
     }
 
     private void buildHomePane() {
@@ -651,18 +1094,31 @@ public class MainWindow extends Application {
         h.getStyleClass().add("section-header");
         showSnapshotsCheckBox = new CheckBox("Mostrar snapshots");
         versionCombo = new ComboBox<>();
+        versionSearchField = new TextField();
+        versionSearchField.setPromptText("Buscar versión…");
+        versionSearchField.setPrefWidth(130);
+        versionSearchField.getStyleClass().add("text-field");
         downloadButton = new Button("Descargar versión");
-        HBox row = new HBox(8, showSnapshotsCheckBox, versionCombo, downloadButton);
+        HBox row = new HBox(8, showSnapshotsCheckBox, versionSearchField, versionCombo, downloadButton);
         row.getStyleClass().add("section-row");
 
         progressBar = new ProgressBar(0);
+        installPauseButton = new Button("Pausar");
+        installCancelButton = new Button("Cancelar");
+        installPauseButton.setOnAction(e -> toggleInstallPause());
+        installCancelButton.setOnAction(e -> cancelInstall());
+        HBox progressRow = new HBox(8, progressBar, installPauseButton, installCancelButton);
+        progressRow.setAlignment(Pos.CENTER_LEFT);
+        showInstallControls(false);
+        installList = new VBox(4);
         statusLabel = new Label(" ");
 
-        versionsPane = new VBox(12, h, row, progressBar, statusLabel);
+        versionsPane = new VBox(12, h, row, progressRow, installList, statusLabel);
         versionsPane.setPadding(new Insets(20));
         versionsPane.getStyleClass().add("section-pane");
 
         showSnapshotsCheckBox.setOnAction(e -> refreshVersionList());
+        versionSearchField.textProperty().addListener((obs, o, n) -> refreshVersionList());
         versionCombo.getSelectionModel().selectedItemProperty()
                 .addListener((obs, o, n) -> onVersionSelected(n));
         downloadButton.setOnAction(e -> downloadVersionAssets());
@@ -686,6 +1142,11 @@ public class MainWindow extends Application {
         row.getStyleClass().add("section-row");
         row.setAlignment(Pos.CENTER_LEFT);
 
+        // p50/p95 de los últimos arranques de la versión elegida
+        launchStatsLabel = new Label();
+        launchStatsLabel.getStyleClass().add("launch-stats");
+        launchStatsLabel.setWrapText(true);
+
 
         openDirButton = new Button("Abrir carpeta de juego");
         openDirButton.getStyleClass().add("open-dir-button");
@@ -724,6 +1185,7 @@ public class MainWindow extends Application {
         launchPane = new VBox(12,
                 h,
                 row,
+                launchStatsLabel,
                 spacer,
                 bottomRow
         );
@@ -788,15 +1250,9 @@ public class MainWindow extends Application {
     }
 
     private void scanInstalledVersions() {
-        installedVersions.clear();
-        try (DirectoryStream<Path> ds = Files.newDirectoryStream(mcBaseDir.resolve("versions"))) {
-            for (Path v : ds) {
-                if (Files.isDirectory(v) && Files.exists(v.resolve(v.getFileName() + ".jar"))) {
-                    installedVersions.add(v.getFileName().toString());
-                }
-            }
-        } catch (IOException ignored) {
-        }
+        Set<String> found = versionInstaller.scanInstalled();
+        installedVersions.retainAll(found);
+        installedVersions.addAll(found);
     }
 
     private void createNewProfile() {
@@ -851,38 +1307,60 @@ public class MainWindow extends Application {
         downloadButton.setDisable(true);
         showSnapshotsCheckBox.setDisable(true);
 
-        Task<List<String>> t = new Task<>() {
+        Task<VersionCatalog> t = new Task<>() {
             @Override
-            protected List<String> call() throws Exception {
-                versionManager.fetchManifest();
-                return versionManager.getVersionsIds();
+            protected VersionCatalog call() throws Exception {
+                // primero el manifiesto guardado: la lista aparece al instante aun sin red
+                if (!versionManager.loadCachedManifest()) versionManager.fetchManifest();
+                return versionManager.getCatalog();
             }
         };
         t.setOnSucceeded(evt -> {
-            allRemoteVersions = t.getValue();
+            versionCatalog = t.getValue();
             showSnapshotsCheckBox.setDisable(false);
             refreshVersionList();
+            requestPrefetch();
+            if (versionManager.isManifestFromCache()) revalidateManifest();
         });
         t.setOnFailed(evt -> statusLabel.setText("Error cargando versiones"));
-        new Thread(t) {{
-            setDaemon(true);
-        }}.start();
+        Tasks.background("Load-Versions", t);
+    }
+
+    /** Revalida en segundo plano el manifiesto servido desde disco y refresca la lista si cambió. */
+    private void revalidateManifest() {
+        versionManager.refreshManifestAsync().whenComplete((changed, ex) -> {
+            if (ex != null || !changed) return;
+            Platform.runLater(() -> {
+                versionCatalog = versionManager.getCatalog();
+                refreshVersionList();
+                requestPrefetch();
+            });
+        });
     }
 
+    /** Filtra con los índices del catálogo (tipo + prefijo); conserva la selección si sigue en la lista. */
     private void refreshVersionList() {
+        if (versionCatalog == null) return;
+        Set<String> types = showSnapshotsCheckBox.isSelected()
+                ? Set.of(VersionCatalog.RELEASE, VersionCatalog.SNAPSHOT)
+                : Set.of(VersionCatalog.RELEASE);
+        String prefix = versionSearchField.getText().trim();
+
         List<String> items = new ArrayList<>();
-        boolean snap = showSnapshotsCheckBox.isSelected();
-        for (String id : allRemoteVersions) {
-            if (id.matches("\\d+(?:\\.\\d+)*") ||
-                    (snap && id.matches("\\d{2}w\\d{2}[a-z]"))) {
-                items.add(id);
-            }
+        for (VersionManager.Version v : versionCatalog.search(prefix, types)) {
+            items.add(v.getId());
         }
+        // versiones locales que no están en el manifiesto (OptiFine, Fabric...)
+        String lower = prefix.toLowerCase(Locale.ROOT);
         for (String loc : installedVersions) {
-            if (!items.contains(loc)) items.add(loc);
+            if (!versionCatalog.contains(loc) && loc.toLowerCase(Locale.ROOT).startsWith(lower)) items.add(loc);
         }
+
+        String selected = versionCombo.getValue();
         versionCombo.getItems().setAll(items);
-        if (!items.isEmpty()) {
+        if (selected != null && items.contains(selected)) {
+            versionCombo.setValue(selected);
+        } else if (!items.isEmpty()) {
             versionCombo.getSelectionModel().selectFirst();
         }
         versionCombo.setDisable(false);
@@ -891,10 +1369,56 @@ public class MainWindow extends Application {
     private void onVersionSelected(String ver) {
         if (ver == null) return;
         boolean inst = installedVersions.contains(ver);
-        downloadButton.setDisable(inst);
+        InstallQueue.Job job = (installQueue != null) ? installQueue.jobs().stream()
+                .filter(j -> j.getVersion().equals(ver) && !j.isFinished()).findFirst().orElse(null) : null;
+        downloadButton.setDisable(inst || job != null);
+        downloadButton.setText(versionInstaller.isPartial(ver) ? "Reanudar descarga" : "Descargar versión");
         launchButton.setDisable(!inst);
+        if (!inst) prefetcher.request(ver);
+        refreshLaunchStats(ver);
+    }
+
+    private static final Map<String, String> PHASE_LABELS = Map.of(
+            LaunchTimings.CLASSPATH, "preparación",
+            LaunchTimings.SPAWN, "proceso",
+            LaunchTimings.FIRST_OUTPUT, "primera salida",
+            LaunchTimings.LWJGL, "LWJGL",
+            LaunchTimings.OPENGL, "OpenGL",
+            LaunchTimings.SOUND, "sonido");
+
+    /** Resume el historial de arranques de la versión (ms desde que se pulsó lanzar). */
+    private void refreshLaunchStats(String ver) {
+        if (launchStatsLabel == null || ver == null) return;
+        List<LaunchTimings.PhaseStats> stats = LaunchTimings.summarize(
+                LaunchTimings.loadHistory(LaunchExecutor.timingsHistory(mcBaseDir.toFile()))).get(ver);
+        if (stats == null || stats.isEmpty()) {
+            launchStatsLabel.setText("");
+            return;
+        }
+        StringBuilder sb = new StringBuilder("Arranque (p50 / p95, " + stats.get(0).count() + " lanzamientos): ");
+        String sep = "";
+        for (LaunchTimings.PhaseStats st : stats) {
+            String label = PHASE_LABELS.get(st.phase());
+            if (label == null) continue;
+            sb.append(sep).append(label).append(' ')
+                    .append(String.format("%.1f s / %.1f s", st.p50Ms() / 1000.0, st.p95Ms() / 1000.0));
+            sep = " · ";
+        }
+        launchStatsLabel.setText(sb.toString());
     }
 
+    /** Encola las versiones que probablemente se instalen; la última pedida tiene prioridad. */
+    private void requestPrefetch() {
+        for (Profile p : profileManager.getProfiles().values()) {
+            prefetcher.request(p.getVersionId());
+        }
+        prefetcher.request(versionManager.getLatest().getRelease());
+        String selected = versionCombo.getValue();
+        if (selected != null && !installedVersions.contains(selected)) prefetcher.request(selected);
+        prefetcher.start();
+    }
+
+    /** Encola la versión elegida; se pueden encolar varias y se instalan a la vez. */
     private void downloadVersionAssets() {
         String ver = versionCombo.getValue();
         if (ver == null) {
@@ -902,167 +1426,152 @@ public class MainWindow extends Application {
             return;
         }
 
-        Task<Void> task = new Task<>() {
-            @Override
-            protected Void call() throws Exception {
-
-                if (versionManager.getVersions() == null || versionManager.getVersions().isEmpty()) {
-                    versionManager.fetchManifest();
-                }
-
-                // Prepara un directorio "limpio" para la versión
-                Path versionDir = mcBaseDir.resolve("versions").resolve(ver);
-                if (Files.exists(versionDir)) {
-                    try (java.util.stream.Stream<Path> walk = Files.walk(versionDir)) {
-                        walk.sorted(Comparator.reverseOrder()).forEach(p -> {
-                            try { Files.delete(p); } catch (IOException ignored) {}
-                        });
-                    }
-                }
-                Files.createDirectories(versionDir);
-
-                // 2) Localiza la URL del JSON de la versión en el manifest y lo guarda como <ver>.json
-                var versionEntry = versionManager.getVersions().stream()
-                        .filter(v -> v.getId().equals(ver))
-                        .findFirst()
-                        .orElseThrow(() -> new IllegalArgumentException("Versión no encontrada en manifest: " + ver));
-
-                String detailsUrl = versionEntry.getUrl();
-                if (detailsUrl == null || detailsUrl.isBlank()) {
-                    throw new IllegalStateException("No se encontró la URL del JSON para la versión " + ver);
-                }
-
-                Path jsonFile = versionDir.resolve(ver + ".json");
-                updateMessage("Guardando " + ver + ".json");
-                try (InputStream in = new URL(detailsUrl).openStream()) {
-                    Files.copy(in, jsonFile, StandardCopyOption.REPLACE_EXISTING);
-                }
-
-                // obtiene los detalles de la versión (para libs, jar y assets)
-                VersionDetails det = new VersionManager(mcBaseDir).resolveVersionDetails(ver, mcBaseDir);
-
-
-                int libs = det.getLibraries().size();
-                int coreTotal = libs + 1;
-                int coreDone = 0;
-
-                for (var lib : det.getLibraries()) {
-                    var dls = lib.getDownloads();
-                    if (dls == null || dls.getArtifact() == null) continue;
-
-                    String url = dls.getArtifact().getUrl();
-                    String sha = dls.getArtifact().getSha1();
-                    if (url == null || sha == null) continue;
-
-                    Path tgt = mcBaseDir.resolve("libraries")
-                            .resolve(Paths.get(pathFromUrl(url)));
-
-                    updateMessage("Librería: " + tgt.getFileName());
-                    assetDownloader.downloadAndVerify(url, tgt, sha);
-                    updateProgress(++coreDone, coreTotal);
-                }
-
-                // Descarga y extracción de Nativos LWJGL (Windows)
-
-                Path nativesDir = versionDir.resolve(ver + "-natives");
-                if (Files.exists(nativesDir)) {
-                    try (java.util.stream.Stream<Path> walk = Files.walk(nativesDir)) {
-                        walk.sorted(Comparator.reverseOrder()).forEach(p -> {
-                            try { Files.delete(p); } catch (IOException ignored) {}
-                        });
-                    }
-                }
-                Files.createDirectories(nativesDir);
-
-                String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
-                boolean isWindows = os.contains("win");
-
-                for (var lib : det.getLibraries()) {
-                    var dls = lib.getDownloads();
-                    if (dls == null || dls.getClassifiers() == null) continue;
-
-                    for (var entry : dls.getClassifiers().entrySet()) {
-                        String key = entry.getKey();
-                        if (key == null) continue;
-
-                        String k = key.toLowerCase(Locale.ROOT);
-
-                        if (!isWindows || !k.contains("natives-windows")) continue;
-
-                        var nat = entry.getValue();
-                        if (nat == null) continue;
-
-                        String url = nat.getUrl();
-                        String sha = nat.getSha1();
-                        if (url == null || sha == null) continue;
-
-                        // Descargamos el jar de nativos a la carpeta de libraries
-                        Path natJar = mcBaseDir.resolve("libraries")
-                                .resolve(Paths.get(pathFromUrl(url)));
-
-                        updateMessage("Nativos: " + natJar.getFileName());
-                        assetDownloader.downloadAndVerify(url, natJar, sha);
-
-
-                        try (java.util.zip.ZipInputStream zin =
-                                     new java.util.zip.ZipInputStream(Files.newInputStream(natJar))) {
-                            java.util.zip.ZipEntry ze;
-                            while ((ze = zin.getNextEntry()) != null) {
-                                if (ze.isDirectory()) continue;
-                                String name = ze.getName();
-                                if (name.startsWith("META-INF/")) continue;
-
-                                Path out = nativesDir.resolve(Paths.get(name).getFileName().toString());
-                                Files.copy(zin, out, StandardCopyOption.REPLACE_EXISTING);
-                            }
-                        }
-                    }
-                }
+        if (installQueue == null) {
+            installQueue = new InstallQueue(versionInstaller, InstallQueue.DEFAULT_CONCURRENCY, job -> {
+                if (job.getStatus() == InstallQueue.Status.DONE) installedVersions.add(job.getVersion());
+                // llega por cada archivo desde varios hilos: un solo repintado pendiente a la vez
+                installUpdates.incrementAndGet();
+                if (installRefreshPending.compareAndSet(false, true)) Platform.runLater(this::refreshInstalls);
+            });
+        }
+        if (!installQueue.isBusy()) {
+            // tanda nueva: se van las filas de la anterior
+            installQueue.clearFinished();
+            installRows.clear();
+            installList.getChildren().clear();
+            installPaused = false;
+            installPauseButton.setText("Pausar");
+            installPauseButton.setDisable(false);
+            installCancelButton.setDisable(false);
+            showInstallControls(true);
+            // el prefetch no compite por ancho de banda con la descarga real
+            if (!installPausedPrefetch) {
+                installPausedPrefetch = true;
+                prefetcher.pause();
+            }
+        }
+        InstallQueue.Job job = installQueue.submit(ver);
+        if (installPaused) job.getControl().pause();
+        downloadButton.setDisable(true);
+    }
 
+    /** Repinta la lista de instalaciones y el total. Corre en el hilo FX. */
+    private void refreshInstalls() {
+        LauncherEvents.ProgressFlush ev = new LauncherEvents.ProgressFlush();
+        ev.begin();
+        try {
+            paintInstalls();
+        } finally {
+            if (ev.shouldCommit()) {
+                ev.rows = installRows.size();
+                ev.updates = installUpdates.getAndSet(0);
+                ev.progress = installQueue.progress();
+                ev.commit();
+            } else {
+                installUpdates.set(0);
+            }
+        }
+    }
 
-                var cd = det.getClientDownload();
-                Path clientJar = versionDir.resolve(ver + ".jar");
-                updateMessage("Cliente: " + ver + ".jar");
-                assetDownloader.downloadAndVerify(cd.getUrl(), clientJar, cd.getSha1());
-                updateProgress(++coreDone, coreTotal);
+    private void paintInstalls() {
+        installRefreshPending.set(false);
+        for (InstallQueue.Job job : installQueue.jobs()) {
+            InstallRow row = installRows.computeIfAbsent(job.getVersion(), v -> {
+                InstallRow r = new InstallRow(installQueue, job);
+                installList.getChildren().add(r.box);
+                return r;
+            });
+            row.update(job);
+        }
 
+        Map<InstallQueue.Status, Integer> c = installQueue.counts();
+        progressBar.setProgress(installQueue.progress());
+        if (installQueue.isBusy()) {
+            statusLabel.setText(String.format("Instalando %d, en cola %d, listas %d — %.0f %%",
+                    c.get(InstallQueue.Status.RUNNING), c.get(InstallQueue.Status.QUEUED),
+                    c.get(InstallQueue.Status.DONE), installQueue.progress() * 100));
+            return;
+        }
 
-                VersionDetails.AssetIndexInfo aiInfo = det.getAssetIndex();
-                AssetIndex ai = assetsManager.fetchAssetIndex(aiInfo.getUrl(), aiInfo.getId());
-                int totalA = ai.objects.size(), doneA = 0;
-                for (Map.Entry<String, AssetObject> e : ai.objects.entrySet()) {
-                    String objectKey = e.getKey();
-                    String hash = e.getValue().getHash();
-                    updateMessage("Asset " + (++doneA) + "/" + totalA + ": " + objectKey);
-                    assetsManager.downloadSingleAsset(objectKey, hash);
-                    updateProgress(coreDone + doneA, coreTotal + totalA);
-                }
+        // varios repintados pueden ver la tanda terminada: se devuelve una sola vez la pausa
+        // propia; otro resume() le sacaría la suya al juego que esté corriendo
+        if (installPausedPrefetch) {
+            installPausedPrefetch = false;
+            prefetcher.resume();
+        }
+        showInstallControls(false);
+        int failed = c.get(InstallQueue.Status.FAILED), cancelled = c.get(InstallQueue.Status.CANCELLED);
+        if (failed > 0) {
+            statusLabel.setText("Error durante descarga (" + failed + " de " + installQueue.jobs().size() + ")");
+        } else if (cancelled > 0) {
+            statusLabel.setText("Descarga cancelada: lo ya bajado queda y se retoma desde ahí.");
+        } else {
+            statusLabel.setText("¡Listo para lanzar!");
+        }
+        onVersionSelected(versionCombo.getValue());
+    }
 
+    /** Una fila por versión en la cola: nombre, avance, estado y un botón para cancelarla. */
+    private static final class InstallRow {
+        final HBox box;
+        final ProgressBar bar = new ProgressBar(0);
+        final Label status = new Label();
+        final Button cancel = new Button("✕");
+        boolean reported;
+
+        InstallRow(InstallQueue queue, InstallQueue.Job job) {
+            Label name = new Label(job.getVersion());
+            name.setMinWidth(90);
+            bar.setPrefWidth(160);
+            cancel.setOnAction(e -> queue.cancel(job));
+            box = new HBox(8, name, bar, status, cancel);
+            box.setAlignment(Pos.CENTER_LEFT);
+        }
 
-                installedVersions.add(ver);
-                updateMessage("¡Descarga completa!");
-                return null;
+        void update(InstallQueue.Job job) {
+            bar.setProgress(job.getProgress());
+            switch (job.getStatus()) {
+                case QUEUED -> status.setText("En cola");
+                case RUNNING -> status.setText(job.getControl().getState() == VersionInstaller.Control.State.PAUSED
+                        ? "En pausa" : Objects.requireNonNullElse(job.getMessage(), "Empezando…"));
+                case DONE -> status.setText("Lista");
+                case CANCELLED -> status.setText("Cancelada");
+                case FAILED -> status.setText("Error: " + job.getError().getMessage());
             }
-        };
-
+            cancel.setDisable(job.isFinished());
+            if (job.getStatus() == InstallQueue.Status.FAILED && !reported) {
+                reported = true;
+                job.getError().printStackTrace();
+            }
+        }
+    }
 
-        progressBar.progressProperty().bind(task.progressProperty());
-        progressBar.setVisible(true);
-        statusLabel.textProperty().bind(task.messageProperty());
+    private void showInstallControls(boolean show) {
+        for (Button b : List.of(installPauseButton, installCancelButton)) {
+            b.setVisible(show);
+            b.setManaged(show);
+        }
+    }
 
-        task.setOnSucceeded(evt -> {
-            statusLabel.textProperty().unbind();
-            statusLabel.setText("¡Listo para lanzar!");
-            launchButton.setDisable(false);
-            onVersionSelected(ver);
-        });
-        task.setOnFailed(evt -> {
-            statusLabel.textProperty().unbind();
-            statusLabel.setText("Error durante descarga");
-            task.getException().printStackTrace();
-        });
+    /** Entre archivos: lo que se está bajando en ese momento termina antes de quedar en pausa. */
+    private void toggleInstallPause() {
+        if (installQueue == null || !installQueue.isBusy()) return;
+        if (installPaused) {
+            installQueue.resumeAll();
+            installPauseButton.setText("Pausar");
+        } else {
+            installQueue.pauseAll();
+            installPauseButton.setText("Reanudar");
+        }
+        installPaused = !installPaused;
+        refreshInstalls();
+    }
 
-        new Thread(task) {{ setDaemon(true); }}.start();
+    private void cancelInstall() {
+        if (installQueue == null) return;
+        installPauseButton.setDisable(true);
+        installCancelButton.setDisable(true);
+        installQueue.cancelAll();
     }
 
 
@@ -1082,30 +1591,35 @@ public class MainWindow extends Application {
             return;
         }
 
-        new Thread(() -> {
-            Platform.runLater(() -> statusLabel.setText("Lanzando…"));
-            try {
-                // Llama a la versión que vuelca logs a consola
-                launchExecutor.launch(
-                        session,
-                        ver,
-                        mcBaseDir.toFile(),
-                        ram,
-                        null, 0,
-                        line -> Platform.runLater(() -> consoleTextArea.appendText(line + "\n")),
-                        err -> Platform.runLater(() -> consoleTextArea.appendText("[ERR] " + err + "\n"))
-                );
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                Platform.runLater(() -> statusLabel.setText("Error al lanzar"));
-            } finally {
-
-                Platform.runLater(() -> {
-                    statusLabel.setText("¡Juego cerrado!");
+        statusLabel.setText("Lanzando…");
+        // sin prefetch mientras el juego corre (reanuda al cerrarse esta instancia)
+        prefetcher.pause();
+        launchExecutor.startAsync(session, ver, mcBaseDir.toFile(), ram, null, 0)
+                .whenComplete((gi, ex) -> Platform.runLater(() -> {
+                    // se puede lanzar otra instancia en paralelo
                     enablePlayButtons();
-                });
-            }
-        }, "Launcher-Thread").start();
+                    if (ex != null) {
+                        prefetcher.resume();
+                        ex.printStackTrace();
+                        statusLabel.setText("Error al lanzar");
+                        return;
+                    }
+                    gameInstances.add(gi);
+                    monitoredInstance = gi;
+                    updateRunningStatus();
+                    gi.onExit().whenComplete((code, err) -> {
+                        prefetcher.resume();
+                        Platform.runLater(() -> {
+                            updateRunningStatus();
+                            refreshLaunchStats(versionCombo.getValue());
+                        });
+                    });
+                }));
+    }
+
+    private void updateRunningStatus() {
+        long running = gameInstances.stream().filter(GameInstance::isAlive).count();
+        statusLabel.setText(running == 0 ? "¡Juego cerrado!" : "Instancias en ejecución: " + running);
     }
 
 
@@ -1122,6 +1636,7 @@ public class MainWindow extends Application {
         preview.getStyleClass().add("screenshot-preview");
 
         current = new SimpleObjectProperty<>();
+        thumbnailCache = new ThumbnailCache(ThumbnailCache.cacheDir(mcBaseDir), THUMB_WIDTH);
 
 
         preview.setOnMouseClicked(e -> {
@@ -1135,24 +1650,25 @@ public class MainWindow extends Application {
         });
 
 
-        thumbsColumn = new VBox(10);
-        thumbsColumn.setPadding(new Insets(10));
-        thumbsColumn.getStyleClass().add("screenshot-thumbs-column");
-
-        thumbsColumn.setStyle(null);
+        // Lista virtualizada: solo existen nodos para las celdas visibles, haya 10 o 5000 screenshots
+        thumbsList = new ListView<>(screenshots);
+        thumbsList.getStyleClass().add("screenshot-thumbs-column");
+        thumbsList.setFixedCellSize(THUMB_HEIGHT + 16);
+        thumbsList.setPrefWidth(140);
+        thumbsList.setCellFactory(lv -> new ScreenshotCell());
+        Label none = new Label("No se encontraron screenshots");
+        none.getStyleClass().add("section-status");
+        thumbsList.setPlaceholder(none);
+        thumbsList.getSelectionModel().selectedItemProperty()
+                .addListener((obs, oldV, newV) -> showScreenshot(newV));
+        VBox.setVgrow(thumbsList, Priority.ALWAYS);
 
-        refreshScreenshotsOnce(folder.toPath());
-
-        ScrollPane scrollThumbs = new ScrollPane(thumbsColumn);
-        scrollThumbs.setFitToWidth(true);
-        scrollThumbs.setPrefWidth(130);
-        scrollThumbs.setStyle("-fx-background: transparent;");
-        VBox.setVgrow(scrollThumbs, Priority.ALWAYS);
+        loadScreenshots(ssDir);
 
         Label header = new Label("Screenshots");
         header.getStyleClass().add("section-header");
 
-        HBox hbox = new HBox(15, preview, scrollThumbs);
+        HBox hbox = new HBox(15, preview, thumbsList);
         hbox.setAlignment(Pos.CENTER);
         HBox.setHgrow(preview, Priority.ALWAYS);
 
@@ -1163,183 +1679,205 @@ public class MainWindow extends Application {
         VBox.setVgrow(screenshotsPane, Priority.ALWAYS);
 
 
-        startScreenshotsTimer(folder.toPath());
+        startScreenshotWatcher(ssDir);
     }
 
-
-    private void refreshScreenshotsOnce(Path ssDir) {
-        File[] files = ssDir.toFile().listFiles((d, n) -> {
-            String ln = n.toLowerCase();
-            return ln.endsWith(".png") || ln.endsWith(".jpg") || ln.endsWith(".jpeg");
-        });
-        currentScreenshots.clear();
-        thumbsColumn.getChildren().clear();
-
-        if (files == null || files.length == 0) {
-            Label none = new Label("No se encontraron screenshots");
-            none.getStyleClass().add("section-status");
-            thumbsColumn.getChildren().add(none);
-        } else {
-
-            currentScreenshots.clear();
-            for (File f : files) currentScreenshots.add(f.toPath());
-            Path first = files[0].toPath();
-            current.set(first);
-            preview.setImage(new Image(first.toUri().toString(), 600, 0, true, true));
-
-
-            for (Path p : currentScreenshots) {
-                addScreenshotThumbnail(p);
-            }
-        }
+    private static boolean isScreenshot(String fileName) {
+        String ln = fileName.toLowerCase();
+        return ln.endsWith(".png") || ln.endsWith(".jpg") || ln.endsWith(".jpeg");
     }
 
-    private void refreshScreenshots(Path ssDir) {
-        // Listado actual en disco
-        Set<Path> found = new HashSet<>();
-        File[] files = ssDir.toFile().listFiles((d, n) -> {
-            String ln = n.toLowerCase();
-            return ln.endsWith(".png") || ln.endsWith(".jpg");
-        });
+    /**
+     * Lista la carpeta una vez y arma el índice ordenado. Después lo mantiene el WatchService;
+     * solo se vuelve a listar si el sistema avisa que perdió eventos (OVERFLOW).
+     */
+    private void loadScreenshots(Path ssDir) {
+        File[] files = ssDir.toFile().listFiles((d, n) -> isScreenshot(n));
+        List<Path> found = new ArrayList<>();
         if (files != null) for (File f : files) found.add(f.toPath());
+        found.sort(NEWEST_FIRST);
+
+        Path selected = current.get();
+        screenshots.setAll(found);
+        if (selected != null && screenshots.contains(selected)) {
+            thumbsList.getSelectionModel().select(selected);
+        } else if (!screenshots.isEmpty()) {
+            thumbsList.getSelectionModel().select(0);
+        } else {
+            showScreenshot(null);
+        }
 
+        // miniaturas de screenshots que ya no están (o cambiaron)
+        List<Path> live = List.copyOf(found);
+        Tasks.cpu().execute(() -> thumbnailCache.prune(live));
+    }
 
-        for (Path p : found) {
-            if (!currentScreenshots.contains(p)) {
-                currentScreenshots.add(p);
-                addScreenshotThumbnail(p);
-            }
-        }
+    private void showScreenshot(Path imgPath) {
+        current.set(imgPath);
+        preview.setImage(imgPath != null ? previewImage(imgPath) : null);
+        if (imgPath != null) prefetchNeighbourPreviews(imgPath);
+    }
 
-        Iterator<Path> it = currentScreenshots.iterator();
-        while (it.hasNext()) {
-            Path p = it.next();
-            if (!found.contains(p)) {
-                removeScreenshotThumbnail(p);
-                it.remove();
-            }
+    /** Alta o cambio de un screenshot: inserción ordenada, sin reordenar la lista. */
+    private void screenshotChanged(Path imgPath) {
+        int idx = Collections.binarySearch(screenshots, imgPath, NEWEST_FIRST);
+        if (idx < 0) {
+            screenshots.add(-idx - 1, imgPath);
+            if (thumbsList.getSelectionModel().isEmpty()) thumbsList.getSelectionModel().select(imgPath);
+            return;
         }
+        // el juego escribe el archivo después de crearlo: lo ya decodificado quedó viejo
+        thumbnailImages.remove(imgPath);
+        previewImages.remove(imgPath);
+        thumbsList.refresh();
+        if (imgPath.equals(current.get())) preview.setImage(previewImage(imgPath));
     }
 
-    private void startScreenshotsTimer(Path ssDir) {
-        Timeline timer = new Timeline(
-                new KeyFrame(Duration.ZERO, e -> refreshScreenshots(ssDir)),
-                new KeyFrame(Duration.seconds(5))
-        );
-        timer.setCycleCount(Timeline.INDEFINITE);
-        timer.play();
+    private void screenshotDeleted(Path imgPath) {
+        int idx = Collections.binarySearch(screenshots, imgPath, NEWEST_FIRST);
+        if (idx >= 0) screenshots.remove(idx);
+        thumbnailImages.remove(imgPath);
+        previewImages.remove(imgPath);
+        if (imgPath.equals(current.get())) {
+            Path selected = thumbsList.getSelectionModel().getSelectedItem();
+            showScreenshot(imgPath.equals(selected) ? null : selected);
+        }
     }
 
-
-    private void startScreenshotWatcher() {
+    private void startScreenshotWatcher(Path dir) {
         try {
-            Path dir = mcBaseDir.resolve("screenshots");
             screenshotWatcher = FileSystems.getDefault().newWatchService();
             dir.register(screenshotWatcher, StandardWatchEventKinds.ENTRY_CREATE,
-                    StandardWatchEventKinds.ENTRY_DELETE);
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
 
 
-            screenshotWatcherThread = new Thread(() -> {
+            Tasks.background("Screenshots-Watcher", () -> {
                 try {
                     while (true) {
                         WatchKey key = screenshotWatcher.take();
                         for (WatchEvent<?> ev : key.pollEvents()) {
                             WatchEvent.Kind<?> kind = ev.kind();
-                            Path filename = ((WatchEvent<Path>) ev).context();
+                            if (kind == StandardWatchEventKinds.OVERFLOW) {
+                                Platform.runLater(() -> loadScreenshots(dir));
+                                continue;
+                            }
+                            Path filename = (Path) ev.context();
+                            if (!isScreenshot(filename.toString())) continue;
                             Path fullPath = dir.resolve(filename);
 
-
-                            String ln = filename.toString().toLowerCase();
-                            if (!(ln.endsWith(".png") || ln.endsWith(".jpg"))) continue;
-
                             Platform.runLater(() -> {
-                                if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
-                                    addScreenshotThumbnail(fullPath);
-                                } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
-                                    removeScreenshotThumbnail(fullPath);
+                                if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                                    screenshotDeleted(fullPath);
+                                } else {
+                                    screenshotChanged(fullPath);
                                 }
                             });
                         }
                         if (!key.reset()) break;
                     }
-                } catch (InterruptedException ignored) {
+                } catch (InterruptedException | ClosedWatchServiceException ignored) {
                 }
-            }, "Screenshots-Watcher");
-            screenshotWatcherThread.setDaemon(true);
-            screenshotWatcherThread.start();
+            });
 
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private void addScreenshotThumbnail(Path imgPath) {
-        try {
-
-            Image thumbImg = new Image(
-                    imgPath.toUri().toString(),
-                    100,
-                    0,
-                    true,
-                    true
-            );
-
+    /** Celda de la galería; la ListView reusa unas pocas y solo les cambia la imagen. */
+    private final class ScreenshotCell extends ListCell<Path> {
+        private final ImageView thumb = new ImageView();
+        private final StackPane container = new StackPane(thumb);
 
-            ImageView thumb = new ImageView(thumbImg);
+        ScreenshotCell() {
             thumb.setPreserveRatio(true);
-            thumb.setFitWidth(100);
+            thumb.setFitWidth(THUMB_WIDTH);
+            thumb.setFitHeight(THUMB_HEIGHT);
             thumb.getStyleClass().add("screenshot-thumb");
+            container.getStyleClass().add("screenshot-thumb-container");
+            container.setPadding(new Insets(4));
+            setCursor(Cursor.HAND);
+        }
 
+        @Override
+        protected void updateItem(Path imgPath, boolean empty) {
+            super.updateItem(imgPath, empty);
+            if (empty || imgPath == null) {
+                thumbnailTargets.remove(thumb);
+                thumb.setImage(null);
+                setGraphic(null);
+            } else {
+                loadThumbnail(imgPath, thumb);
+                setGraphic(container);
+            }
+        }
 
-            StackPane thumbContainer = new StackPane(thumb);
-            thumbContainer.getStyleClass().add("screenshot-thumb-container");
-            thumbContainer.setPadding(new Insets(4));
-            thumbContainer.setCursor(Cursor.HAND);
-
-
-            thumbContainer.setOnMouseClicked(e -> {
-
-                thumbsColumn.getChildren().forEach(node ->
-                        node.getStyleClass().remove("selected-thumb")
-                );
-
-                thumbContainer.getStyleClass().add("selected-thumb");
-
-                // actualizar la ruta actual y la vista previa
-                current.set(imgPath);
-                preview.setImage(new Image(
-                        imgPath.toUri().toString(),
-                        600, 0, true, true
-                ));
-            });
-
-            // Añadir al VBox de miniaturas
-            thumbsColumn.getChildren().add(thumbContainer);
-        } catch (Exception ex) {
-            ex.printStackTrace();
+        @Override
+        public void updateSelected(boolean selected) {
+            super.updateSelected(selected);
+            container.getStyleClass().remove("selected-thumb");
+            if (selected) container.getStyleClass().add("selected-thumb");
         }
     }
 
-
-
-    private void removeScreenshotThumbnail(Path imgPath) {
-        thumbsColumn.getChildren().removeIf(node -> {
-            if (node instanceof ImageView iv) {
-                return iv.getImage().getUrl().equals(imgPath.toUri().toString());
+    /**
+     * Pone en target la miniatura de imgPath: de la LRU si está, si no desde la caché en disco
+     * (generándola si falta) en el pool de miniaturas. Si mientras tanto la celda pasó a mostrar
+     * otra imagen (scroll rápido), el trabajo se saltea o su resultado solo queda en la LRU.
+     */
+    private void loadThumbnail(Path imgPath, ImageView target) {
+        thumbnailTargets.put(target, imgPath);
+        Image cached = thumbnailImages.get(imgPath);
+        if (cached != null) {
+            target.setImage(cached);
+            return;
+        }
+        target.setImage(null);
+        Tasks.cpu().execute(() -> {
+            if (!imgPath.equals(thumbnailTargets.get(target))) return;
+            Image img;
+            try {
+                img = new Image(thumbnailCache.thumbnailFor(imgPath).toUri().toString());
+            } catch (IOException ex) {
+                // formato raro o archivo a medio escribir: se decodifica directo, sin cachear en disco
+                img = new Image(imgPath.toUri().toString(), THUMB_WIDTH, 0, true, true);
             }
-            return false;
+            Image loaded = img;
+            Platform.runLater(() -> {
+                if (!loaded.isError()) thumbnailImages.put(imgPath, loaded);
+                if (imgPath.equals(thumbnailTargets.get(target))) target.setImage(loaded);
+            });
         });
+    }
+
+    /** Vista previa de imgPath; si no está en la LRU se decodifica en segundo plano (JavaFX). */
+    private Image previewImage(Path imgPath) {
+        Image img = previewImages.get(imgPath);
+        if (img == null || img.isError()) {
+            img = new Image(imgPath.toUri().toString(), PREVIEW_WIDTH, 0, true, true, true);
+            previewImages.put(imgPath, img);
+        }
+        return img;
+    }
 
-        if (current.get() != null && current.get().equals(imgPath)) {
-            current.set(null);
-            preview.setImage(null);
+    /** Precarga las vistas previas de los screenshots vecinos, para moverse sin esperas. */
+    private void prefetchNeighbourPreviews(Path imgPath) {
+        int i = Collections.binarySearch(screenshots, imgPath, NEWEST_FIRST);
+        if (i < 0) return;
+        for (int d = 1; d <= PREVIEW_NEIGHBOURS; d++) {
+            if (i + d < screenshots.size()) previewImage(screenshots.get(i + d));
+            if (i - d >= 0) previewImage(screenshots.get(i - d));
         }
+        previewImage(imgPath); // que la seleccionada quede como la más reciente en la LRU
     }
 
-    private String pathFromUrl(String url) throws URISyntaxException {
-        URI uri = new URI(url);
-        String p = uri.getPath();
-        return p.startsWith("/") ? p.substring(1) : p;
+    private static <K, V> Map<K, V> lruCache(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
     }
 
     private static Path computeMcBaseDir() {
@@ -1392,29 +1930,6 @@ public class MainWindow extends Application {
         return "0.0.0";
     }
 
-    private String fetchLatestTagName() throws IOException {
-        URL url = new URL("https://api.github.com/repos/Alenkpo1/YaguaLauncher/releases/latest");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestProperty("Accept", "application/vnd.github.v3+json");
-        try (BufferedReader r = new BufferedReader(
-                new InputStreamReader(conn.getInputStream()))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = r.readLine()) != null) sb.append(line);
-            String json = sb.toString();
-            String key = "\"tag_name\":\"";
-            int i = json.indexOf(key);
-            if (i >= 0) {
-                int start = i + key.length();
-                int end = json.indexOf("\"", start);
-                if (end >= 0) {
-                    return json.substring(start, end);
-                }
-            }
-        }
-        throw new IOException("No pude obtener tag_name de la última release");
-    }
-
     /**
      * Compara semánticamente dos versiones X.Y.Z
      */
@@ -1439,64 +1954,27 @@ public class MainWindow extends Application {
         catch (NumberFormatException e) { return 0; }
     }
 
-    private record ReleaseInfo(String tag, String assetUrl) {
-    }
-
-    private ReleaseInfo fetchLatestReleaseInfo() throws IOException {
-        URL apiUrl = new URL("https://api.github.com/repos/Alenkpo1/YaguaLauncher/releases/latest");
-        HttpURLConnection conn = (HttpURLConnection) apiUrl.openConnection();
-        conn.setRequestProperty("Accept", "application/vnd.github.v3+json");
-        conn.setConnectTimeout(7000);
-        conn.setReadTimeout(7000);
-
-        int status = conn.getResponseCode();
-        if (status != 200) throw new IOException("GitHub API respondió HTTP " + status);
-
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) sb.append(line);
-        } finally {
-            conn.disconnect();
-        }
-        String json = sb.toString();
-
-
-        Matcher tagMatcher = Pattern.compile("\"tag_name\"\\s*:\\s*\"([^\"]+)\"").matcher(json);
-        if (!tagMatcher.find()) throw new IOException("No se encontró tag_name");
-        String tag = tagMatcher.group(1);
-
-
-        Matcher urlMatcher = Pattern.compile("\"browser_download_url\"\\s*:\\s*\"([^\"]+\\.exe)\"").matcher(json);
-        if (!urlMatcher.find()) throw new IOException("No se encontró ningún asset .exe en la última release");
-        String assetUrl = urlMatcher.group(1);
-
-        return new ReleaseInfo(tag, assetUrl);
+    private SelfUpdater selfUpdater() {
+        if (selfUpdater == null) selfUpdater = new SelfUpdater(SelfUpdater.cacheDir(mcBaseDir));
+        return selfUpdater;
     }
 
-
-
-
-
-
-
     private void checkForUpdates() {
         updateButton.setDisable(true);
-        Task<ReleaseInfo> t = new Task<>() {
-            @Override protected ReleaseInfo call() throws Exception {
+        Task<SelfUpdater.Release> t = new Task<>() {
+            @Override protected SelfUpdater.Release call() throws Exception {
                 String current = getCurrentVersion();
                 updateMessage("Buscando actualizaciones…");
-                ReleaseInfo info = fetchLatestReleaseInfo();
+                SelfUpdater.Release info = selfUpdater().fetchLatest();
                 System.out.println("[Update] current=" + current + " latest=" + info.tag());
-                if (isNewer(current, info.tag())) return info;
-                else return new ReleaseInfo("", "");
+                return isNewer(current, info.tag()) ? info : null;
             }
         };
         t.setOnSucceeded(e -> {
             updateButton.setDisable(false);
-            ReleaseInfo info = t.getValue();
-            if (!info.tag().isEmpty()) {
-                promptUpdate(info.tag(), info.assetUrl());
+            SelfUpdater.Release info = t.getValue();
+            if (info != null) {
+                promptUpdate(info);
             } else {
                 new Alert(Alert.AlertType.INFORMATION,
                         "Ya tienes la última versión (" + getCurrentVersion() + ")"
@@ -1509,67 +1987,102 @@ public class MainWindow extends Application {
                     "Error al buscar actualizaciones:\n" + t.getException().getMessage()
             ).showAndWait();
         });
-        new Thread(t, "Check-Updates").start();
+        Tasks.background("Check-Updates", t);
     }
 
-    private void promptUpdate(String latestTag, String assetUrl) {
+    private void promptUpdate(SelfUpdater.Release release) {
         Alert dlg = new Alert(Alert.AlertType.CONFIRMATION,
-                "Hay una nueva versión: " + latestTag + "\n¿Descargar y reiniciar ahora?",
+                "Hay una nueva versión: " + release.tag() + "\n¿Descargar y reiniciar ahora?",
                 ButtonType.YES, ButtonType.NO
         );
         dlg.setTitle("Actualización disponible");
         dlg.setHeaderText(null);
         dlg.showAndWait().ifPresent(bt -> {
             if (bt == ButtonType.YES) {
-                // Descarga en background
-                Task<Path> downloadTask = new Task<>() {
-                    @Override protected Path call() throws Exception {
-                        updateButton.setDisable(true);
+                Path installedJar = SelfUpdater.currentJar();
+                // Descarga en background: parche contra el jar instalado si la release lo trae,
+                // si no el instalador; en los dos casos con el SHA-256 ya verificado
+                Task<SelfUpdater.Update> downloadTask = new Task<>() {
+                    @Override protected SelfUpdater.Update call() throws Exception {
                         updateMessage("Descargando actualización…");
-                        return downloadNewVersion(assetUrl);
+                        return selfUpdater().prepare(release, installedJar, (msg, done, total) -> {
+                            if (msg != null) updateMessage(msg);
+                            updateProgress(done, total);
+                        });
                     }
                 };
+                updateButton.setDisable(true);
+                downloadTask.progressProperty().addListener((obs, old, p) -> updateButton.setText(
+                        p.doubleValue() > 0 ? String.format("Descargando… %.0f%%", p.doubleValue() * 100) : "Descargando…"));
                 downloadTask.setOnSucceeded(ev -> {
+                    SelfUpdater.Update update = downloadTask.getValue();
                     try {
-
-                        scheduleInteractiveInstallAndRestart(downloadTask.getValue(), latestTag);
+                        if (update.jar()) {
+                            scheduleJarReplaceAndRestart(update.file(), installedJar, update.tag());
+                        } else {
+                            scheduleInteractiveInstallAndRestart(update.file(), update.tag());
+                        }
                     } catch (Exception ex) {
                         ex.printStackTrace();
                         new Alert(Alert.AlertType.ERROR, "Error al actualizar:\n" + ex.getMessage()).showAndWait();
+                        updateButton.setText("Comprobar actualizaciones");
                         updateButton.setDisable(false);
                     }
                 });
                 downloadTask.setOnFailed(ev -> {
+                    updateButton.setText("Comprobar actualizaciones");
                     new Alert(Alert.AlertType.ERROR,
                             "Error al descargar actualización:\n"
                                     + downloadTask.getException().getMessage()
                     ).showAndWait();
                     updateButton.setDisable(false);
                 });
-                new Thread(downloadTask, "Download-Update").start();
+                Tasks.background("Download-Update", downloadTask);
             }
         });
     }
 
+    private void scheduleInteractiveInstallAndRestart(java.nio.file.Path installerExe, String latestTag) throws Exception {
+        String installer = installerExe.toString().replace("\"","\"\""); // escapar comillas
+        String runInstallerBlock =
+                needsElevation(getExePath())
 
+                        ? "powershell -NoProfile -ExecutionPolicy Bypass -Command \"Start-Process -FilePath '" + installer.replace("\\","\\\\") + "' -Verb RunAs -Wait\""
 
+                        : "start /wait \"\" \"" + installer + "\"";
 
+        runUpdateScriptAndExit("Ejecutando instalador", runInstallerBlock, latestTag);
+    }
 
-
-    private Path downloadNewVersion(String assetUrl) throws IOException {
-        URL url = new URL(assetUrl);
-        String fileName = new File(url.getPath()).getName();
-        Path tmp = Files.createTempFile("YaguaLauncher-update-", "-" + fileName);
-
-        try (InputStream in = url.openStream();
-             OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.TRUNCATE_EXISTING)) {
-            in.transferTo(out);
-        }
-        return tmp;
+    /**
+     * Actualización por parche: el jar nuevo ya está armado y verificado, solo falta copiarlo
+     * sobre el instalado cuando el launcher se cierre (elevado si está en Program Files).
+     */
+    private void scheduleJarReplaceAndRestart(Path newJar, Path installedJar, String latestTag) throws Exception {
+        String src = newJar.toAbsolutePath().toString();
+        String dst = installedJar.toAbsolutePath().toString();
+        String copyBlock = needsElevation(dst)
+                // comillas simples de PowerShell dentro de otra cadena con comillas simples: se cuadruplican
+                ? "powershell -NoProfile -ExecutionPolicy Bypass -Command \"Start-Process powershell -Verb RunAs -Wait -ArgumentList "
+                        + "'-NoProfile','-Command','Copy-Item -LiteralPath ''" + src.replace("'", "''''")
+                        + "'' -Destination ''" + dst.replace("'", "''''") + "'' -Force'\""
+                : "copy /Y \"" + src + "\" \"" + dst + "\" >nul";
+
+        runUpdateScriptAndExit("Reemplazando " + installedJar.getFileName(), copyBlock, latestTag);
     }
 
+    private static boolean needsElevation(String path) {
+        return path.toLowerCase().startsWith("c:\\program files")
+                || path.toLowerCase().startsWith("c:\\program files (x86)");
+    }
 
-    private void scheduleInteractiveInstallAndRestart(java.nio.file.Path installerExe, String latestTag) throws Exception {
+    /**
+     * Script .bat temporal que:
+     * 1) espera a que cierre el launcher
+     * 2) corre {@code actionBlock} y ESPERA a que termine
+     * 3) deja una bandera y relanza el EXE
+     */
+    private void runUpdateScriptAndExit(String actionLabel, String actionBlock, String latestTag) throws Exception {
         String exePath = getExePath();
         String exeName = new java.io.File(exePath).getName();
 
@@ -1578,24 +2091,9 @@ public class MainWindow extends Application {
         java.nio.file.Path flagFile = flagDir.resolve("updated-" + latestTag + ".flag");
         java.nio.file.Files.createDirectories(flagDir);
 
-        boolean needsElevation = exePath.toLowerCase().startsWith("c:\\program files")
-                || exePath.toLowerCase().startsWith("c:\\program files (x86)");
-
-        // Script .bat temporal que:
-        // 1) espera a que cierre el launcher
-        // 2) ejecuta el instalador con UI y ESPERA a que termine (elevado si hace falta)
-        // 3) deja una bandera y relanza el EXE
         java.nio.file.Path script = java.nio.file.Files.createTempFile("yagua-update-", ".bat");
 
-        String installer = installerExe.toString().replace("\"","\"\""); // escapar comillas
         String exeEsc    = exePath.replace("\"","\"\"");
-        String runInstallerBlock =
-                needsElevation
-
-                        ? "powershell -NoProfile -ExecutionPolicy Bypass -Command \"Start-Process -FilePath '" + installer.replace("\\","\\\\") + "' -Verb RunAs -Wait\""
-
-                        : "start /wait \"\" \"" + installer + "\"";
-
         String logFile = flagDir.resolve("update.log").toString();
 
         String bat = String.join("\r\n",
@@ -1609,10 +2107,10 @@ public class MainWindow extends Application {
                 "  goto waitclose",
                 ")",
                 "",
-                "echo [YAGUA] Ejecutando instalador... >> \"" + logFile + "\"",
-                runInstallerBlock,
+                "echo [YAGUA] " + actionLabel + "... >> \"" + logFile + "\"",
+                actionBlock,
                 "set EC=%ERRORLEVEL%",
-                "echo [YAGUA] Instalador terminó con código %EC% >> \"" + logFile + "\"",
+                "echo [YAGUA] Terminó con código %EC% >> \"" + logFile + "\"",
                 "",
                 "echo ok > \"" + flagFile.toString() + "\"",
                 "start \"\" \"" + exeEsc + "\"",
@@ -1687,6 +2185,8 @@ public class MainWindow extends Application {
                 // Ruta al escritorio del usuario
                 String escritorio = System.getProperty("user.home") + "\\Desktop";
                 File accesoDirecto = new File(escritorio, nombre + ".lnk");
+                // lanzar powershell en cada arranque cuesta; si ya está, no hay nada que hacer
+                if (accesoDirecto.exists()) return;
 
                 String comando = String.format(
                         "powershell -NoProfile -ExecutionPolicy Bypass -Command \""
@@ -1765,6 +2265,9 @@ public class MainWindow extends Application {
         return tempFile;
     }
 
+    private JsonStore prefsStore;
+    private static final long PREFS_WRITE_DELAY_MS = 500;
+
     private static class LauncherPrefs {
         public String lastProfile;
         public String lastProfileId;
@@ -1778,26 +2281,19 @@ public class MainWindow extends Application {
         return mcBaseDir.resolve("launcher_prefs.json");
     }
 
+    private JsonStore prefsStore() {
+        if (prefsStore == null) prefsStore = new JsonStore(prefsPath(), PREFS_WRITE_DELAY_MS);
+        return prefsStore;
+    }
+
     private LauncherPrefs loadPrefs() {
-        try {
-            Path p = prefsPath();
-            if (Files.isRegularFile(p)) {
-                return new com.fasterxml.jackson.databind.ObjectMapper().readValue(p.toFile(), LauncherPrefs.class);
-            }
-        } catch (Exception ignored) {}
-        return new LauncherPrefs();
+        LauncherPrefs prefs = prefsStore().read(LauncherPrefs.class);
+        return (prefs != null) ? prefs : new LauncherPrefs();
     }
 
+    /** Se escribe diferido: teclear la RAM o cambiar combos seguidos termina en una escritura. */
     private void savePrefs(LauncherPrefs prefs) {
-        try {
-            Path p = prefsPath();
-            Files.createDirectories(p.getParent());
-            new com.fasterxml.jackson.databind.ObjectMapper()
-                    .writerWithDefaultPrettyPrinter()
-                    .writeValue(p.toFile(), prefs);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        prefsStore().save(prefs);
     }
 
     // Captura el estado actual de la UI
@@ -0,0 +1,152 @@
+package core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Servidor de Server List Ping mínimo en 127.0.0.1 (puerto libre), para probar
+ * {@link ServerPinger} sin red. Atiende cada conexión en su propio hilo según el {@link Mode}.
+ */
+final class FakeSlpServer implements AutoCloseable {
+
+    enum Mode {
+        /** handshake → estado → ping → pong, como un servidor real */
+        NORMAL,
+        /** contesta el estado y cierra al recibir el ping, sin pong */
+        CLOSE_BEFORE_PONG,
+        /** un puerto abierto que habla otra cosa (HTTP) */
+        NOT_MINECRAFT,
+        /** acepta y no contesta nunca */
+        SILENT
+    }
+
+    /** Lo que mandó el cliente en el handshake. */
+    record Handshake(int protocol, String host, int port, int nextState) {
+    }
+
+    private final ServerSocket socket;
+    private final Mode mode;
+    private final String statusJson;
+    private final List<Handshake> handshakes = new CopyOnWriteArrayList<>();
+    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+    private final Thread acceptor;
+
+    FakeSlpServer(Mode mode, String statusJson) throws IOException {
+        this.socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.mode = mode;
+        this.statusJson = statusJson;
+        this.acceptor = new Thread(this::acceptLoop, "fake-slp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    ServerPinger.Address address() {
+        return new ServerPinger.Address("127.0.0.1", socket.getLocalPort(), true);
+    }
+
+    List<Handshake> handshakes() {
+        return handshakes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        for (Socket c : clients) c.close();
+    }
+
+    private void acceptLoop() {
+        while (!socket.isClosed()) {
+            try {
+                Socket c = socket.accept();
+                clients.add(c);
+                Thread t = new Thread(() -> serve(c), "fake-slp-conn");
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException ex) {
+                return;   // cerrado
+            }
+        }
+    }
+
+    private void serve(Socket c) {
+        try (c) {
+            DataInputStream in = new DataInputStream(c.getInputStream());
+            OutputStream out = c.getOutputStream();
+            switch (mode) {
+                case SILENT -> {
+                    // espera a que el cliente se canse y cierre
+                    while (in.read() != -1) {
+                    }
+                }
+                case NOT_MINECRAFT -> {
+                    out.write("HTTP/1.1 400 Bad Request\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                }
+                case NORMAL, CLOSE_BEFORE_PONG -> {
+                    DataInputStream hs = packet(in);
+                    if (readVarInt(hs) != 0x00) return;
+                    int protocol = readVarInt(hs);
+                    String host = new String(hs.readNBytes(readVarInt(hs)), StandardCharsets.UTF_8);
+                    int port = hs.readUnsignedShort();
+                    handshakes.add(new Handshake(protocol, host, port, readVarInt(hs)));
+
+                    if (readVarInt(packet(in)) != 0x00) return;   // pedido de estado
+                    ByteArrayOutputStream body = new ByteArrayOutputStream();
+                    ServerPinger.writeVarInt(body, 0x00);
+                    byte[] json = statusJson.getBytes(StandardCharsets.UTF_8);
+                    ServerPinger.writeVarInt(body, json.length);
+                    body.writeBytes(json);
+                    writePacket(out, body.toByteArray());
+
+                    DataInputStream ping = packet(in);
+                    if (mode == Mode.CLOSE_BEFORE_PONG) return;
+                    if (readVarInt(ping) != 0x01) return;
+                    ByteArrayOutputStream pong = new ByteArrayOutputStream();
+                    ServerPinger.writeVarInt(pong, 0x01);
+                    pong.writeBytes(ping.readNBytes(8));
+                    writePacket(out, pong.toByteArray());
+                    // el cliente cierra al recibir el pong
+                    while (in.read() != -1) {
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+            // el cliente cortó
+        }
+    }
+
+    private static DataInputStream packet(DataInputStream in) throws IOException {
+        byte[] body = new byte[readVarInt(in)];
+        in.readFully(body);
+        return new DataInputStream(new ByteArrayInputStream(body));
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new IOException("fin de stream en VarInt");
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("VarInt demasiado largo");
+    }
+
+    private static void writePacket(OutputStream out, byte[] body) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        ServerPinger.writeVarInt(buf, body.length);
+        buf.writeBytes(body);
+        out.write(buf.toByteArray());
+        out.flush();
+    }
+}
@@ -0,0 +1,113 @@
+package core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ServerPinger} contra {@link FakeSlpServer} en 127.0.0.1; el resolver identidad
+ * evita el SRV, así que no se usa la red.
+ */
+class ServerPingerTest {
+    private static final String STATUS = """
+            {"version":{"name":"1.20.1","protocol":763},
+             "players":{"max":20,"online":3},
+             "description":{"text":"§aHola ","extra":[{"text":"§lmundo"}]}}""";
+    /** Holgado: la primera prueba paga la carga de clases (Jackson incluido). */
+    private static final long TIMEOUT_MS = 3000;
+    private static final long SHORT_TIMEOUT_MS = 300;
+
+    private ServerPinger pinger;
+    private FakeSlpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pinger = new ServerPinger(TIMEOUT_MS, UnaryOperator.identity());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pinger.close();
+        if (server != null) server.close();
+    }
+
+    @Test
+    void handshakeEstadoYPingPong() throws Exception {
+        server = new FakeSlpServer(FakeSlpServer.Mode.NORMAL, STATUS);
+        ServerPinger.Status st = pinger.ping(server.address()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(st.online(), st.error());
+        assertEquals("1.20.1", st.version());
+        assertEquals(763, st.protocol());
+        assertEquals(3, st.playersOnline());
+        assertEquals(20, st.playersMax());
+        assertEquals("Hola mundo", st.motd());
+        assertTrue(st.latencyMs() >= 0);
+
+        FakeSlpServer.Handshake hs = server.handshakes().get(0);
+        assertEquals(-1, hs.protocol());
+        assertEquals("127.0.0.1", hs.host());
+        assertEquals(server.address().port(), hs.port());
+        assertEquals(1, hs.nextState());
+    }
+
+    @Test
+    void cierreAntesDelPongAlcanzaConElEstado() throws Exception {
+        server = new FakeSlpServer(FakeSlpServer.Mode.CLOSE_BEFORE_PONG, STATUS);
+        ServerPinger.Status st = pinger.ping(server.address()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(st.online(), st.error());
+        assertEquals("1.20.1", st.version());
+    }
+
+    @Test
+    void puertoQueNoHablaElProtocoloEsOffline() throws Exception {
+        server = new FakeSlpServer(FakeSlpServer.Mode.NOT_MINECRAFT, STATUS);
+        ServerPinger.Status st = pinger.ping(server.address()).get(5, TimeUnit.SECONDS);
+
+        assertFalse(st.online());
+        assertNotNull(st.error());
+    }
+
+    @Test
+    void sinRespuestaVenceElPlazo() throws Exception {
+        server = new FakeSlpServer(FakeSlpServer.Mode.SILENT, STATUS);
+        ServerPinger.Status st;
+        long ms;
+        try (ServerPinger impatient = new ServerPinger(SHORT_TIMEOUT_MS, UnaryOperator.identity())) {
+            long t0 = System.nanoTime();
+            st = impatient.ping(server.address()).get(5, TimeUnit.SECONDS);
+            ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        }
+
+        assertFalse(st.online());
+        assertTrue(st.error().startsWith("sin respuesta"), st.error());
+        assertTrue(ms >= SHORT_TIMEOUT_MS, "venció a los " + ms + " ms");
+    }
+
+    @Test
+    void despuesDeCerrarCompletaOffline() throws Exception {
+        server = new FakeSlpServer(FakeSlpServer.Mode.NORMAL, STATUS);
+        pinger.close();
+        ServerPinger.Status st = pinger.ping(server.address()).get(5, TimeUnit.SECONDS);
+
+        assertFalse(st.online());
+        assertEquals("cerrado", st.error());
+    }
+
+    @Test
+    void direccionMalEscritaEsOffline() throws Exception {
+        ServerPinger.Status st = pinger.ping("localhost:abc").get(5, TimeUnit.SECONDS);
+
+        assertFalse(st.online());
+        assertEquals("dirección inválida", st.error());
+    }
+}